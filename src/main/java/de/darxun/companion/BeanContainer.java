@@ -0,0 +1,41 @@
+package de.darxun.companion;
+
+/**
+ * Provides access to the beans of a container, regardless of the beans being wired at runtime (CompanionContainer)
+ * or at compile time (GeneratedCompanionContainer).
+ */
+public interface BeanContainer extends AutoCloseable {
+
+    /**
+     * Returns the requested bean by the specified id if present.
+     * May throw a BeanNotFoundException if no matching bean could be found.
+     * @param beanId the beanId
+     * @return the bean
+     */
+    Object getBean(String beanId);
+
+    /**
+     * Returns the requested bean (as the correct type) by the specified id and class if present.
+     * May throw a BeanNotFoundException if no matching bean could be found.
+     * @param beanId the beanId
+     * @param clazz the class of the bean
+     * @return the bean
+     * @param <T> type of the bean
+     */
+    <T extends Object> T getBean(String beanId, Class<T> clazz);
+
+    /**
+     * Returns the requested bean (as the correct type) by the specified class if present.
+     * May throw a BeanNotFoundException if no matching bean could be found.
+     * @param clazz the class of the bean
+     * @return the bean
+     * @param <T> type of the bean
+     */
+    <T extends Object> T getBean(Class<T> clazz);
+
+    /**
+     * Closes the container by calling the @PreDestroy-methods of its beans
+     */
+    @Override
+    void close();
+}
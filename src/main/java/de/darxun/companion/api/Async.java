@@ -0,0 +1,19 @@
+package de.darxun.companion.api;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks an interface method of a bean, on the interface or on the bean class, to be called on the async executor of the container
+ * (see CompanionSettings.setAsyncExecutor) instead of on the calling thread. The method must return void or a CompletableFuture,
+ * the caller gets a future completed along with the future returned by the bean.
+ * Thread- and task-scope beans must not declare @Async-methods, as their instances are bound to the calling thread or task.
+ */
+@Target({ METHOD })
+@Retention(RUNTIME)
+public @interface Async {
+
+}
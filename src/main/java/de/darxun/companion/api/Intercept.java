@@ -0,0 +1,23 @@
+package de.darxun.companion.api;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Intercepts the calls of a bean by the given interceptor beans (see MethodInterceptor).
+ * On a bean class all methods of the beans interfaces are intercepted, on a method of a bean class the calls of this method only.
+ * The interceptors are applied in the declared order, the first one being the outermost, the interceptors of the class before the ones of the method.
+ * Intercepted beans are supplied as proxies and therefore have to implement atleast one interface.
+ */
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+public @interface Intercept {
+
+    /** the classes of the interceptor beans */
+    Class<? extends MethodInterceptor>[] value();
+
+}
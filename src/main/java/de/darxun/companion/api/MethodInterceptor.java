@@ -0,0 +1,26 @@
+package de.darxun.companion.api;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Interceptor of bean methods, registered as bean and declared on the intercepted beans via @Intercept.
+ * The interceptor is called once for every intercepted method while the bean is created and returns the handle to call
+ * instead of the given target, usually composed of the target via MethodHandles-combinators (e.g. foldArguments, tryFinally).
+ * The composed handles are called directly by the proxy of the bean, the interceptor is not involved in the calls anymore.
+ */
+public interface MethodInterceptor {
+
+    /** type of the target and the returned handle: (Object bean, Object[] arguments)Object */
+    MethodType TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    /**
+     * Intercepts the given method
+     * @param method the intercepted interface method
+     * @param target the handle calling the method (or the next interceptor) of type TYPE
+     * @return the handle to call instead of the target, of type TYPE
+     */
+    MethodHandle intercept(Method method, MethodHandle target);
+
+}
@@ -0,0 +1,29 @@
+package de.darxun.companion.api;
+
+import javax.inject.Scope;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Sets the scope for a bean as pooled-scope.
+ * A pooled-scope bean is backed by a bounded pool of instances. Every call on the bean borrows an instance
+ * from the pool and returns it afterwards, so an instance is never used by two threads at the same time.
+ * A call waiting longer than the timeout for an instance of an exhausted pool fails with an IllegalStateException,
+ * e.g. a pooled bean calling itself via its proxy, which would wait for its own instance otherwise.
+ */
+@Scope
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+public @interface Pooled {
+
+    /** the maximum number of instances held by the pool */
+    int max() default 8;
+
+    /** the maximum number of milliseconds a call waits for an instance of an exhausted pool */
+    long timeoutMillis() default 30_000L;
+
+}
@@ -0,0 +1,19 @@
+package de.darxun.companion.api;
+
+import javax.inject.Scope;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Sets the scope for a bean as prototype-scope.
+ * A new instance of a prototype-scope bean is created for every injection and every lookup via the container.
+ */
+@Scope
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+public @interface Prototype {
+}
@@ -0,0 +1,24 @@
+package de.darxun.companion.api;
+
+import javax.inject.Scope;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Sets the scope for a bean as striped-scope.
+ * A striped-scope bean is backed by a fixed number of instances (stripes). Every thread is mapped to one of the stripes,
+ * so the contention on a single instance is spread without creating an instance for every thread.
+ */
+@Scope
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+public @interface Striped {
+
+    /** the number of stripes, a value less than 1 defaults to the number of available processors */
+    int stripes() default 0;
+
+}
@@ -0,0 +1,20 @@
+package de.darxun.companion.api;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks a public method of a singleton bean with exactly one parameter that is called for every event published via
+ * CompanionContainer.publish, that is assignable to the type of the parameter.
+ */
+@Target({ METHOD })
+@Retention(RUNTIME)
+public @interface Subscribe {
+
+    /** true to receive the events on the event executor of the settings, in publish order but batched, instead of on the publishing thread */
+    boolean async() default false;
+
+}
@@ -0,0 +1,21 @@
+package de.darxun.companion.api;
+
+import javax.inject.Scope;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Sets the scope for a bean as task-scope.
+ * The lifecycle of a task-scope bean is bound to a task (e.g. a request) started via CompanionContainer.runInScope,
+ * including the tasks handed off to an executor wrapped via CompanionContainer.taskScoped.
+ * The instances are released as soon as the task and all its hand-offs are finished.
+ */
+@Scope
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+public @interface TaskScope {
+}
@@ -0,0 +1,31 @@
+package de.darxun.companion.api;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Captures a parameterized type to look up beans by, e.g. new TypeLiteral&lt;Repository&lt;User&gt;&gt;() {}
+ * @param <T> the captured type
+ */
+public abstract class TypeLiteral<T> {
+
+    private final Type type;
+
+    protected TypeLiteral() {
+        Type superclass = getClass().getGenericSuperclass();
+        if (!(superclass instanceof ParameterizedType)) {
+            throw new IllegalStateException("The TypeLiteral must be created with a type argument, e.g. new TypeLiteral<Repository<User>>() {}");
+        }
+
+        this.type = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "TypeLiteral{" + type.getTypeName() + '}';
+    }
+}
@@ -0,0 +1,21 @@
+package de.darxun.companion.api;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks a public no-arg method of a bean that should be called repeatedly by the container after all beans are created,
+ * so the method is compiled before the container reports ready.
+ * Beans supplied as proxy (e.g. thread-scope beans) must declare the method by one of their interfaces.
+ */
+@Target({ METHOD })
+@Retention(RUNTIME)
+public @interface Warmup {
+
+    /** the number of calls, a value less than 1 defaults to the warm-up iterations of the container */
+    int iterations() default 0;
+
+}
@@ -0,0 +1,97 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.BeanComputationException;
+import de.darxun.companion.container.model.BeanDefinition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the BeanDefinitions of a container.
+ * The container publishes a new snapshot (copy-on-write) for every change, so readers never need to lock.
+ */
+final class BeanDefinitionSnapshot {
+
+    static final BeanDefinitionSnapshot EMPTY = new BeanDefinitionSnapshot(Collections.emptySet(), Collections.emptyMap(), Collections.emptyMap());
+
+    private final Set<BeanDefinition> beanDefinitions;
+
+    private final Map<String, BeanDefinition> beanDefinitionIdMap;
+
+    /** BeanDefinitions by the resolved names of their parameterized supertypes */
+    private final Map<String, List<BeanDefinition>> genericTypeIndex;
+
+    private BeanDefinitionSnapshot(Set<BeanDefinition> beanDefinitions, Map<String, BeanDefinition> beanDefinitionIdMap, Map<String, List<BeanDefinition>> genericTypeIndex) {
+        this.beanDefinitions = beanDefinitions;
+        this.beanDefinitionIdMap = beanDefinitionIdMap;
+        this.genericTypeIndex = genericTypeIndex;
+    }
+
+    /**
+     * Creates a snapshot of the given BeanDefinitions.
+     * Throws an exception if two BeanDefinitions share the same id.
+     * @param beanDefinitions the BeanDefinitions
+     * @return the snapshot
+     */
+    static BeanDefinitionSnapshot of(Collection<BeanDefinition> beanDefinitions) {
+        Map<String, BeanDefinition> beanDefinitionIdMap = new HashMap<>(beanDefinitions.size() * 2);
+        Map<String, List<BeanDefinition>> genericTypeIndex = new HashMap<>();
+
+        for (BeanDefinition beanDefinition : beanDefinitions) {
+            BeanDefinition existing = beanDefinitionIdMap.putIfAbsent(beanDefinition.getId(), beanDefinition);
+            if (existing != null && existing != beanDefinition) {
+                throw new BeanComputationException(String.format("The bean id %s is used by %s and %s", beanDefinition.getId(), existing, beanDefinition));
+            }
+
+            for (String genericSupertype : beanDefinition.getGenericSupertypes()) {
+                genericTypeIndex.computeIfAbsent(genericSupertype, key -> new ArrayList<>(1)).add(beanDefinition);
+            }
+        }
+
+        return new BeanDefinitionSnapshot(Collections.unmodifiableSet(new LinkedHashSet<>(beanDefinitions)), Collections.unmodifiableMap(beanDefinitionIdMap),
+                Collections.unmodifiableMap(genericTypeIndex));
+    }
+
+    /**
+     * Returns a new snapshot additionally containing the given BeanDefinition
+     * @param beanDefinition the BeanDefinition to add
+     * @return the new snapshot
+     */
+    BeanDefinitionSnapshot with(BeanDefinition beanDefinition) {
+        Set<BeanDefinition> extended = new LinkedHashSet<>(beanDefinitions);
+        extended.add(beanDefinition);
+
+        return of(extended);
+    }
+
+    /**
+     * @return all BeanDefinitions
+     */
+    Set<BeanDefinition> getAll() {
+        return beanDefinitions;
+    }
+
+    /**
+     * Returns the BeanDefinition for the given id
+     * @param beanId the id
+     * @return the BeanDefinition or null
+     */
+    BeanDefinition getById(String beanId) {
+        return beanDefinitionIdMap.get(beanId);
+    }
+
+    /**
+     * Returns the BeanDefinitions having the given parameterized supertype
+     * @param genericTypeName the resolved name of the parameterized type, e.g. Repository<User>
+     * @return the BeanDefinitions, empty if there are none
+     */
+    List<BeanDefinition> getByGenericType(String genericTypeName) {
+        return genericTypeIndex.getOrDefault(genericTypeName, Collections.emptyList());
+    }
+}
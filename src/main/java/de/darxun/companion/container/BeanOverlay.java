@@ -0,0 +1,91 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.model.beansupplier.BeanSupplier;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Beans replaced by other instances, e.g. test doubles (see CompanionContainer.overrideBean), and the beans recreated on top of them.
+ * Beans depending on a replaced bean, directly or transitively, are recreated with the replacement on their first lookup,
+ * all other beans are shared with the container. An overlay is discarded as a whole, the beans of the container are never modified.
+ */
+class BeanOverlay {
+
+    private final Map<BeanDefinition, BeanSupplier> overrides;
+
+    /** the recreated beans, written under the registration lock of the container */
+    private final Map<BeanDefinition, BeanSupplier> recreatedBeans = new ConcurrentHashMap<>();
+
+    /** the resolved dependencies of the recreated beans, to destroy them in dependency order */
+    private final Map<BeanDefinition, List<BeanDefinition>> recreatedDependencies = new ConcurrentHashMap<>();
+
+    /** wether a bean depends on a replaced bean, computed on the first lookup of the bean */
+    private final Map<BeanDefinition, Boolean> affectedBeans = new ConcurrentHashMap<>();
+
+    BeanOverlay(Map<BeanDefinition, BeanSupplier> overrides) {
+        this.overrides = Map.copyOf(overrides);
+    }
+
+    /**
+     * Returns a new overlay replacing the beans of this overlay and the given bean, the recreated beans are not taken over
+     * @param beanDefinition the BeanDefinition of the replaced bean
+     * @param override the supplier of the replacement
+     * @return the new overlay
+     */
+    BeanOverlay with(BeanDefinition beanDefinition, BeanSupplier override) {
+        Map<BeanDefinition, BeanSupplier> newOverrides = new HashMap<>(overrides);
+        newOverrides.put(beanDefinition, override);
+
+        return new BeanOverlay(newOverrides);
+    }
+
+    /**
+     * @return a new overlay replacing the same beans, without any recreated bean
+     */
+    BeanOverlay reset() {
+        return new BeanOverlay(overrides);
+    }
+
+    /**
+     * @param beanDefinition the BeanDefinition
+     * @return the supplier of the replacement or of the recreated bean, null if the overlay does not supply the bean (yet)
+     */
+    BeanSupplier getSupplier(BeanDefinition beanDefinition) {
+        BeanSupplier override = overrides.get(beanDefinition);
+
+        return override != null ? override : recreatedBeans.get(beanDefinition);
+    }
+
+    boolean isOverridden(BeanDefinition beanDefinition) {
+        return overrides.containsKey(beanDefinition);
+    }
+
+    /**
+     * @param beanDefinition the BeanDefinition
+     * @return wether the bean depends on a replaced bean, null if not computed yet
+     */
+    Boolean isAffected(BeanDefinition beanDefinition) {
+        return affectedBeans.get(beanDefinition);
+    }
+
+    void setAffected(BeanDefinition beanDefinition, boolean affected) {
+        affectedBeans.put(beanDefinition, affected);
+    }
+
+    void addRecreatedBean(BeanDefinition beanDefinition, BeanSupplier beanSupplier, List<BeanDefinition> dependencies) {
+        recreatedBeans.put(beanDefinition, beanSupplier);
+        recreatedDependencies.put(beanDefinition, dependencies);
+    }
+
+    Map<BeanDefinition, BeanSupplier> getRecreatedBeans() {
+        return recreatedBeans;
+    }
+
+    Map<BeanDefinition, List<BeanDefinition>> getRecreatedDependencies() {
+        return recreatedDependencies;
+    }
+}
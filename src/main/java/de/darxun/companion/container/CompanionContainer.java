@@ -1,25 +1,68 @@
 package de.darxun.companion.container;
 
 import de.darxun.companion.BeanComputationException;
+import de.darxun.companion.BeanContainer;
 import de.darxun.companion.BeanCreationException;
 import de.darxun.companion.BeanNotFoundException;
 import de.darxun.companion.NoUniqueBeanFoundException;
+import de.darxun.companion.api.MethodInterceptor;
+import de.darxun.companion.api.Pooled;
+import de.darxun.companion.api.Prototype;
+import de.darxun.companion.api.Striped;
+import de.darxun.companion.api.TaskScope;
+import de.darxun.companion.api.TypeLiteral;
 import de.darxun.companion.api.ThreadScope;
+import de.darxun.companion.api.Warmup;
+import de.darxun.companion.container.footprint.FootprintReport;
+import de.darxun.companion.container.graph.BeanGraph;
 import de.darxun.companion.container.model.*;
+import de.darxun.companion.container.model.beansupplier.AsyncBeanSupplier;
 import de.darxun.companion.container.model.beansupplier.BeanSupplier;
+import de.darxun.companion.container.model.beansupplier.InterceptingBeanSupplier;
+import de.darxun.companion.container.model.beansupplier.PoolStatistics;
+import de.darxun.companion.container.model.beansupplier.PooledBeanSupplier;
+import de.darxun.companion.container.model.beansupplier.PrototypeBeanSupplier;
 import de.darxun.companion.container.model.beansupplier.SingletonBeanSupplier;
+import de.darxun.companion.container.model.beansupplier.StripedBeanSupplier;
+import de.darxun.companion.container.model.beansupplier.TaskContext;
+import de.darxun.companion.container.model.beansupplier.TaskScopeBeanSupplier;
 import de.darxun.companion.container.model.beansupplier.ThreadScopeBeanSupplier;
 import de.darxun.companion.container.util.BeanDefinitionHelper;
 import de.darxun.companion.container.util.ReflectionHelper;
+import de.darxun.companion.container.validation.GraphValidator;
+import de.darxun.companion.container.validation.ValidationProblem;
+import de.darxun.companion.container.validation.ValidationReport;
 import de.darxun.companion.api.Bean;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.*;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -28,104 +71,1185 @@ import static java.lang.System.Logger.Level;
 // TODO add support for @Configuration-Classes
 // TODO if there's only one ctor consider this as injectable
 // TODO maybe add support for lazy-init
-public class CompanionContainer {
+public class CompanionContainer implements BeanContainer {
 
     private static final System.Logger LOGGER = System.getLogger(CompanionContainer.class.getName());
 
     /**
-     * Containing all BeanDefinitions
+     * Resource listing the @Bean-Classes to use instead of scanning the classpath (see NativeImageConfigGenerator)
      */
-    private Set<BeanDefinition> beanDefinitionSet;
+    static final String BEAN_INDEX = "META-INF/companion/beans.idx";
+
+    /**
+     * Containing all BeanDefinitions, replaced as a whole (copy-on-write) on every change
+     */
+    private volatile BeanDefinitionSnapshot beanDefinitions;
+
+    /**
+     * Guards creating beans and registering beans at runtime
+     */
+    private final Object registrationLock = new Object();
 
     /**
      * Containing the real bean (or rather a supplier) for a BeanDefinition
      */
-    private Map<BeanDefinition, BeanSupplier> beanContainerMap;
+    private Map<BeanDefinition, BeanSupplier> beanContainerMap;
+
+    /**
+     * Containing the resolved dependencies (in constructor order) for a BeanDefinition
+     */
+    private Map<BeanDefinition, List<BeanDefinition>> beanDependencyMap;
+
+    /**
+     * Containing the time (in nanos) spent creating the BeanSupplier for a BeanDefinition, excluding its dependencies
+     */
+    private Map<BeanDefinition, Long> beanCreationTimeMap;
+
+    /**
+     * Containing the watchers reloading changed classes, closed along with the container
+     */
+    private final List<HotReloadWatcher> hotReloadWatchers = new CopyOnWriteArrayList<>();
+
+    /**
+     * The class loader of the latest reload and parent of the next one, so classes reloaded earlier resolve to their latest version,
+     * null before the first reload, guarded by the registrationLock
+     */
+    private ReloadingClassLoader reloadClassLoader;
+
+    /**
+     * Flags wether the container is closed
+     */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Completed as soon as all BeanDefinitions are computed
+     */
+    private final CompletableFuture<Void> beanDefinitionsFuture;
+
+    /**
+     * Completed as soon as the beans of the roots (or all beans) are created, other beans are created on demand afterwards
+     */
+    private final CompletableFuture<Void> beansCreatedFuture;
+
+    /**
+     * Containing a future for every BeanDefinition that is completed as soon as the bean is ready
+     */
+    private final Map<BeanDefinition, CompletableFuture<BeanSupplier>> beanReadinessMap;
+
+    /**
+     * Dispatches published events to the @Subscribe-methods, built on the first publish and rebuilt after registering or reloading beans
+     */
+    private volatile EventDispatcher eventDispatcher;
+
+    /**
+     * Replaced beans and the beans recreated on top of them (see overrideBean), null as long as no bean is replaced
+     */
+    private volatile BeanOverlay beanOverlay;
+
+    /**
+     * The member injection plans by class (see injectMembers), replaced after reloading classes
+     */
+    private volatile ClassValue<MemberInjectionPlan> memberInjectionPlans = createMemberInjectionPlans();
+
+    /**
+     * Executor of the @Async-methods created by the container if the settings do not set one, shut down on close, guarded by the registrationLock
+     */
+    private ExecutorService asyncExecutor;
+
+    /**
+     * The settings the container is initialized with
+     */
+    private final CompanionSettings settings;
+
+    /**
+     * The time spent warming up the container
+     */
+    private Duration warmupDuration = Duration.ZERO;
+
+    /**
+     * Flags wether injection by interface should be allowed (required for ThreadScope-Beans) or not
+     */
+    private final boolean doInjectByInterface = true;
+
+    /**
+     * Flags wether injection by superclass should be allowed or not
+     */
+    private final boolean doInjectBySuperclass = true;
+
+    /**
+     * Private constructor as the container is instantiated via setup-method
+     */
+    private CompanionContainer(final CompanionSettings settings) {
+        this.settings = settings;
+        beanDefinitions = BeanDefinitionSnapshot.EMPTY;
+        beanContainerMap = new ConcurrentHashMap<>();
+        beanDependencyMap = new ConcurrentHashMap<>();
+        beanCreationTimeMap = new ConcurrentHashMap<>();
+        beanDefinitionsFuture = new CompletableFuture<>();
+        beansCreatedFuture = new CompletableFuture<>();
+        beanReadinessMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Initializes the container
+     * @return the container
+     */
+    public static CompanionContainer setup() {
+        return setup(new CompanionSettings());
+    }
+
+    /**
+     * Initializes the container, creating only the beans of the given roots and their (transitive) dependencies.
+     * All other beans are created on demand, when they are retrieved for the first time.
+     * @param roots the classes of the beans to create on setup
+     * @return the container
+     */
+    public static CompanionContainer setup(final Class<?>... roots) {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setRoots(roots);
+
+        return setup(settings);
+    }
+
+    /**
+     * Initializes the container with the given settings
+     * @param settings the settings
+     * @return the container
+     */
+    public static CompanionContainer setup(final CompanionSettings settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("settings may not be null");
+        }
+
+        CompanionContainer container = new CompanionContainer(settings);
+        container.logSettings();
+
+        container.init();
+        return container;
+    }
+
+    /**
+     * Validates the bean graph without creating any bean (see validate(CompanionSettings))
+     * @return the report of the validation
+     */
+    public static ValidationReport validate() {
+        return validate(new CompanionSettings());
+    }
+
+    /**
+     * Validates the bean graph with the given settings without creating any bean: the classpath is scanned, the BeanDefinitions are computed
+     * and all dependencies are resolved, but no constructor is called. Other than setup, the validation does not stop at the first problem
+     * but reports every invalid bean and every missing, ambiguous and circular dependency.
+     * @param settings the settings
+     * @return the report of the validation
+     */
+    public static ValidationReport validate(final CompanionSettings settings) {
+        if (settings == null) {
+            throw new IllegalArgumentException("settings may not be null");
+        }
+
+        final long start = System.nanoTime();
+        CompanionContainer container = new CompanionContainer(settings);
+        List<ValidationProblem> problems = new ArrayList<>();
+
+        Map<String, BeanDefinition> beanDefinitionIdMap = new LinkedHashMap<>();
+        Set<Class<?>> loadedBeanClasses = ConcurrentHashMap.newKeySet();
+        container.streamBeanClasses(null, loadedBeanClasses::add);
+        List<Class<?>> beanClasses = loadedBeanClasses.stream().sorted(Comparator.comparing(Class::getName)).collect(Collectors.toList());
+        for (Class<?> clazz : beanClasses) {
+            BeanDefinition beanDefinition;
+            try {
+                beanDefinition = container.computeBeanDefinition(clazz);
+            } catch (BeanComputationException e) {
+                String message = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                problems.add(new ValidationProblem(ValidationProblem.Type.InvalidBean, clazz.getName(), message));
+                continue;
+            }
+
+            BeanDefinition existing = beanDefinitionIdMap.putIfAbsent(beanDefinition.getId(), beanDefinition);
+            if (existing != null) {
+                problems.add(new ValidationProblem(ValidationProblem.Type.DuplicateBeanId, beanDefinition.getId(),
+                        String.format("The bean id %s is used by %s and %s", beanDefinition.getId(), existing.getClazz().getName(), clazz.getName())));
+            }
+        }
+
+        BeanDefinitionSnapshot snapshot = BeanDefinitionSnapshot.of(beanDefinitionIdMap.values());
+        problems.addAll(GraphValidator.validate(snapshot.getAll(), dependency -> container.findBeanDefinitionsForDependency(dependency, snapshot)));
+
+        ValidationReport report = new ValidationReport(beanDefinitionIdMap.size(), problems, Duration.ofNanos(System.nanoTime() - start));
+        LOGGER.log(report.isValid() ? Level.INFO : Level.WARNING, report.toString());
+
+        return report;
+    }
+
+    /**
+     * Initializes the container asynchronously on the given executor.
+     * The returned future is completed as soon as all beans are created, while single beans
+     * may be retrieved beforehand via whenReady.
+     * @param executor the executor to initialize the container on
+     * @return the future of the container
+     */
+    public static CompanionSetupFuture setupAsync(final Executor executor) {
+        return setupAsync(executor, new CompanionSettings());
+    }
+
+    /**
+     * Initializes the container with the given settings asynchronously on the given executor.
+     * The returned future is completed as soon as all beans are created, while single beans
+     * may be retrieved beforehand via whenReady.
+     * @param executor the executor to initialize the container on
+     * @param settings the settings
+     * @return the future of the container
+     */
+    public static CompanionSetupFuture setupAsync(final Executor executor, final CompanionSettings settings) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor may not be null");
+        }
+        if (settings == null) {
+            throw new IllegalArgumentException("settings may not be null");
+        }
+
+        CompanionContainer container = new CompanionContainer(settings);
+        container.logSettings();
+
+        CompanionSetupFuture setupFuture = new CompanionSetupFuture(container);
+        executor.execute(() -> {
+            try {
+                container.init();
+                setupFuture.complete(container);
+            } catch (Throwable e) {
+                container.failReadiness(e);
+                setupFuture.completeExceptionally(e);
+            }
+        });
+
+        return setupFuture;
+    }
+
+    /**
+     * Logs the settings of the container
+     */
+    private void logSettings() {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, "Injection by interface is {0}", doInjectByInterface ? "enabled" : "disabled");
+            LOGGER.log(Level.INFO, "Injection by superclass is {0}", doInjectBySuperclass ? "enabled" : "disabled");
+            LOGGER.log(Level.INFO, "Warm-up is {0}", settings.isWarmupEnabled() ? "enabled" : "disabled");
+            LOGGER.log(Level.INFO, "Scan cache is {0}", settings.getScanCacheDirectory() != null ? "enabled" : "disabled");
+            LOGGER.log(Level.INFO, "Training run is {0}", settings.getTrainingRunDirectory() != null ? "enabled" : "disabled");
+            LOGGER.log(Level.INFO, "Bean index is {0}", settings.isBeanIndexEnabled() ? "enabled" : "disabled");
+        }
+    }
+
+    /**
+     * Closes the container by calling the @PreDestroy-methods of the beans in reverse dependency order.
+     * Beans independent of each other are destroyed in parallel, every bean is given the destroy timeout of the settings.
+     * Only instances tracked by the container are destroyed, i.e. thread-scope and prototype instances are not.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        for (HotReloadWatcher hotReloadWatcher : hotReloadWatchers) {
+            try {
+                hotReloadWatcher.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error closing hot reload watcher", e);
+            }
+        }
+
+        shutdownAsyncExecutor();
+        new ShutdownRunner(settings).run(beanContainerMap, beanDependencyMap);
+    }
+
+    /**
+     * Shuts the executor of the @Async-methods down if it was created by the container, running calls may complete within the destroy timeout
+     */
+    private void shutdownAsyncExecutor() {
+        ExecutorService executor;
+        synchronized (registrationLock) {
+            executor = asyncExecutor;
+        }
+
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(settings.getDestroyTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                LOGGER.log(Level.WARNING, "@Async-methods did not complete within {0} ms", settings.getDestroyTimeout().toMillis());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Watches the class output directories of the classpath and reloads changed classes (see watch(Path...)).
+     * @return the watcher, to be closed to stop watching
+     */
+    public HotReloadWatcher watch() {
+        List<Path> classDirectories = new ArrayList<>();
+        try {
+            Enumeration<URL> roots = CompanionContainer.class.getClassLoader().getResources("");
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if ("file".equals(root.getProtocol())) {
+                    classDirectories.add(Paths.get(root.toURI()));
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Could not determine the class output directories", e);
+        }
+
+        return watch(classDirectories.toArray(new Path[0]));
+    }
+
+    /**
+     * Watches the given class output directories and reloads changed classes.
+     * Only the changed classes are analyzed, only the beans of changed classes and the beans depending on them
+     * (transitively) are created again. The changed beans are swapped atomically, lookups see either all old or all new beans.
+     * Classes are reloaded in a new ClassLoader, so beans created before a reload (and held by the caller) are not updated
+     * and changed classes are only visible to reloaded beans. The ClassLoader of a reload is the parent of the next one,
+     * so the ClassLoaders of all reloads are kept along with the container. This is meant for development only.
+     * @param classDirectories the class output directories
+     * @return the watcher, to be closed to stop watching
+     */
+    public HotReloadWatcher watch(final Path... classDirectories) {
+        List<Path> directories = new ArrayList<>();
+        for (Path classDirectory : classDirectories) {
+            if (!Files.isDirectory(classDirectory)) {
+                throw new IllegalArgumentException(String.format("The class output directory (%s) does not exist", classDirectory));
+            }
+
+            directories.add(classDirectory.toAbsolutePath());
+        }
+
+        try {
+            HotReloadWatcher hotReloadWatcher = new HotReloadWatcher(this, directories);
+            hotReloadWatchers.add(hotReloadWatcher);
+
+            return hotReloadWatcher;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not watch the class output directories", e);
+        }
+    }
+
+    /**
+     * Reloads the given classes from the class output directories and recreates the affected beans,
+     * i.e. the beans of the changed classes and all beans depending on them
+     * @param changedClassNames the binary names of the changed classes
+     * @param classDirectories the class output directories
+     */
+    void reloadClasses(final Set<String> changedClassNames, final List<Path> classDirectories) {
+        final long start = System.nanoTime();
+
+        synchronized (registrationLock) {
+            BeanDefinitionSnapshot current = beanDefinitions;
+
+            // invert the dependencies to find the dependents of the changed beans
+            Map<BeanDefinition, List<BeanDefinition>> dependentsMap = new HashMap<>();
+            beanDependencyMap.forEach((beanDefinition, dependencies) -> {
+                for (BeanDefinition dependency : dependencies) {
+                    dependentsMap.computeIfAbsent(dependency, key -> new ArrayList<>()).add(beanDefinition);
+                }
+            });
+
+            // beans referencing a changed class (e.g. a supertype or the type of a dependency) are reloaded to pick the new class up
+            Set<String> unreferencedClassNames = new TreeSet<>(changedClassNames);
+            Deque<BeanDefinition> pending = new ArrayDeque<>();
+            for (BeanDefinition beanDefinition : current.getAll()) {
+                boolean changed = false;
+                for (Class<?> referencedClass : getReferencedClasses(beanDefinition)) {
+                    if (isChangedClass(referencedClass.getName(), changedClassNames)) {
+                        unreferencedClassNames.removeIf(className -> className.equals(referencedClass.getName()) || className.startsWith(referencedClass.getName() + "$"));
+                        changed = true;
+                    }
+                }
+
+                if (changed) {
+                    pending.add(beanDefinition);
+                }
+            }
+
+            if (!unreferencedClassNames.isEmpty()) {
+                LOGGER.log(Level.WARNING, "The changed classes {0} are not referenced by the type hierarchy or the dependencies of any bean, "
+                        + "beans using them otherwise keep the old classes until they are reloaded themselves", unreferencedClassNames);
+            }
+
+            Set<BeanDefinition> affected = new LinkedHashSet<>();
+            while (!pending.isEmpty()) {
+                BeanDefinition beanDefinition = pending.poll();
+                if (beanDefinition.getConstructor() == null) {
+                    LOGGER.log(Level.WARNING, "Bean {0} was registered as instance and cannot be reloaded", beanDefinition.getId());
+                } else if (affected.add(beanDefinition)) {
+                    pending.addAll(dependentsMap.getOrDefault(beanDefinition, List.of()));
+                }
+            }
+
+            Set<String> affectedClassNames = affected.stream().map(beanDefinition -> beanDefinition.getClazz().getName()).collect(Collectors.toSet());
+            Set<String> reloadedClassNames = new HashSet<>(changedClassNames);
+            reloadedClassNames.addAll(affectedClassNames);
+
+            // classes reloaded by an earlier reload are loaded by the previous generation, e.g. the dependencies of a reloaded bean
+            ClassLoader parent = reloadClassLoader != null ? reloadClassLoader : CompanionContainer.class.getClassLoader();
+            ReloadingClassLoader classLoader = new ReloadingClassLoader(parent, classDirectories, reloadedClassNames);
+
+            List<BeanDefinition> reloaded = new ArrayList<>();
+            for (String className : reloadedClassNames) {
+                if (classLoader.findClassFile(className) == null) {
+                    // the class was deleted
+                    continue;
+                }
+
+                Class<?> clazz;
+                try {
+                    clazz = Class.forName(className, false, classLoader);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    throw new BeanComputationException(String.format("Class %s could not be reloaded", className), e);
+                }
+
+                if (affectedClassNames.contains(className) || (!clazz.isAnnotation() && ReflectionHelper.hasClassAnnotation(clazz, Bean.class))) {
+                    reloaded.add(computeBeanDefinition(clazz));
+                }
+            }
+
+            Set<BeanDefinition> remaining = new LinkedHashSet<>(current.getAll());
+            remaining.removeAll(affected);
+            remaining.addAll(reloaded);
+            BeanDefinitionSnapshot reloadedSnapshot = BeanDefinitionSnapshot.of(remaining);
+
+            try {
+                initializeBeans(reloaded, reloadedSnapshot);
+            } catch (RuntimeException e) {
+                for (BeanDefinition beanDefinition : reloaded) {
+                    beanContainerMap.remove(beanDefinition);
+                    beanDependencyMap.remove(beanDefinition);
+                    beanCreationTimeMap.remove(beanDefinition);
+                }
+                throw e;
+            }
+
+            // swap the beans, the new beans are created already and the old ones are still in place
+            beanDefinitions = reloadedSnapshot;
+            eventDispatcher = null;
+            reloadClassLoader = classLoader;
+
+            Map<BeanDefinition, BeanSupplier> retiredSuppliers = new HashMap<>();
+            Map<BeanDefinition, List<BeanDefinition>> retiredDependencies = new HashMap<>();
+            for (BeanDefinition beanDefinition : affected) {
+                retiredSuppliers.put(beanDefinition, beanContainerMap.remove(beanDefinition));
+                retiredDependencies.put(beanDefinition, beanDependencyMap.remove(beanDefinition));
+                beanCreationTimeMap.remove(beanDefinition);
+                beanReadinessMap.remove(beanDefinition);
+            }
+
+            new ShutdownRunner(settings).run(retiredSuppliers, retiredDependencies);
+            resetBeanOverlay();
+            memberInjectionPlans = createMemberInjectionPlans();
+
+            if (LOGGER.isLoggable(Level.INFO)) {
+                LOGGER.log(Level.INFO, "Reloaded {0} of {1} beans in {2} ms: {3}", reloaded.size(), remaining.size(), (System.nanoTime() - start) / 1_000_000,
+                        reloaded.stream().map(BeanDefinition::getId).collect(Collectors.joining(", ")));
+            }
+        }
+    }
+
+    /**
+     * Returns the classes the class of the given BeanDefinition is linked against by its declaration:
+     * the class itself, its superclasses and interfaces and the types of its injected dependencies
+     * @param beanDefinition the BeanDefinition
+     * @return the referenced classes
+     */
+    private static Set<Class<?>> getReferencedClasses(BeanDefinition beanDefinition) {
+        Class<?> clazz = beanDefinition.getClazz();
+
+        Set<Class<?>> referencedClasses = new LinkedHashSet<>();
+        referencedClasses.add(clazz);
+        referencedClasses.addAll(ReflectionHelper.getAllSuperclasses(clazz));
+        referencedClasses.addAll(ReflectionHelper.getAllInterfaces(clazz));
+        if (beanDefinition.getConstructor() != null) {
+            for (Parameter parameter : beanDefinition.getConstructor().getParameters()) {
+                referencedClasses.add(parameter.getType());
+            }
+            for (Field field : ReflectionHelper.getInjectableFields(clazz)) {
+                referencedClasses.add(field.getType());
+            }
+            for (Method method : ReflectionHelper.getInjectableMethods(clazz)) {
+                referencedClasses.addAll(Arrays.asList(method.getParameterTypes()));
+            }
+        }
+
+        return referencedClasses;
+    }
+
+    /**
+     * Returns true if the given class or one of its nested classes is changed
+     * @param className the binary name of the class
+     * @param changedClassNames the binary names of the changed classes
+     * @return true, if the class needs to be reloaded
+     */
+    private static boolean isChangedClass(String className, Set<String> changedClassNames) {
+        if (changedClassNames.contains(className)) {
+            return true;
+        }
+
+        for (String changedClassName : changedClassNames) {
+            if (changedClassName.startsWith(className + "$")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Exports the resolved bean graph including the time spent creating every bean
+     * @return the bean graph
+     */
+    public BeanGraph exportGraph() {
+        return BeanGraph.of(beanContainerMap.keySet(), beanDependencyMap, beanCreationTimeMap);
+    }
+
+    /**
+     * Reports the heap footprint of the beans: the objects reachable from the singleton-, pooled- and striped-instances and from the
+     * thread-scope instances of all live threads are walked, their sizes aggregated per bean and per scope.
+     * The sizes are measured if the FootprintAgent is attached (-javaagent), estimated from the field layout otherwise.
+     * Walking the heap takes time, so the report is meant for diagnostics only.
+     * @return the footprint report
+     */
+    public FootprintReport exportFootprint() {
+        Map<BeanDefinition, Collection<Object>> beanInstances = new LinkedHashMap<>();
+
+        beanContainerMap.entrySet().stream().sorted(Map.Entry.comparingByKey(Comparator.comparing(BeanDefinition::getId))).forEach(entry -> {
+            BeanSupplier beanSupplier = getScopeBeanSupplier(entry.getValue());
+
+            beanInstances.put(entry.getKey(), beanSupplier instanceof ThreadScopeBeanSupplier
+                    ? ((ThreadScopeBeanSupplier) beanSupplier).getThreadInstances() : beanSupplier.getInstances());
+        });
+
+        return FootprintReport.of(beanInstances);
+    }
+
+    /**
+     * Runs the given task in a task-scope. Task-scope beans used by the task and by the tasks it hands off to executors wrapped
+     * via taskScoped share their instances, which are destroyed as soon as the task and all its hand-offs are finished.
+     * If the current thread runs in a task-scope already, the task joins that scope.
+     * @param task the task
+     */
+    public void runInScope(final Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("task may not be null");
+        }
+
+        if (TaskContext.current() != null) {
+            task.run();
+            return;
+        }
+
+        TaskContext taskContext = TaskContext.open();
+        try {
+            taskContext.run(task);
+        } finally {
+            taskContext.release();
+        }
+    }
+
+    /**
+     * Calls the given task in a task-scope (see runInScope)
+     * @param task the task
+     * @return the result of the task
+     * @param <T> type of the result
+     * @throws Exception if the task fails
+     */
+    public <T> T callInScope(final Callable<T> task) throws Exception {
+        if (task == null) {
+            throw new IllegalArgumentException("task may not be null");
+        }
+
+        if (TaskContext.current() != null) {
+            return task.call();
+        }
+
+        TaskContext taskContext = TaskContext.open();
+        try {
+            return taskContext.call(task);
+        } finally {
+            taskContext.release();
+        }
+    }
+
+    /**
+     * Wraps the given executor, so submitted tasks run in the task-scope of the submitting thread
+     * or in a task-scope of their own, if submitted outside of a task-scope.
+     * @param executor the executor to wrap
+     * @return the wrapped executor
+     */
+    public ExecutorService taskScoped(final ExecutorService executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor may not be null");
+        }
+
+        return new TaskScopeExecutorService(executor);
+    }
+
+    /**
+     * Publishes the given event to the @Subscribe-methods of all beans whose parameter type is assignable from the type of the event.
+     * Synchronous subscribers are called on the current thread (exceptions are passed to the caller), asynchronous subscribers
+     * receive the event on the event executor of the settings. Subscribing beans outside of the roots are created on the first publish.
+     * @param event the event
+     */
+    public void publish(final Object event) {
+        if (event == null) {
+            throw new IllegalArgumentException("event may not be null");
+        }
+
+        getEventDispatcher().publish(event);
+    }
+
+    /**
+     * Returns the EventDispatcher, creating it (and the subscribing beans) if necessary
+     * @return the EventDispatcher
+     */
+    private EventDispatcher getEventDispatcher() {
+        EventDispatcher dispatcher = eventDispatcher;
+
+        if (dispatcher == null) {
+            if (!beansCreatedFuture.isDone()) {
+                throw new IllegalStateException("Events cannot be published before the beans are created");
+            }
+
+            synchronized (registrationLock) {
+                dispatcher = eventDispatcher;
+                if (dispatcher == null) {
+                    List<BeanDefinition> subscriberBeanDefinitions = beanDefinitions.getAll().stream()
+                            .filter(beanDefinition -> !beanDefinition.getSubscriberMethods().isEmpty())
+                            .sorted(Comparator.comparing(BeanDefinition::getId))
+                            .collect(Collectors.toList());
+
+                    Map<BeanDefinition, Object> subscribers = new LinkedHashMap<>();
+                    for (BeanDefinition beanDefinition : subscriberBeanDefinitions) {
+                        // the events are passed to the instance of the bean, not through the proxy of an intercepted bean
+                        Collection<Object> instances = getOrCreateBean(beanDefinition, new ArrayList<>(), beanDefinitions).getInstances();
+                        subscribers.put(beanDefinition, instances.iterator().next());
+                    }
+
+                    dispatcher = new EventDispatcher(subscribers, settings.getEventExecutor());
+                    eventDispatcher = dispatcher;
+                }
+            }
+        }
+
+        return dispatcher;
+    }
+
+    /**
+     * Returns the time spent calling @Warmup-methods and warm-up callbacks while initializing the container
+     * @return the time spent warming up
+     */
+    public Duration getWarmupDuration() {
+        return warmupDuration;
+    }
+
+    /**
+     * Returns the requested bean by the specified id if present.
+     * May throw a BeanNotFoundException if no matching bean could be found.
+     * @param beanId the beanId
+     * @return the bean as Object
+     */
+    @Override
+    public Object getBean(final String beanId) {
+        BeanDefinition beanDefinitionById = getBeanDefinitionById(beanId);
+
+        return getBeanSupplier(beanDefinitionById).get();
+    }
+
+    /**
+     * Returns the requested bean (as the correct type) by the specified id and class if present.
+     * May throw a BeanNotFoundException if no matching bean could be found.
+     * @param beanId the beanId
+     * @param clazz the class of the bean
+     * @return the bean
+     * @param <T> type of the bean
+     */
+    @Override
+    public <T extends Object> T getBean(final String beanId, final Class<T> clazz) {
+        BeanDefinition beanDefinitionById = getBeanDefinitionById(beanId);
+
+        return (T) getBeanSupplier(beanDefinitionById).get();
+    }
+
+    /**
+     * Returns the requested bean (as the correct type) by the specified class if present.
+     * May throw a BeanNotFoundException if no matching bean could be found.
+     * @param clazz the class of the bean
+     * @return the bean
+     * @param <T> type of the bean
+     */
+    @Override
+    public <T extends Object> T getBean(final Class<T> clazz) {
+        BeanDefinition beanDefinition = getBeanDefinitionByIdOrClass(clazz);
+
+        return (T) getBeanSupplier(beanDefinition).get();
+    }
+
+    /**
+     * Returns the requested bean by the specified parameterized type if present, e.g. getBean(new TypeLiteral<Repository<User>>() {}).
+     * May throw a BeanNotFoundException if no matching bean could be found.
+     * @param typeLiteral the type of the bean
+     * @return the bean
+     * @param <T> type of the bean
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Object> T getBean(final TypeLiteral<T> typeLiteral) {
+        if (typeLiteral.getType() instanceof Class) {
+            return (T) getBean((Class<?>) typeLiteral.getType());
+        }
+
+        String genericTypeName = ReflectionHelper.getResolvedTypeName(typeLiteral.getType());
+        if (genericTypeName == null) {
+            throw new IllegalArgumentException(String.format("The type (%s) must not contain type variables or wildcards", typeLiteral.getType().getTypeName()));
+        }
+
+        List<BeanDefinition> matches = beanDefinitions.getByGenericType(genericTypeName);
+        if (matches.size() > 1) {
+            throw new NoUniqueBeanFoundException(String.format("No unique bean found for type %s", genericTypeName));
+        } else if (matches.isEmpty()) {
+            throw new BeanNotFoundException(String.format("No bean found for type %s", genericTypeName));
+        }
+
+        return (T) getBeanSupplier(matches.get(0)).get();
+    }
+
+    /**
+     * Registers the given instance as singleton-bean with the specified id.
+     * The bean can be retrieved and injected into beans registered later on, beans that are created already are not affected.
+     * The container does not call lifecycle-methods on the instance as it did not create it.
+     * May be called concurrently to retrieving beans.
+     * @param beanId the beanId
+     * @param instance the instance
+     */
+    public void registerSingleton(final String beanId, final Object instance) {
+        if (beanId == null || beanId.trim().length() == 0) {
+            throw new IllegalArgumentException(String.format("The id (%s) is not a valid bean id.", beanId));
+        }
+        if (instance == null) {
+            throw new IllegalArgumentException("instance may not be null");
+        }
+
+        Class<?> clazz = instance.getClass();
+        BeanDefinition beanDefinition = new BeanDefinition(clazz, beanId, BeanScope.Singleton);
+        if (doInjectByInterface) {
+            beanDefinition.addInterfaces(ReflectionHelper.getAllInterfaces(clazz));
+        }
+        if (doInjectBySuperclass) {
+            beanDefinition.addSuperclasses(ReflectionHelper.getAllSuperclasses(clazz));
+        }
+        if (doInjectByInterface || doInjectBySuperclass) {
+            beanDefinition.addGenericSupertypes(ReflectionHelper.getResolvedGenericSupertypes(clazz));
+        }
+
+        synchronized (registrationLock) {
+            ensureBeanIdIsAvailable(beanId);
+
+            BeanSupplier beanSupplier = new SingletonBeanSupplier(instance);
+            beanContainerMap.put(beanDefinition, beanSupplier);
+            beanDependencyMap.put(beanDefinition, List.of());
+            getBeanReadiness(beanDefinition).complete(beanSupplier);
+
+            // the definition is published last, so every reader finding it finds its supplier as well
+            beanDefinitions = beanDefinitions.with(beanDefinition);
+        }
+    }
+
+    /**
+     * Registers the given class and creates the bean, its dependencies are resolved among the registered beans.
+     * The class does not need to be annotated with @Bean.
+     * The bean can be retrieved and injected into beans registered later on, beans that are created already are not affected.
+     * May be called concurrently to retrieving beans.
+     * @param clazz the class of the bean
+     */
+    public void registerBean(final Class<?> clazz) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("clazz may not be null");
+        }
+
+        BeanDefinition beanDefinition = computeBeanDefinition(clazz);
+
+        synchronized (registrationLock) {
+            ensureBeanIdIsAvailable(beanDefinition.getId());
+
+            getOrCreateBean(beanDefinition, new ArrayList<>(), beanDefinitions);
+
+            // the definition is published last, so every reader finding it finds its supplier as well
+            beanDefinitions = beanDefinitions.with(beanDefinition);
+            if (!beanDefinition.getSubscriberMethods().isEmpty()) {
+                eventDispatcher = null;
+            }
+        }
+    }
 
     /**
-     * Flags wether injection by interface should be allowed (required for ThreadScope-Beans) or not
+     * Injects the @Inject-fields and -methods of an object not created by the container (e.g. a deserialized object),
+     * fields first, then methods, the members of superclasses first.
+     * The members of a class are analyzed and their dependencies resolved on the first call for the class only.
+     * @param instance the object to inject the members of
      */
-    private final boolean doInjectByInterface = true;
+    public void injectMembers(final Object instance) {
+        if (instance == null) {
+            throw new IllegalArgumentException("instance may not be null");
+        }
+
+        MemberInjectionPlan plan = memberInjectionPlans.get(instance.getClass());
+
+        BeanOverlay overlay = beanOverlay;
+        plan.inject(instance, overlay == null ? null : beanDefinition -> getBeanSupplier(beanDefinition, overlay));
+    }
+
+    private ClassValue<MemberInjectionPlan> createMemberInjectionPlans() {
+        return new ClassValue<>() {
+            @Override
+            protected MemberInjectionPlan computeValue(Class<?> clazz) {
+                // the resolved suppliers bypass the overlay, replaced beans are resolved on every call instead
+                return MemberInjectionPlan.of(clazz, dependency -> getBeanDefinitionFromDependency(dependency, beanDefinitions),
+                        beanDefinition -> getBeanSupplier(beanDefinition, null));
+            }
+        };
+    }
 
     /**
-     * Flags wether injection by superclass should be allowed or not
+     * Replaces the bean of the given type with the given instance (e.g. a test double) until clearOverrides is called.
+     * Lookups return the instance and beans depending on the replaced bean are recreated with the instance on their next lookup,
+     * all other beans are shared, so the container is not rebuilt. Beans retrieved beforehand keep their dependencies.
+     * @param clazz the type of the bean
+     * @param instance the instance replacing the bean
+     * @param <T> type of the bean
      */
-    private final boolean doInjectBySuperclass = true;
+    public <T extends Object> void overrideBean(final Class<T> clazz, final T instance) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("clazz may not be null");
+        }
+        if (!clazz.isInstance(instance)) {
+            throw new IllegalArgumentException(String.format("instance must be an instance of %s", clazz.getName()));
+        }
+
+        overrideBean(getBeanDefinitionByIdOrClass(clazz), instance);
+    }
 
     /**
-     * Private constructor as the container is instantiated via setup-method
+     * Replaces the bean with the specified id with the given instance until clearOverrides is called (see overrideBean(Class, Object)).
+     * The instance has to be assignable to the types the bean is retrieved and injected as.
+     * @param beanId the beanId
+     * @param instance the instance replacing the bean
      */
-    private CompanionContainer() {
-        beanDefinitionSet = new HashSet<>();
-        beanContainerMap = new HashMap<>();
+    public void overrideBean(final String beanId, final Object instance) {
+        if (instance == null) {
+            throw new IllegalArgumentException("instance may not be null");
+        }
+
+        overrideBean(getBeanDefinitionById(beanId), instance);
+    }
+
+    private void overrideBean(final BeanDefinition beanDefinition, final Object instance) {
+        if (!beansCreatedFuture.isDone()) {
+            throw new IllegalStateException("Beans may only be replaced once the container is initialized");
+        }
+
+        synchronized (registrationLock) {
+            BeanOverlay current = beanOverlay;
+            BeanSupplier override = new SingletonBeanSupplier(instance);
+
+            beanOverlay = current == null ? new BeanOverlay(Map.of(beanDefinition, override)) : current.with(beanDefinition, override);
+            if (current != null) {
+                destroyRecreatedBeans(current);
+            }
+        }
     }
 
     /**
-     * Initializes the container
-     * @return the container
+     * Removes all replacements (see overrideBean), the beans recreated on top of them are destroyed
      */
-    public static CompanionContainer setup() {
-        CompanionContainer container = new CompanionContainer();
+    public void clearOverrides() {
+        synchronized (registrationLock) {
+            BeanOverlay current = beanOverlay;
+            beanOverlay = null;
 
-        if (LOGGER.isLoggable(Level.INFO)) {
-            LOGGER.log(Level.INFO, "Injection by interface is {0}", container.doInjectByInterface ? "enabled" : "disabled");
-            LOGGER.log(Level.INFO, "Injection by superclass is {0}", container.doInjectBySuperclass ? "enabled" : "disabled");
+            if (current != null) {
+                destroyRecreatedBeans(current);
+            }
         }
+    }
 
-        container.init();
-        return container;
+    /**
+     * Discards the thread-scope instances of all threads, so every thread gets a new instance on its next call.
+     * The discarded instances are not destroyed, as thread-scope instances are not managed by the container.
+     */
+    public void resetThreadScope() {
+        for (BeanSupplier beanSupplier : beanContainerMap.values()) {
+            beanSupplier = getScopeBeanSupplier(beanSupplier);
+
+            if (beanSupplier instanceof ThreadScopeBeanSupplier) {
+                ((ThreadScopeBeanSupplier) beanSupplier).reset();
+            }
+        }
     }
 
     /**
-     * Returns the requested bean by the specified id if present.
-     * May throw a BeanNotFoundException if no matching bean could be found.
+     * Discards the beans recreated on top of the replacements, e.g. after reloading classes, they are recreated on their next lookup
+     */
+    private void resetBeanOverlay() {
+        BeanOverlay current = beanOverlay;
+        if (current != null) {
+            beanOverlay = current.reset();
+            destroyRecreatedBeans(current);
+        }
+    }
+
+    private void destroyRecreatedBeans(BeanOverlay overlay) {
+        if (!overlay.getRecreatedBeans().isEmpty()) {
+            new ShutdownRunner(settings).run(overlay.getRecreatedBeans(), overlay.getRecreatedDependencies());
+        }
+    }
+
+    /**
+     * Returns the BeanSupplier of the overlay for the given BeanDefinition, recreating the bean if it depends on a replaced bean
+     * @param beanDefinition the BeanDefinition
+     * @param overlay the overlay
+     * @return the BeanSupplier or null, if the bean is neither replaced nor depends on a replaced bean
+     */
+    private BeanSupplier getOverlayBeanSupplier(final BeanDefinition beanDefinition, final BeanOverlay overlay) {
+        BeanSupplier beanSupplier = overlay.getSupplier(beanDefinition);
+        if (beanSupplier != null || !isAffectedByOverlay(beanDefinition, overlay)) {
+            return beanSupplier;
+        }
+
+        synchronized (registrationLock) {
+            beanSupplier = overlay.getSupplier(beanDefinition);
+            if (beanSupplier == null) {
+                List<BeanDefinition> dependencies = getResolvedDependencies(beanDefinition);
+                BeanSupplier[] dependencySuppliers = new BeanSupplier[beanDefinition.getDependencies().size()];
+                Map<Class<?>, MethodInterceptor> interceptors = new HashMap<>();
+
+                // the resolved dependencies are the constructor-parameters followed by the interceptors
+                for (int i = 0; i < dependencies.size(); i++) {
+                    BeanSupplier dependencySupplier = getBeanSupplier(dependencies.get(i), overlay);
+                    if (i < dependencySuppliers.length) {
+                        dependencySuppliers[i] = dependencySupplier;
+                    } else {
+                        interceptors.put(beanDefinition.getInterceptorClasses().get(i - dependencySuppliers.length), (MethodInterceptor) dependencySupplier.get());
+                    }
+                }
+
+                beanSupplier = createBeanSupplier(beanDefinition, dependencySuppliers, interceptors);
+                overlay.addRecreatedBean(beanDefinition, beanSupplier, dependencies);
+            }
+        }
+
+        return beanSupplier;
+    }
+
+    /**
+     * Returns wether the given bean is replaced or depends on a replaced bean, directly or transitively
+     */
+    private boolean isAffectedByOverlay(final BeanDefinition beanDefinition, final BeanOverlay overlay) {
+        Boolean affected = overlay.isAffected(beanDefinition);
+        if (affected == null) {
+            affected = overlay.isOverridden(beanDefinition)
+                    || getResolvedDependencies(beanDefinition).stream().anyMatch(dependency -> isAffectedByOverlay(dependency, overlay));
+            overlay.setAffected(beanDefinition, affected);
+        }
+
+        return affected;
+    }
+
+    /**
+     * Returns the resolved dependencies of the given bean, the constructor-parameters followed by the interceptors
+     */
+    private List<BeanDefinition> getResolvedDependencies(final BeanDefinition beanDefinition) {
+        List<BeanDefinition> dependencies = beanDependencyMap.get(beanDefinition);
+        if (dependencies != null) {
+            return dependencies;
+        }
+
+        // the bean is not created yet, its dependencies are resolved the same way as on creation
+        dependencies = new ArrayList<>();
+        for (BeanDependency dependency : beanDefinition.getDependencies()) {
+            dependencies.add(getBeanDefinitionFromDependency(dependency, beanDefinitions));
+        }
+        for (Class<? extends MethodInterceptor> interceptorClass : beanDefinition.getInterceptorClasses()) {
+            dependencies.add(getBeanDefinitionFromDependency(new BeanDependency(interceptorClass, null), beanDefinitions));
+        }
+
+        return dependencies;
+    }
+
+    /**
+     * Throws an exception if the specified beanId is used already
      * @param beanId the beanId
-     * @return the bean as Object
      */
-    public Object getBean(final String beanId) {
-        BeanDefinition beanDefinitionById = getBeanDefinitionById(beanId);
+    private void ensureBeanIdIsAvailable(final String beanId) {
+        if (beanDefinitions.getById(beanId) != null) {
+            throw new IllegalArgumentException(String.format("The id (%s) is used by another bean already.", beanId));
+        }
+    }
 
-        return beanContainerMap.get(beanDefinitionById).get();
+    /**
+     * Returns the BeanSupplier for the given BeanDefinition, creating the bean on demand if it is not part of the roots.
+     * May throw a BeanNotFoundException if the bean is not created yet, as the container is still initializing.
+     * @param beanDefinition the BeanDefinition
+     * @return the BeanSupplier
+     */
+    private BeanSupplier getBeanSupplier(final BeanDefinition beanDefinition) {
+        return getBeanSupplier(beanDefinition, beanOverlay);
     }
 
     /**
-     * Returns the requested bean (as the correct type) by the specified id and class if present.
-     * May throw a BeanNotFoundException if no matching bean could be found.
+     * Returns the BeanSupplier for the given BeanDefinition, taking the replaced beans of the given overlay into account
+     * @param beanDefinition the BeanDefinition
+     * @param overlay the overlay, may be null
+     * @return the BeanSupplier
+     */
+    private BeanSupplier getBeanSupplier(final BeanDefinition beanDefinition, final BeanOverlay overlay) {
+        if (overlay != null) {
+            BeanSupplier overlayBeanSupplier = getOverlayBeanSupplier(beanDefinition, overlay);
+            if (overlayBeanSupplier != null) {
+                return overlayBeanSupplier;
+            }
+        }
+
+        BeanSupplier beanSupplier = beanContainerMap.get(beanDefinition);
+
+        if (beanSupplier == null) {
+            if (!beansCreatedFuture.isDone()) {
+                throw new BeanNotFoundException(String.format("The bean %s is not created yet", beanDefinition.getId()));
+            }
+
+            synchronized (registrationLock) {
+                // the caller may have looked the definition up before a reload retired it, the retired bean must not be recreated
+                BeanDefinitionSnapshot snapshot = beanDefinitions;
+                BeanDefinition currentBeanDefinition = snapshot.getById(beanDefinition.getId());
+                if (currentBeanDefinition == null) {
+                    throw new BeanNotFoundException(String.format("The bean %s was removed by a reload", beanDefinition.getId()));
+                }
+
+                beanSupplier = getOrCreateBean(currentBeanDefinition, new ArrayList<>(), snapshot);
+            }
+        }
+
+        return beanSupplier;
+    }
+
+    /**
+     * Returns the readiness-future for the given BeanDefinition, requesting beans outside of the roots to be created
+     * as soon as the beans of the roots are created
+     * @param beanDefinition the BeanDefinition
+     * @return the future that is completed as soon as the bean is created
+     */
+    private CompletableFuture<BeanSupplier> awaitBean(final BeanDefinition beanDefinition) {
+        CompletableFuture<BeanSupplier> beanReadiness = getBeanReadiness(beanDefinition);
+
+        if (!beanReadiness.isDone()) {
+            beansCreatedFuture.thenRun(() -> getBeanSupplier(beanDefinition)).exceptionally(e -> {
+                beanReadiness.completeExceptionally(e);
+                return null;
+            });
+        }
+
+        return beanReadiness;
+    }
+
+    /**
+     * Returns a future of the requested bean by the specified class, that is completed as soon as the bean is created.
+     * Beans may be ready before the whole container is initialized (see setupAsync).
+     * The future is completed exceptionally with a BeanNotFoundException if no matching bean could be found.
+     * @param clazz the class of the bean
+     * @return the future of the bean
+     * @param <T> type of the bean
+     */
+    public <T extends Object> CompletableFuture<T> whenReady(final Class<T> clazz) {
+        return beanDefinitionsFuture
+                .thenCompose(v -> awaitBean(getBeanDefinitionByIdOrClass(clazz)))
+                .thenApply(beanSupplier -> clazz.cast(beanSupplier.get()));
+    }
+
+    /**
+     * Returns a future of the requested bean by the specified id and class, that is completed as soon as the bean is created.
+     * Beans may be ready before the whole container is initialized (see setupAsync).
+     * The future is completed exceptionally with a BeanNotFoundException if no matching bean could be found.
      * @param beanId the beanId
      * @param clazz the class of the bean
-     * @return the bean
+     * @return the future of the bean
      * @param <T> type of the bean
      */
-    public <T extends Object> T getBean(final String beanId, final Class<T> clazz) {
-        BeanDefinition beanDefinitionById = getBeanDefinitionById(beanId);
+    public <T extends Object> CompletableFuture<T> whenReady(final String beanId, final Class<T> clazz) {
+        return beanDefinitionsFuture
+                .thenCompose(v -> awaitBean(getBeanDefinitionById(beanId)))
+                .thenApply(beanSupplier -> clazz.cast(beanSupplier.get()));
+    }
 
-        return (T) beanContainerMap.get(beanDefinitionById).get();
+    /**
+     * Returns the readiness-future for the given BeanDefinition
+     * @param beanDefinition the BeanDefinition
+     * @return the future that is completed as soon as the bean is created
+     */
+    private CompletableFuture<BeanSupplier> getBeanReadiness(BeanDefinition beanDefinition) {
+        return beanReadinessMap.computeIfAbsent(beanDefinition, key -> new CompletableFuture<>());
     }
 
     /**
-     * Returns the requested bean (as the correct type) by the specified class if present.
+     * Completes all pending futures exceptionally as the container could not be initialized
+     * @param cause the cause
+     */
+    private void failReadiness(Throwable cause) {
+        beanDefinitionsFuture.completeExceptionally(cause);
+        beansCreatedFuture.completeExceptionally(cause);
+
+        for (BeanDefinition beanDefinition : beanDefinitions.getAll()) {
+            getBeanReadiness(beanDefinition).completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Returns the statistics of the pool backing the specified pooled-scope bean.
      * May throw a BeanNotFoundException if no matching bean could be found.
-     * @param clazz the class of the bean
-     * @return the bean
-     * @param <T> type of the bean
+     * @param beanId the beanId
+     * @return the statistics of the pool
      */
-    public <T extends Object> T getBean(final Class<T> clazz) {
-        T bean;
+    public PoolStatistics getPoolStatistics(final String beanId) {
+        BeanDefinition beanDefinitionById = getBeanDefinitionById(beanId);
+        BeanSupplier beanSupplier = getScopeBeanSupplier(getBeanSupplier(beanDefinitionById));
+
+        if (!(beanSupplier instanceof PooledBeanSupplier)) {
+            throw new IllegalArgumentException(String.format("The bean (%s) is not a pooled-scope bean.", beanId));
+        }
+
+        return ((PooledBeanSupplier) beanSupplier).getStatistics();
+    }
 
+    /**
+     * Returns the BeanDefinition for the specified class if present.
+     * Looks for the default bean id of the class first, then for any matching BeanDefinition.
+     * May throw a BeanNotFoundException if no matching BeanDefinition could be found.
+     * @param clazz the class
+     * @return the BeanDefinition
+     */
+    private BeanDefinition getBeanDefinitionByIdOrClass(final Class<?> clazz) {
         final String bdfBeanId = BeanDefinitionHelper.getBeanId(clazz);
 
         try {
-            bean = getBean(bdfBeanId, clazz);
+            return getBeanDefinitionById(bdfBeanId);
         } catch (BeanNotFoundException e) {
             if (LOGGER.isLoggable(Level.DEBUG)) {
                 LOGGER.log(Level.DEBUG, "Bean could not be found by default bean id ({0})", bdfBeanId);
             }
 
             // maybe there was no bean definition for the standard bean id
-            bean = getBean(getBeanDefinitionByClass(clazz).getId(), clazz);
+            return getBeanDefinitionByClass(clazz);
         }
-
-        return bean;
     }
 
     /**
@@ -139,10 +1263,9 @@ public class CompanionContainer {
             throw new IllegalArgumentException(String.format("The id (%s) is not a valid bean id.", beanId));
         }
 
-        for (BeanDefinition beanDefinition : beanDefinitionSet) {
-            if (beanDefinition.getId().equals(beanId)) {
-                return beanDefinition;
-            }
+        BeanDefinition beanDefinition = beanDefinitions.getById(beanId);
+        if (beanDefinition != null) {
+            return beanDefinition;
         }
 
         throw new BeanNotFoundException(String.format("No bean found for bean id %s", beanId));
@@ -158,10 +1281,10 @@ public class CompanionContainer {
     private <T extends Object> BeanDefinition getBeanDefinitionByClass(final Class<T> clazz) {
         List<BeanDefinition> matches = new ArrayList<>();
 
-        for (BeanDefinition beanDefinition : beanDefinitionSet) {
+        for (BeanDefinition beanDefinition : beanDefinitions.getAll()) {
             boolean isClazz = beanDefinition.getClazz().equals(clazz);
-            boolean isInterfaceClazz = doInjectByInterface ? beanDefinition.getInterfaces().contains(clazz) : false;
-            boolean isSuperClazz = doInjectBySuperclass ? beanDefinition.getSuperclasses().contains(clazz) : false;
+            boolean isInterfaceClazz = doInjectByInterface ? beanDefinition.hasInterface(clazz) : false;
+            boolean isSuperClazz = doInjectBySuperclass ? beanDefinition.hasSuperclass(clazz) : false;
 
             if (isClazz || isInterfaceClazz || isSuperClazz) {
                 logMatchingInfo(beanDefinition, clazz, isClazz, isInterfaceClazz, isSuperClazz);
@@ -169,86 +1292,311 @@ public class CompanionContainer {
             }
         }
 
-        if (matches.size() == 1) {
-            return matches.get(0);
-        } else if (matches.size() > 1) {
-            throw new NoUniqueBeanFoundException(String.format("No unique bean found for class %s", clazz));
+        if (matches.size() == 1) {
+            return matches.get(0);
+        } else if (matches.size() > 1) {
+            throw new NoUniqueBeanFoundException(String.format("No unique bean found for class %s", clazz));
+        }
+
+        throw new BeanNotFoundException(String.format("No bean found for class %s", clazz));
+    }
+
+    /**
+     * Logs some additional information on how the bean definition is a match for the given class
+     * @param beanDefinition the BeanDefinition that matches
+     * @param clazz the class that matches
+     * @param isClazz true, if they match by class
+     * @param isInterfaceClazz true, if they match by interface
+     * @param isSuperClazz true, if they match by superclass
+     * @param <T> type of the bean
+     */
+    private <T extends Object> void logMatchingInfo(BeanDefinition beanDefinition, Class<T> clazz, boolean isClazz, boolean isInterfaceClazz, boolean isSuperClazz) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            List<String> matchInfo = new ArrayList<>(3);
+            if (isClazz) {
+                matchInfo.add("by class");
+            }
+            if (isInterfaceClazz) {
+                matchInfo.add("by interface");
+            }
+            if (isSuperClazz) {
+                matchInfo.add("by superclass");
+            }
+
+            LOGGER.log(Level.DEBUG, String.format("BeanDefinition (%s) is a match for class (%s) %s", beanDefinition.toString(), clazz.getName(), matchInfo.stream().collect(Collectors.joining(","))));
+        }
+    }
+
+    /**
+     * Initializes the container by
+     * 1. Scanning for .class-Files in the classpath, while
+     * 2. Finding all @Beans and
+     * 3. Computing BeanDefinitions of the already scanned directories concurrently
+     * 4. Instantiating beans from BeanDefinitions (only the roots and their dependencies, if roots are set)
+     * 5. Warming up the beans
+     */
+    private void init() {
+        TrainingRun trainingRun = settings.getTrainingRunDirectory() == null ? null : new TrainingRun(settings.getTrainingRunDirectory());
+
+        this.beanDefinitions = BeanDefinitionSnapshot.of(computeBeanDefinitons(trainingRun));
+        beanDefinitionsFuture.complete(null);
+
+        synchronized (registrationLock) {
+            initializeBeans(getRootBeanDefinitions(), beanDefinitions);
+        }
+        beansCreatedFuture.complete(null);
+
+        if (settings.isWarmupEnabled()) {
+            warmupDuration = new WarmupRunner(this, settings).run(beanContainerMap);
+        }
+
+        if (trainingRun != null) {
+            recordTrainingRun(trainingRun);
+            trainingRun.write();
+        }
+    }
+
+    /**
+     * Records the classes loaded by the container, its BeanDefinitions and its beans for the class list of the training run
+     * @param trainingRun the training run
+     */
+    private void recordTrainingRun(TrainingRun trainingRun) {
+        trainingRun.record(getClass());
+        trainingRun.record(beanDefinitions.getClass());
+
+        for (BeanDefinition beanDefinition : beanDefinitions.getAll()) {
+            trainingRun.record(beanDefinition.getClass());
+            trainingRun.record(beanDefinition.getClazz());
+            for (BeanDependency dependency : beanDefinition.getDependencies()) {
+                trainingRun.record(dependency.getClazz());
+            }
+            for (Annotation annotation : beanDefinition.getClazz().getAnnotations()) {
+                trainingRun.record(annotation.annotationType());
+            }
+        }
+
+        for (BeanSupplier beanSupplier : beanContainerMap.values()) {
+            trainingRun.record(beanSupplier.getClass());
+            for (Object instance : beanSupplier.getInstances()) {
+                trainingRun.record(instance.getClass());
+            }
+        }
+    }
+
+    /**
+     * Computes the BeanDefinitions of all @Bean-Classes without creating any bean (see NativeImageConfigGenerator)
+     * @param settings the settings
+     * @return BeanDefinitions
+     */
+    static Set<BeanDefinition> computeBeanDefinitions(final CompanionSettings settings) {
+        CompanionContainer container = new CompanionContainer(settings);
+
+        return container.computeBeanDefinitons(null);
+    }
+
+    /**
+     * Returns the BeanDefinitions of the roots of the settings or all BeanDefinitions, if no roots are set.
+     * Only these beans and their (transitive) dependencies are created on setup.
+     * @return the BeanDefinitions to create on setup
+     */
+    private Collection<BeanDefinition> getRootBeanDefinitions() {
+        List<Class<?>> roots = settings.getRoots();
+        if (roots.isEmpty()) {
+            return beanDefinitions.getAll();
+        }
+
+        List<BeanDefinition> rootBeanDefinitions = new ArrayList<>(roots.size());
+        for (Class<?> root : roots) {
+            rootBeanDefinitions.add(getBeanDefinitionByIdOrClass(root));
+        }
+
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, "Creating the beans of roots {0}, other beans are created on demand", rootBeanDefinitions);
+        }
+
+        return rootBeanDefinitions;
+    }
+
+    /**
+     * Passes all @Bean-Classes to the given consumer, read from the bean index if it is enabled or if there are no class
+     * directories to scan (e.g. in a native image), scanned from the classpath otherwise.
+     * Without scan cache the classes of every scanned directory are loaded, filtered and passed to the consumer by a ScanPipeline,
+     * while the remaining directories are still being scanned.
+     * @param trainingRun the training run to record the loaded classes for, may be null
+     * @param beanClassConsumer the consumer of the @Bean-Classes, called concurrently
+     */
+    private void streamBeanClasses(TrainingRun trainingRun, Consumer<Class<?>> beanClassConsumer) {
+        if (settings.isBeanIndexEnabled() && streamBeanIndex(beanClassConsumer)) {
+            return;
+        }
+
+        if (settings.getScanCacheDirectory() != null) {
+            Map<String, Path> classFiles = new HashMap<>();
+            scanForClassFiles("", classFiles::putAll);
+
+            if (!classFiles.isEmpty() || !streamBeanIndexInstead(beanClassConsumer)) {
+                findBeanClasses(classFiles, settings.getScanCacheDirectory(), trainingRun, beanClassConsumer);
+            }
+            return;
+        }
+
+        if (LOGGER.isLoggable(Level.TRACE)) {
+            LOGGER.log(Level.TRACE, "Scanning for beans");
         }
 
-        throw new BeanNotFoundException(String.format("No bean found for class %s", clazz));
+        // the scanning thread takes part in processing the batches on await
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ScanPipeline pipeline = new ScanPipeline(ForkJoinPool.commonPool(), workers, CompanionContainer.class.getClassLoader(),
+                CompanionContainer::isBeanClass, beanClassConsumer, trainingRun);
+        scanForClassFiles("", classFiles -> pipeline.submit(new ArrayList<>(classFiles.keySet())));
+
+        if (pipeline.await() == 0) {
+            streamBeanIndexInstead(beanClassConsumer);
+        }
     }
 
     /**
-     * Logs some additional information on how the bean definition is a match for the given class
-     * @param beanDefinition the BeanDefinition that matches
-     * @param clazz the class that matches
-     * @param isClazz true, if they match by class
-     * @param isInterfaceClazz true, if they match by interface
-     * @param isSuperClazz true, if they match by superclass
-     * @param <T> type of the bean
+     * Passes the @Bean-Classes of the bean index to the given consumer, if there are no class directories to scan
+     * @param beanClassConsumer the consumer of the @Bean-Classes
+     * @return true, if there is a bean index
      */
-    private <T extends Object> void logMatchingInfo(BeanDefinition beanDefinition, Class<T> clazz, boolean isClazz, boolean isInterfaceClazz, boolean isSuperClazz) {
-        if (LOGGER.isLoggable(Level.INFO)) {
-            List<String> matchInfo = new ArrayList<>(3);
-            if (isClazz) {
-                matchInfo.add("by class");
-            }
-            if (isInterfaceClazz) {
-                matchInfo.add("by interface");
-            }
-            if (isSuperClazz) {
-                matchInfo.add("by superclass");
-            }
+    private static boolean streamBeanIndexInstead(Consumer<Class<?>> beanClassConsumer) {
+        boolean found = streamBeanIndex(beanClassConsumer);
+        if (found) {
+            LOGGER.log(Level.INFO, "No class directories found on the classpath, using the bean index");
+        }
 
-            LOGGER.log(Level.DEBUG, String.format("BeanDefinition (%s) is a match for class (%s) %s", beanDefinition.toString(), clazz.getName(), matchInfo.stream().collect(Collectors.joining(","))));
+        return found;
+    }
+
+    /**
+     * Passes the @Bean-Classes of the bean index to the given consumer, in parallel
+     * @param beanClassConsumer the consumer of the @Bean-Classes
+     * @return true, if there is a bean index
+     */
+    private static boolean streamBeanIndex(Consumer<Class<?>> beanClassConsumer) {
+        Set<Class<?>> indexedBeanClasses = readBeanIndex();
+        if (indexedBeanClasses == null) {
+            return false;
         }
+
+        indexedBeanClasses.parallelStream().forEach(beanClassConsumer);
+
+        return true;
     }
 
     /**
-     * Initializes the container by
-     * 1. Scanning for .class-Files in the classpath
-     * 2. Finding all @Beans
-     * 3. Computing BeanDefinitions
-     * 4. Instantiating beans from BeanDefinitions
+     * Reads the @Bean-Classes listed by all bean indexes on the classpath
+     * @return @Bean-Classes or null, if there is no bean index
      */
-    private void init() {
-        Set<Class<?>> classes = scanForClasses();
+    private static Set<Class<?>> readBeanIndex() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = CompanionContainer.class.getClassLoader();
+        }
 
-        Set<Class<?>> beanClasses = findBeanClasses(classes);
-        this.beanDefinitionSet = computeBeanDefinitons(beanClasses);
-        initializeBeans(beanDefinitionSet);
+        Set<Class<?>> beanClasses = new HashSet<>();
+        boolean found = false;
+        try {
+            Enumeration<URL> beanIndexes = classLoader.getResources(BEAN_INDEX);
+            while (beanIndexes.hasMoreElements()) {
+                URL beanIndex = beanIndexes.nextElement();
+                found = true;
+
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(beanIndex.openStream(), StandardCharsets.UTF_8))) {
+                    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                        String className = line.trim();
+                        if (className.isEmpty() || className.startsWith("#")) {
+                            continue;
+                        }
+
+                        try {
+                            beanClasses.add(Class.forName(className, false, classLoader));
+                        } catch (ClassNotFoundException e) {
+                            throw new BeanComputationException(String.format("Class %s of the bean index %s could not be loaded", className, beanIndex), e);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("The bean index could not be read", e);
+        }
+
+        if (found && LOGGER.isLoggable(Level.TRACE)) {
+            LOGGER.log(Level.TRACE, "Read {0} beans from the bean index", beanClasses.size());
+        }
+
+        return found ? beanClasses : null;
     }
 
     /**
-     * Returns all @Bean-Classes
-     * @param classes Classes to analyze
-     * @return @Bean-Classes
+     * Passes all @Bean-Classes of the given class files to the given consumer, using the scan cache in the given directory.
+     * Only new or changed class files are loaded and analyzed, unchanged class files are only loaded if they are @Bean-Classes.
+     * The training run records the loaded classes only, unchanged non-bean classes are not loaded on later starts either.
+     * @param classFiles the class files by binary class name
+     * @param scanCacheDirectory directory of the scan cache
+     * @param trainingRun the training run to record the loaded classes for, may be null
+     * @param beanClassConsumer the consumer of the @Bean-Classes
      */
-    private Set<Class<?>> findBeanClasses(Set<Class<?>> classes) {
+    private void findBeanClasses(Map<String, Path> classFiles, Path scanCacheDirectory, TrainingRun trainingRun, Consumer<Class<?>> beanClassConsumer) {
         if (LOGGER.isLoggable(Level.TRACE)) {
-            LOGGER.log(Level.TRACE, "Finding beans");
+            LOGGER.log(Level.TRACE, "Finding beans using the scan cache in {0}", scanCacheDirectory);
         }
 
-        return classes.stream().filter(cls -> ReflectionHelper.hasClassAnnotation(cls, Bean.class)).collect(Collectors.toSet());
+        ScanCache scanCache = ScanCache.load(scanCacheDirectory);
+
+        classFiles.forEach((className, classFile) -> {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(classFile, BasicFileAttributes.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Boolean isBean = scanCache.isBean(className, classFile, attributes);
+            Class<?> clazz = null;
+            if (isBean == null) {
+                clazz = loadClass(className);
+                isBean = isBeanClass(clazz);
+                scanCache.put(className, classFile, attributes, isBean);
+            } else if (isBean) {
+                clazz = loadClass(className);
+            }
+
+            if (clazz != null && trainingRun != null) {
+                trainingRun.record(clazz);
+            }
+            if (isBean) {
+                beanClassConsumer.accept(clazz);
+            }
+        });
+
+        scanCache.retainAll(classFiles.keySet());
+        scanCache.store();
+    }
+
+    private static boolean isBeanClass(Class<?> clazz) {
+        // annotations meta-annotated with @Bean (e.g. @Configuration) are no beans themselves
+        return !clazz.isAnnotation() && ReflectionHelper.hasClassAnnotation(clazz, Bean.class);
     }
 
     /**
-     * Scans the classpath for .class-Files
-     * @return Class-Objects in the classpath
+     * Loads the given class without initializing it, static initializers of scanned classes only run once a bean is created
      */
-    private Set<Class<?>> scanForClasses() {
-        Set<Class<?>> classes = new HashSet<>();
-        scanForClasses("", classes);
-
-        return classes;
+    private static Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, CompanionContainer.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     /**
-     * Scans a given directory for .class-Files and adds found Class-Objects to the given set
+     * Scans the classpath for .class-Files, passing the .class-Files of every directory to the given consumer
      * @param dirName directory to scan
-     * @param classes Set of classes to append to
+     * @param classFileConsumer consumer of the .class-Files of a directory by binary class name
      */
-    private void scanForClasses(String dirName, Set<Class<?>> classes) {
+    private void scanForClassFiles(String dirName, Consumer<Map<String, Path>> classFileConsumer) {
         final boolean isDirNamePresent = dirName != null && dirName.length() != 0;
 
         ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
@@ -261,88 +1609,178 @@ public class CompanionContainer {
             Set<String> classNames = content.stream().filter(line -> line.trim().length() > 0).filter(line -> line.endsWith(".class")).collect(Collectors.toSet());
             Set<String> nonClasses = content.stream().filter(line -> !line.endsWith(".class")).collect(Collectors.toSet());
 
+            Path dir;
+            try {
+                dir = Paths.get(systemClassLoader.getResource(dirName).toURI());
+            } catch (URISyntaxException e) {
+                throw new RuntimeException(e);
+            }
+
+            Map<String, Path> classFiles = new HashMap<>();
             classNames.forEach(clsName -> {
-                try {
-                    String pkgClsName = (isDirNamePresent ? dirName + "/" : "") + clsName;
-                    Class<?> clazz = Class.forName(pkgClsName.replaceAll("/", ".").substring(0, pkgClsName.length() - 6));
-                    classes.add(clazz);
-                } catch (ClassNotFoundException e) {
-                    throw new RuntimeException(e);
-                }
+                String pkgClsName = (isDirNamePresent ? dirName + "/" : "") + clsName;
+                classFiles.put(pkgClsName.replaceAll("/", ".").substring(0, pkgClsName.length() - 6), dir.resolve(clsName));
             });
+            if (!classFiles.isEmpty()) {
+                classFileConsumer.accept(classFiles);
+            }
 
-            nonClasses.stream().map(entry -> {
-                try {
-                    String resName = (isDirNamePresent ? dirName + "/" : "") + entry;
-                    return Paths.get(systemClassLoader.getResource(resName).toURI()).toFile();
-                } catch (URISyntaxException e) {
-                    throw new RuntimeException(e);
-                }
-            }).filter(File::isDirectory).forEach(dir -> scanForClasses((isDirNamePresent ? dirName + "/" : "") + dir.getName(), classes));
+            nonClasses.stream().map(entry -> dir.resolve(entry).toFile())
+                    .filter(File::isDirectory).forEach(subDir -> scanForClassFiles((isDirNamePresent ? dirName + "/" : "") + subDir.getName(), classFileConsumer));
         }
     }
 
     /**
-     * Computes BeanDefinition-Instances from the given Class-Objects
-     * @param beanClasses Bean-Class-Objects to compute BeanDefinition-Instances for
+     * Computes the BeanDefinitions of all @Bean-Classes while the classpath is being scanned (see streamBeanClasses)
+     * @param trainingRun the training run to record the loaded classes for, may be null
      * @return BeanDefinitions
      */
-    private Set<BeanDefinition> computeBeanDefinitons(Set<Class<?>> beanClasses) {
+    private Set<BeanDefinition> computeBeanDefinitons(TrainingRun trainingRun) {
         if (LOGGER.isLoggable(Level.TRACE)) {
             LOGGER.log(Level.TRACE, "Computing BeanDefinitions");
         }
 
-        Set<BeanDefinition> beanDefinitions = new HashSet<>(beanClasses.size());
+        Set<BeanDefinition> beanDefinitions = ConcurrentHashMap.newKeySet();
+        streamBeanClasses(trainingRun, clazz -> beanDefinitions.add(computeBeanDefinition(clazz)));
 
-        for (Class<?> clazz : beanClasses) {
-            try {
-                Constructor injectableConstructor = ReflectionHelper.getInjectableConstructor(clazz);
-                final String beanId = ReflectionHelper.getBeanId(clazz);
+        return beanDefinitions;
+    }
 
-                if (beanId != null && beanId.trim().length() == 0) {
-                    throw new IllegalStateException(String.format("The id (%s) is not a valid bean id.", beanId));
-                }
+    /**
+     * Computes the BeanDefinition-Instance for the given Class-Object
+     * @param clazz Bean-Class-Object to compute the BeanDefinition-Instance for
+     * @return the BeanDefinition
+     */
+    private BeanDefinition computeBeanDefinition(Class<?> clazz) {
+        try {
+            Constructor injectableConstructor = ReflectionHelper.getInjectableConstructor(clazz);
+            // classes registered at runtime are not required to be annotated with @Bean
+            final String beanId = ReflectionHelper.hasClassAnnotation(clazz, Bean.class) ? ReflectionHelper.getBeanId(clazz) : null;
+
+            if (beanId != null && beanId.trim().length() == 0) {
+                throw new IllegalStateException(String.format("The id (%s) is not a valid bean id.", beanId));
+            }
 
-                boolean isThreadScopeBean = false;
-                Set<Class<?>> interfaces;
-                if (doInjectByInterface) {
-                    interfaces = ReflectionHelper.getAllInterfaces(clazz);
+            BeanScope beanScope = BeanScope.Singleton;
+            Set<Class<?>> interfaces;
+            if (doInjectByInterface) {
+                interfaces = ReflectionHelper.getAllInterfaces(clazz);
 
-                    isThreadScopeBean = isThreadScopeBean(clazz, interfaces);
-                }
+                beanScope = determineBeanScope(clazz, interfaces);
+            }
 
-                BeanDefinition beanDefinition;
-                if (beanId == null) {
-                    beanDefinition = new BeanDefinition(clazz, isThreadScopeBean ? BeanScope.Thread : BeanScope.Singleton);
-                } else {
-                    beanDefinition = new BeanDefinition(clazz, beanId, isThreadScopeBean ? BeanScope.Thread : BeanScope.Singleton);
-                }
+            BeanDefinition beanDefinition;
+            if (beanId == null) {
+                beanDefinition = new BeanDefinition(clazz, beanScope);
+            } else {
+                beanDefinition = new BeanDefinition(clazz, beanId, beanScope);
+            }
 
-                beanDefinition.setConstructor(injectableConstructor);
+            beanDefinition.setConstructor(injectableConstructor);
+            beanDefinition.setPostConstructMethods(ReflectionHelper.getLifecycleMethods(clazz, PostConstruct.class));
+            beanDefinition.setPreDestroyMethods(ReflectionHelper.getLifecycleMethods(clazz, PreDestroy.class));
 
-                String[] beanIdsForDependencies = ReflectionHelper.getBeanIdsForDependencies(injectableConstructor);
-                Parameter[] parameters = injectableConstructor.getParameters();
+            String[] beanIdsForDependencies = ReflectionHelper.getBeanIdsForDependencies(injectableConstructor);
+            Parameter[] parameters = injectableConstructor.getParameters();
 
-                if (doInjectByInterface) {
-                    beanDefinition.addInterfaces(interfaces);
-                }
+            if (doInjectByInterface) {
+                beanDefinition.addInterfaces(interfaces);
+            }
 
-                if (doInjectBySuperclass) {
-                    Set<Class<?>> superclasses = ReflectionHelper.getAllSuperclasses(clazz);
-                    superclasses.forEach(beanDefinition::addSuperclass);
-                }
+            if (doInjectBySuperclass) {
+                Set<Class<?>> superclasses = ReflectionHelper.getAllSuperclasses(clazz);
+                beanDefinition.addSuperclasses(superclasses);
+            }
+
+            if (doInjectByInterface || doInjectBySuperclass) {
+                beanDefinition.addGenericSupertypes(ReflectionHelper.getResolvedGenericSupertypes(clazz));
+            }
+
+            beanDefinition.setSubscriberMethods(ReflectionHelper.getSubscriberMethods(clazz));
+            if (!beanDefinition.getSubscriberMethods().isEmpty() && beanScope != BeanScope.Singleton) {
+                throw new IllegalStateException(String.format("The class (%s) must be a singleton-bean in order to declare @Subscribe-methods", clazz.getName()));
+            }
+
+            beanDefinition.setInterceptorClasses(ReflectionHelper.getInterceptorClasses(clazz));
+            if (!beanDefinition.getInterceptorClasses().isEmpty() && beanDefinition.getInterfaces().isEmpty()) {
+                throw new IllegalStateException(String.format("The class (%s) must implement atleast one interface in order to be intercepted", clazz.getName()));
+            }
+
+            beanDefinition.setAsyncMethods(ReflectionHelper.getAsyncMethods(clazz, beanDefinition.getProxyInterfaces()));
+            if (!beanDefinition.getAsyncMethods().isEmpty() && (beanScope == BeanScope.Thread || beanScope == BeanScope.Task)) {
+                // the executor thread would call its own thread-scope instance and is not part of the callers task
+                throw new IllegalStateException(String.format("The class (%s) must not be a thread- or task-scope bean in order to declare @Async-methods", clazz.getName()));
+            }
 
-                for (int i = 0; i < parameters.length; i++) {
-                    beanDefinition.addDependency(new BeanDefinition(parameters[i].getType(), beanIdsForDependencies[i]));
+            if (beanDefinition.isProxied()) {
+                // the warm-up calls the proxy, which only dispatches the methods of the interfaces to the instances
+                for (Method warmupMethod : ReflectionHelper.getMethodWithAnnotation(clazz, Warmup.class)) {
+                    if (!isDeclaredByInterface(warmupMethod, beanDefinition.getProxyInterfaces())) {
+                        throw new IllegalStateException(String.format("The @Warmup-method (%s) of the class (%s) must be declared by an interface, as the bean is supplied as proxy", warmupMethod.getName(), clazz.getName()));
+                    }
                 }
+            }
 
-                beanDefinitions.add(beanDefinition);
-            } catch (RuntimeException e) {
-                throw new BeanComputationException(String.format("BeanDefinition for class (%s) could not be computed", clazz.getName()), e);
+            for (int i = 0; i < parameters.length; i++) {
+                beanDefinition.addDependency(new BeanDependency(parameters[i].getType(), parameters[i].getParameterizedType(), beanIdsForDependencies[i]));
             }
+
+            return beanDefinition;
+        } catch (RuntimeException e) {
+            throw new BeanComputationException(String.format("BeanDefinition for class (%s) could not be computed", clazz.getName()), e);
         }
+    }
 
-        return beanDefinitions;
+    /**
+     * Returns true if one of the given interfaces declares the given method
+     * @param method the method of the bean class
+     * @param interfaces the interfaces the bean is supplied as
+     * @return true, if the method is declared by an interface
+     */
+    private static boolean isDeclaredByInterface(Method method, Class<?>[] interfaces) {
+        for (Class<?> interfaceClazz : interfaces) {
+            try {
+                interfaceClazz.getMethod(method.getName(), method.getParameterTypes());
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not declared by this interface
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the scope of the bean as declared by its scope-annotation.
+     * Beans without scope-annotation are singleton-beans, declaring more than one scope is not allowed.
+     * @param clazz the class to analyze
+     * @param interfaces the classes interfaces
+     * @return the scope of the bean
+     */
+    private BeanScope determineBeanScope(Class<?> clazz, Set<Class<?>> interfaces) {
+        List<BeanScope> scopes = new ArrayList<>(1);
+
+        if (isThreadScopeBean(clazz, interfaces)) {
+            scopes.add(BeanScope.Thread);
+        }
+        if (isPooledBean(clazz, interfaces)) {
+            scopes.add(BeanScope.Pooled);
+        }
+        if (isStripedBean(clazz, interfaces)) {
+            scopes.add(BeanScope.Striped);
+        }
+        if (isTaskScopeBean(clazz, interfaces)) {
+            scopes.add(BeanScope.Task);
+        }
+        if (clazz.isAnnotationPresent(Prototype.class)) {
+            scopes.add(BeanScope.Prototype);
+        }
+
+        if (scopes.size() > 1) {
+            throw new IllegalStateException(String.format("The class (%s) must not declare more than one scope but declares %s", clazz.getName(), scopes));
+        }
+
+        return scopes.isEmpty() ? BeanScope.Singleton : scopes.get(0);
     }
 
     /**
@@ -362,11 +1800,76 @@ public class CompanionContainer {
         return hasThreadScopeAnnotation;
     }
 
+    /**
+     * Returns wether the bean is a valid pooled-scope bean.
+     * To be so, the bean must be annotated with @Pooled, must implement atleast one interface, must allow atleast one instance
+     * and must not have a negative timeout.
+     * @param clazz the class to analyze
+     * @param interfaces the classes interfaces
+     * @return true, if this bean-class qualifies as a pooled-scope-bean
+     */
+    private boolean isPooledBean(Class<?> clazz, Set<Class<?>> interfaces) {
+        Pooled pooledAnnotation = clazz.getAnnotation(Pooled.class);
+
+        if (pooledAnnotation == null) {
+            return false;
+        }
+
+        if (interfaces.size() == 0) {
+            throw new IllegalStateException(String.format("The class (%s) must implement atleast one interface in order to register for a Pooled-Bean", clazz.getName()));
+        }
+
+        if (pooledAnnotation.max() < 1) {
+            throw new IllegalStateException(String.format("The maximum pool size (%d) of class (%s) must be atleast 1", pooledAnnotation.max(), clazz.getName()));
+        }
+
+        if (pooledAnnotation.timeoutMillis() < 0) {
+            throw new IllegalStateException(String.format("The pool timeout (%d ms) of class (%s) must not be negative", pooledAnnotation.timeoutMillis(), clazz.getName()));
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if the given class is annotated with @TaskScope.
+     * Task-scope beans are supplied as proxies and therefore have to implement atleast one interface.
+     * @param clazz the class to analyze
+     * @param interfaces the classes interfaces
+     * @return true, if the bean is a task-scope bean
+     */
+    private boolean isTaskScopeBean(Class<?> clazz, Set<Class<?>> interfaces) {
+        boolean hasTaskScopeAnnotation = clazz.isAnnotationPresent(TaskScope.class);
+
+        if (hasTaskScopeAnnotation && interfaces.size() == 0) {
+            throw new IllegalStateException(String.format("The class (%s) must implement atleast one interface in order to register for a TaskScope-Bean", clazz.getName()));
+        }
+
+        return hasTaskScopeAnnotation;
+    }
+
+    /**
+     * Returns wether the bean is a valid striped-scope bean.
+     * To be so, the bean must be annotated with @Striped and must implement atleast one interface.
+     * @param clazz the class to analyze
+     * @param interfaces the classes interfaces
+     * @return true, if this bean-class qualifies as a striped-scope-bean
+     */
+    private boolean isStripedBean(Class<?> clazz, Set<Class<?>> interfaces) {
+        boolean hasStripedAnnotation = clazz.isAnnotationPresent(Striped.class);
+
+        if (hasStripedAnnotation && interfaces.size() == 0) {
+            throw new IllegalStateException(String.format("The class (%s) must implement atleast one interface in order to register for a Striped-Bean", clazz.getName()));
+        }
+
+        return hasStripedAnnotation;
+    }
+
     /**
      * Creates instances for the given BeanDefinitions
      * @param beanDefinitions BeanDefinitions to create instances for
+     * @param snapshot the BeanDefinitions to resolve dependencies among
      */
-    private void initializeBeans(Set<BeanDefinition> beanDefinitions) {
+    private void initializeBeans(Collection<BeanDefinition> beanDefinitions, BeanDefinitionSnapshot snapshot) {
         if (LOGGER.isLoggable(Level.TRACE)) {
             LOGGER.log(Level.TRACE, "Initializing beans");
         }
@@ -385,20 +1888,19 @@ public class CompanionContainer {
             // to pretend a circle-injection we create a temporary history
             List<BeanDefinition> history = new ArrayList<>();
 
-            BeanSupplier beanSupplier = getOrCreateBean(beanDefinition, history);
-
-            if (!beanContainerMap.containsKey(beanDefinition)) {
-                beanContainerMap.put(beanDefinition, beanSupplier);
-            }
+            // the supplier is registered by getOrCreateBean
+            getOrCreateBean(beanDefinition, history, snapshot);
         }
     }
 
     /**
      * Returns the BeanSupplier for the specified BeanDefinition
      * @param beanDefinition the BeanDefinition
+     * @param history the bean-creation history containing all BeanDefinitions visited while creating a bean
+     * @param snapshot the BeanDefinitions to resolve dependencies among
      * @return the BeanSupplier
      */
-    private BeanSupplier getOrCreateBean(final BeanDefinition beanDefinition, List<BeanDefinition> history) {
+    private BeanSupplier getOrCreateBean(final BeanDefinition beanDefinition, List<BeanDefinition> history, BeanDefinitionSnapshot snapshot) {
         if (history.contains(beanDefinition)) {
             history.add(beanDefinition);
             // if in the history of creating a bean for this beanDefinition we already came across this definition, then this is a circle injection
@@ -413,49 +1915,177 @@ public class CompanionContainer {
 
         history.add(beanDefinition);
 
-        Object[] ctorParm;
+        BeanSupplier[] dependencySuppliers;
         try {
-            ctorParm = createConstructorParameters(beanDefinition, history);
+            dependencySuppliers = createDependencySuppliers(beanDefinition, history, snapshot);
         } catch (IllegalStateException e) {
             throw new BeanCreationException(String.format("Error retrieving constructor parameters to create bean %s", beanDefinition), e);
         }
 
-        BeanSupplier beanSupplier;
+        Map<Class<?>, MethodInterceptor> interceptors;
+        try {
+            interceptors = createInterceptors(beanDefinition, history, snapshot);
+        } catch (IllegalStateException e) {
+            throw new BeanCreationException(String.format("Error retrieving interceptors to create bean %s", beanDefinition), e);
+        }
+
+        // the dependencies are created already, so this is the time spent on the bean itself
+        final long creationStart = System.nanoTime();
+        BeanSupplier beanSupplier = createBeanSupplier(beanDefinition, dependencySuppliers, interceptors);
+
+        // the instances of the other scopes are created on use, their creation is not measured
+        if (beanDefinition.getScope() == BeanScope.Singleton) {
+            beanCreationTimeMap.put(beanDefinition, System.nanoTime() - creationStart);
+        }
+
+        // register the supplier right away, so beans sharing this dependency get the same supplier
+        beanContainerMap.put(beanDefinition, beanSupplier);
+        getBeanReadiness(beanDefinition).complete(beanSupplier);
+        // the history is the current path of the dependency graph, siblings must not be considered a circle
+        history.remove(history.size() - 1);
+
+        return beanSupplier;
+    }
 
-        Supplier<Object> instantiator = createBeanInstantiator(beanDefinition, ctorParm);
+    /**
+     * Creates the BeanSupplier of the beans scope for the given BeanDefinition, wrapped by an InterceptingBeanSupplier if the bean is intercepted
+     * @param beanDefinition the BeanDefinition to create a bean for
+     * @param dependencySuppliers BeanSuppliers for the constructor-parameters
+     * @param interceptors the interceptors by class
+     * @return the BeanSupplier
+     */
+    private BeanSupplier createBeanSupplier(BeanDefinition beanDefinition, BeanSupplier[] dependencySuppliers, Map<Class<?>, MethodInterceptor> interceptors) {
+        BeanSupplier beanSupplier;
 
         BeanScope beanScope = beanDefinition.getScope();
-        switch (beanScope) {
-            case Singleton:
-                Object instance = instantiator.get();
-                if (instance == null) {
-                    throw new RuntimeException(String.format("Unexpected error creating bean %s", beanDefinition.getId()));
-                }
+        if (beanScope == BeanScope.Prototype) {
+            // prototypes are created by a precompiled factory on every call, so the dependencies are not resolved here
+            beanSupplier = new PrototypeBeanSupplier(beanDefinition, dependencySuppliers);
+        } else {
+            Supplier<Object> instantiator = createBeanInstantiator(beanDefinition, dependencySuppliers);
+
+            switch (beanScope) {
+                case Singleton:
+                    Object instance = instantiator.get();
+                    if (instance == null) {
+                        throw new RuntimeException(String.format("Unexpected error creating bean %s", beanDefinition.getId()));
+                    }
+
+                    beanSupplier = new SingletonBeanSupplier(instance);
+                    break;
+
+                case Thread:
+                    beanSupplier = new ThreadScopeBeanSupplier(beanDefinition, instantiator);
+                    break;
+
+                case Task:
+                    beanSupplier = new TaskScopeBeanSupplier(beanDefinition, instantiator);
+                    break;
+
+                case Pooled:
+                    Pooled pooled = beanDefinition.getClazz().getAnnotation(Pooled.class);
+                    beanSupplier = new PooledBeanSupplier(beanDefinition, instantiator, pooled.max(), pooled.timeoutMillis());
+                    break;
+
+                case Striped:
+                    int stripeCount = beanDefinition.getClazz().getAnnotation(Striped.class).stripes();
+                    if (stripeCount < 1) {
+                        stripeCount = Runtime.getRuntime().availableProcessors();
+                    }
+
+                    beanSupplier = new StripedBeanSupplier(beanDefinition, instantiator, stripeCount);
+                    break;
+
+                default:
+                    throw new BeanCreationException(String.format("Bean (%s) cannot be created with Scope %s", beanDefinition.getId(), beanScope));
+            }
+        }
 
-                beanSupplier = new SingletonBeanSupplier(instance);
-                break;
+        if (!interceptors.isEmpty()) {
+            beanSupplier = new InterceptingBeanSupplier(beanDefinition, beanSupplier, interceptors);
+        }
+        if (!beanDefinition.getAsyncMethods().isEmpty()) {
+            // the interceptors run on the async executor as well
+            beanSupplier = new AsyncBeanSupplier(beanDefinition, beanSupplier, getAsyncExecutor());
+        }
 
-            case Thread:
-                beanSupplier = new ThreadScopeBeanSupplier(beanDefinition, instantiator);
-                break;
+        return beanSupplier;
+    }
 
-            default:
-                throw new BeanCreationException(String.format("Bean (%s) cannot be created with Scope %s", beanDefinition.getId(), beanScope));
+    /**
+     * Returns the BeanSupplier of the beans scope, unwrapping the suppliers of intercepted and async beans
+     * @param beanSupplier the BeanSupplier
+     * @return the BeanSupplier of the scope
+     */
+    private static BeanSupplier getScopeBeanSupplier(BeanSupplier beanSupplier) {
+        if (beanSupplier instanceof AsyncBeanSupplier) {
+            beanSupplier = ((AsyncBeanSupplier) beanSupplier).getDelegate();
+        }
+        if (beanSupplier instanceof InterceptingBeanSupplier) {
+            beanSupplier = ((InterceptingBeanSupplier) beanSupplier).getDelegate();
         }
 
         return beanSupplier;
     }
 
     /**
-     * Creates an instantiator to use by/for a BeanSupplier
+     * Returns the executor of the @Async-methods, the one of the settings or the one of the container, which is created on first use
+     * @return the executor
+     */
+    private Executor getAsyncExecutor() {
+        if (settings.getAsyncExecutor() != null) {
+            return settings.getAsyncExecutor();
+        }
+
+        synchronized (registrationLock) {
+            if (asyncExecutor == null) {
+                asyncExecutor = createAsyncExecutor();
+            }
+
+            return asyncExecutor;
+        }
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task, if the runtime supports virtual threads (JDK 21+), a cached thread pool otherwise
+     * @return the executor
+     */
+    private static ExecutorService createAsyncExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            LOGGER.log(Level.DEBUG, "Virtual threads are not supported, @Async-methods are called on a cached thread pool");
+        } catch (ReflectiveOperationException e) {
+            LOGGER.log(Level.WARNING, "The virtual thread executor could not be created, @Async-methods are called on a cached thread pool", e);
+        }
+
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "companion-async");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates an instantiator to use by/for a BeanSupplier.
+     * The instantiator retrieves the constructor-parameters from their suppliers for every instance it creates,
+     * so e.g. the instances of a pool or of the threads get their own prototype-dependencies,
+     * and calls the @PostConstruct-methods of every instance.
      * @param beanDefinition the BeanDefinition to create a bean for
-     * @param ctorParm the constructor-parameters to instantiate the bean
+     * @param dependencySuppliers the suppliers of the constructor-parameters to instantiate the bean
      * @return a supplier that returns an instance for the bean
      */
-    private static Supplier<Object> createBeanInstantiator(BeanDefinition beanDefinition, Object[] ctorParm) {
+    private static Supplier<Object> createBeanInstantiator(BeanDefinition beanDefinition, BeanSupplier[] dependencySuppliers) {
         return () -> {
             try {
-                return beanDefinition.getClazz().cast(beanDefinition.getConstructor().newInstance(ctorParm));
+                Object[] ctorParm = createConstructorParameters(dependencySuppliers);
+                Object instance = beanDefinition.getClazz().cast(beanDefinition.getConstructor().newInstance(ctorParm));
+
+                for (Method postConstructMethod : beanDefinition.getPostConstructMethods()) {
+                    postConstructMethod.invoke(instance);
+                }
+
+                return instance;
             } catch (InstantiationException e) {
                 throw new BeanCreationException(e);
             } catch (IllegalAccessException e) {
@@ -467,63 +2097,148 @@ public class CompanionContainer {
     }
 
     /**
-     * Returns an Object-Array containing the instances for the dependencies of the given BeanDefinition.
+     * Returns an Array containing the BeanSuppliers for the dependencies of the given BeanDefinition.
      * May construct these dependecies via recursively calling getOrCreateBean
      *
      * @param beanDefinition BeanDefinition to create the dependencies for
      * @param history the bean-creation history containing all BeanDefinitions visited while creating a bean
-     * @return Constructor-Parameter to instantiate the bean
+     * @param snapshot the BeanDefinitions to resolve dependencies among
+     * @return BeanSuppliers for the constructor-parameters to instantiate the bean
      */
-    private Object[] createConstructorParameters(BeanDefinition beanDefinition, List<BeanDefinition> history) {
+    private BeanSupplier[] createDependencySuppliers(BeanDefinition beanDefinition, List<BeanDefinition> history, BeanDefinitionSnapshot snapshot) {
         final List<BeanDependency> dependencies = beanDefinition.getDependencies();
-        Object[] ctorParm = new Object[dependencies.size()];
+        BeanSupplier[] dependencySuppliers = new BeanSupplier[dependencies.size()];
+        List<BeanDefinition> dependencyBeanDefinitions = new ArrayList<>(dependencies.size());
 
         int i = 0;
         Iterator<BeanDependency> iterator = dependencies.iterator();
         while (iterator.hasNext()) {
             BeanDependency dependency = iterator.next();
-            BeanDefinition dependencyBeanDefinition = getBeanDefinitionFromDependency(dependency);
+            BeanDefinition dependencyBeanDefinition = getBeanDefinitionFromDependency(dependency, snapshot);
 
-            BeanSupplier dependencySupplier = getOrCreateBean(dependencyBeanDefinition, history);
-            ctorParm[i] = dependencySupplier.get();
+            dependencySuppliers[i] = getOrCreateBean(dependencyBeanDefinition, history, snapshot);
+            dependencyBeanDefinitions.add(dependencyBeanDefinition);
             i++;
         }
 
+        beanDependencyMap.put(beanDefinition, dependencyBeanDefinitions);
+
+        return dependencySuppliers;
+    }
+
+    /**
+     * Returns the interceptors of the given BeanDefinition by their class, the interceptor beans are added to its resolved dependencies.
+     * May construct the interceptor beans via recursively calling getOrCreateBean
+     *
+     * @param beanDefinition BeanDefinition to create the interceptors for
+     * @param history the bean-creation history containing all BeanDefinitions visited while creating a bean
+     * @param snapshot the BeanDefinitions to resolve the interceptors among
+     * @return the interceptors by class
+     */
+    private Map<Class<?>, MethodInterceptor> createInterceptors(BeanDefinition beanDefinition, List<BeanDefinition> history, BeanDefinitionSnapshot snapshot) {
+        if (beanDefinition.getInterceptorClasses().isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Class<?>, MethodInterceptor> interceptors = new HashMap<>();
+        List<BeanDefinition> dependencyBeanDefinitions = new ArrayList<>(beanDependencyMap.get(beanDefinition));
+
+        for (Class<? extends MethodInterceptor> interceptorClass : beanDefinition.getInterceptorClasses()) {
+            BeanDefinition interceptorBeanDefinition = getBeanDefinitionFromDependency(new BeanDependency(interceptorClass, null), snapshot);
+
+            interceptors.put(interceptorClass, (MethodInterceptor) getOrCreateBean(interceptorBeanDefinition, history, snapshot).get());
+            dependencyBeanDefinitions.add(interceptorBeanDefinition);
+        }
+
+        beanDependencyMap.put(beanDefinition, dependencyBeanDefinitions);
+
+        return interceptors;
+    }
+
+    /**
+     * Returns an Object-Array containing the instances supplied by the given BeanSuppliers
+     * @param dependencySuppliers BeanSuppliers for the dependencies
+     * @return Constructor-Parameter to instantiate the bean
+     */
+    private static Object[] createConstructorParameters(BeanSupplier[] dependencySuppliers) {
+        Object[] ctorParm = new Object[dependencySuppliers.length];
+
+        for (int i = 0; i < dependencySuppliers.length; i++) {
+            ctorParm[i] = dependencySuppliers[i].get();
+        }
+
         return ctorParm;
     }
 
     /**
      * Returns a (complete) BeanDefinition for the given dependency
      * @param dependency the dependency
+     * @param snapshot the BeanDefinitions to search
      * @return the BeanDefinition the for dependency
      */
-    private BeanDefinition getBeanDefinitionFromDependency(BeanDependency dependency) {
+    private BeanDefinition getBeanDefinitionFromDependency(BeanDependency dependency, BeanDefinitionSnapshot snapshot) {
+        Set<BeanDefinition> hits = findBeanDefinitionsForDependency(dependency, snapshot);
+
+        if (hits.size() == 0) {
+            throw new IllegalStateException(String.format("No BeanDefinition found for dependency %s.", dependency));
+        } else if (hits.size() > 1) {
+            throw new IllegalStateException(String.format("Expected one BeanDefinition but found %d: %s", hits.size(), hits.stream().map(BeanDefinition::toString).collect(Collectors.joining(", "))));
+        }
+
+        return hits.iterator().next();
+    }
+
+    /**
+     * Returns all BeanDefinitions matching the given dependency
+     * @param dependency the dependency
+     * @param snapshot the BeanDefinitions to search
+     * @return the matching BeanDefinitions
+     */
+    private Set<BeanDefinition> findBeanDefinitionsForDependency(BeanDependency dependency, BeanDefinitionSnapshot snapshot) {
         Set<BeanDefinition> hits = new HashSet<>();
 
         if (dependency.getId() != null) { // if an id is specified we search for it
-            for (BeanDefinition beanDefinition : this.beanDefinitionSet) {
-                if (beanDefinition.getId().equals(dependency.getId())) {
-                    hits.add(beanDefinition);
-                }
+            BeanDefinition beanDefinition = snapshot.getById(dependency.getId());
+            if (beanDefinition != null) {
+                hits.add(beanDefinition);
             }
+        } else if (dependency.getGenericTypeName() != null && !snapshot.getByGenericType(dependency.getGenericTypeName()).isEmpty()) {
+            // parameterized types (e.g. Repository<User>) are looked up in the index of resolved generic supertypes
+            hits.addAll(snapshot.getByGenericType(dependency.getGenericTypeName()));
         } else { // otherwise we search by type
-            for (BeanDefinition beanDefinition : this.beanDefinitionSet) {
+            for (BeanDefinition beanDefinition : snapshot.getAll()) {
                 boolean isClazz = beanDefinition.getClazz().equals(dependency.getClazz());
-                boolean isInterfaceClazz = doInjectByInterface ? beanDefinition.getInterfaces().contains(dependency.getClazz()) : false;
-                boolean isSuperClazz = doInjectBySuperclass ? beanDefinition.getSuperclasses().contains(dependency.getClazz()) : false;
-                if (isClazz || isInterfaceClazz || isSuperClazz) {
+                boolean isInterfaceClazz = doInjectByInterface ? beanDefinition.hasInterface(dependency.getClazz()) : false;
+                boolean isSuperClazz = doInjectBySuperclass ? beanDefinition.hasSuperclass(dependency.getClazz()) : false;
+                if ((isClazz || isInterfaceClazz || isSuperClazz) && !isOtherParameterization(beanDefinition, dependency)) {
                     hits.add(beanDefinition);
                 }
             }
         }
 
-        if (hits.size() == 0) {
-            throw new IllegalStateException(String.format("No BeanDefinition found for dependency %s.", dependency));
-        } else if (hits.size() > 1) {
-            throw new IllegalStateException(String.format("Expected one BeanDefinition but found %d: %s", hits.size(), hits.stream().map(BeanDefinition::toString).collect(Collectors.joining(", "))));
+        return hits;
+    }
+
+    /**
+     * Returns true if the given dependency is parameterized (e.g. Repository<Long>) and the bean resolves its raw type with other type arguments
+     * (e.g. Repository<String>). Beans implementing the raw type only (raw or through type variables) may still be injected by raw type.
+     * @param beanDefinition the BeanDefinition matching the raw type of the dependency
+     * @param dependency the dependency
+     * @return true, if the bean must not be injected
+     */
+    private static boolean isOtherParameterization(BeanDefinition beanDefinition, BeanDependency dependency) {
+        if (dependency.getGenericTypeName() == null) {
+            return false;
         }
 
-        return hits.iterator().next();
+        String rawTypePrefix = dependency.getClazz().getName() + "<";
+        for (String genericSupertype : beanDefinition.getGenericSupertypes()) {
+            if (genericSupertype.startsWith(rawTypePrefix)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
 
@@ -0,0 +1,219 @@
+package de.darxun.companion.container;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Settings to initialize a CompanionContainer with
+ */
+public class CompanionSettings {
+
+    /**
+     * Flags wether @Warmup-methods and warm-up callbacks should be run or not
+     */
+    private boolean warmupEnabled = true;
+
+    /**
+     * Default number of calls for every @Warmup-method and warm-up callback
+     */
+    private int warmupIterations = 10_000;
+
+    /**
+     * Number of threads to run the warm-up on
+     */
+    private int warmupParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Callbacks to run while warming up the container
+     */
+    private final List<Consumer<CompanionContainer>> warmupCallbacks = new ArrayList<>();
+
+    /**
+     * Maximum time to wait for the @PreDestroy-methods of a single bean while closing the container
+     */
+    private Duration destroyTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Directory of the scan cache, null to always analyze all scanned classes
+     */
+    private Path scanCacheDirectory;
+
+    /**
+     * Classes of the beans to create on setup along with their dependencies, all beans are created if empty
+     */
+    private List<Class<?>> roots = Collections.emptyList();
+
+    /**
+     * Directory to write the class list and launch recipe of a training run to, null to disable the training run
+     */
+    private Path trainingRunDirectory;
+
+    /**
+     * Flags wether the @Bean-classes are read from the bean indexes on the classpath instead of scanning the classpath
+     */
+    private boolean beanIndexEnabled = false;
+
+    /**
+     * Executor of the asynchronous @Subscribe-methods
+     */
+    private Executor eventExecutor = ForkJoinPool.commonPool();
+
+    /**
+     * Executor of the @Async-methods, null for an executor created by the container
+     */
+    private Executor asyncExecutor;
+
+    public boolean isWarmupEnabled() {
+        return warmupEnabled;
+    }
+
+    public void setWarmupEnabled(boolean warmupEnabled) {
+        this.warmupEnabled = warmupEnabled;
+    }
+
+    public int getWarmupIterations() {
+        return warmupIterations;
+    }
+
+    public void setWarmupIterations(int warmupIterations) {
+        if (warmupIterations < 1) {
+            throw new IllegalArgumentException(String.format("The warm-up iterations (%d) must be atleast 1", warmupIterations));
+        }
+
+        this.warmupIterations = warmupIterations;
+    }
+
+    public int getWarmupParallelism() {
+        return warmupParallelism;
+    }
+
+    public void setWarmupParallelism(int warmupParallelism) {
+        if (warmupParallelism < 1) {
+            throw new IllegalArgumentException(String.format("The warm-up parallelism (%d) must be atleast 1", warmupParallelism));
+        }
+
+        this.warmupParallelism = warmupParallelism;
+    }
+
+    /**
+     * Registers a callback that is called (warmup iterations times) while warming up the container
+     * @param warmupCallback the callback
+     */
+    public void addWarmupCallback(Consumer<CompanionContainer> warmupCallback) {
+        if (warmupCallback == null) {
+            throw new IllegalArgumentException("warmupCallback may not be null");
+        }
+
+        this.warmupCallbacks.add(warmupCallback);
+    }
+
+    public List<Consumer<CompanionContainer>> getWarmupCallbacks() {
+        return Collections.unmodifiableList(warmupCallbacks);
+    }
+
+    public Duration getDestroyTimeout() {
+        return destroyTimeout;
+    }
+
+    public void setDestroyTimeout(Duration destroyTimeout) {
+        if (destroyTimeout == null || destroyTimeout.isNegative() || destroyTimeout.isZero()) {
+            throw new IllegalArgumentException(String.format("The destroy timeout (%s) must be positive", destroyTimeout));
+        }
+
+        this.destroyTimeout = destroyTimeout;
+    }
+
+    public Path getScanCacheDirectory() {
+        return scanCacheDirectory;
+    }
+
+    /**
+     * Enables the on-disk scan cache (e.g. target/companion) to only analyze new or changed class files on setup.
+     * @param scanCacheDirectory directory of the scan cache, null to disable the cache
+     */
+    public void setScanCacheDirectory(Path scanCacheDirectory) {
+        this.scanCacheDirectory = scanCacheDirectory;
+    }
+
+    public List<Class<?>> getRoots() {
+        return roots;
+    }
+
+    /**
+     * Restricts the beans created on setup to the beans of the given classes and their (transitive) dependencies,
+     * all other beans are created on demand.
+     * @param roots the classes of the beans to create on setup, none to create all beans
+     */
+    public void setRoots(Class<?>... roots) {
+        if (roots == null || Arrays.stream(roots).anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("roots may not be null");
+        }
+
+        this.roots = List.of(roots);
+    }
+
+    public Path getTrainingRunDirectory() {
+        return trainingRunDirectory;
+    }
+
+    /**
+     * Enables the training run: the classes loaded while scanning, computing the BeanDefinitions and creating the beans
+     * are written as class list for an AppCDS archive to the given directory, along with a launch recipe (companion-cds.sh).
+     * @param trainingRunDirectory the output directory, null to disable the training run
+     */
+    public void setTrainingRunDirectory(Path trainingRunDirectory) {
+        this.trainingRunDirectory = trainingRunDirectory;
+    }
+
+    public boolean isBeanIndexEnabled() {
+        return beanIndexEnabled;
+    }
+
+    /**
+     * Enables reading the @Bean-classes from the bean indexes on the classpath (META-INF/companion/beans.idx,
+     * see NativeImageConfigGenerator) instead of scanning the classpath. Without class directories to scan
+     * (e.g. in a native image) the bean indexes are read anyway.
+     * @param beanIndexEnabled true to read the bean indexes instead of scanning the classpath
+     */
+    public void setBeanIndexEnabled(boolean beanIndexEnabled) {
+        this.beanIndexEnabled = beanIndexEnabled;
+    }
+
+    public Executor getEventExecutor() {
+        return eventExecutor;
+    }
+
+    /**
+     * Sets the executor the asynchronous @Subscribe-methods receive their events on (the common pool by default)
+     * @param eventExecutor the executor
+     */
+    public void setEventExecutor(Executor eventExecutor) {
+        if (eventExecutor == null) {
+            throw new IllegalArgumentException("eventExecutor may not be null");
+        }
+
+        this.eventExecutor = eventExecutor;
+    }
+
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Sets the executor the @Async-methods are called on. The executor is not shut down by the container.
+     * By default (null) the container creates an executor starting a virtual thread per call (JDK 21+) or a cached thread pool,
+     * which is shut down on close.
+     * @param asyncExecutor the executor or null
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+}
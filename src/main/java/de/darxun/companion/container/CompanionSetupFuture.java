@@ -0,0 +1,37 @@
+package de.darxun.companion.container;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Future of a CompanionContainer that is initialized asynchronously (see CompanionContainer.setupAsync).
+ * Single beans may be retrieved via whenReady before the container is completely initialized.
+ */
+public class CompanionSetupFuture extends CompletableFuture<CompanionContainer> {
+
+    private final CompanionContainer container;
+
+    CompanionSetupFuture(CompanionContainer container) {
+        this.container = container;
+    }
+
+    /**
+     * Returns a future of the requested bean by the specified class, that is completed as soon as the bean is created.
+     * @param clazz the class of the bean
+     * @return the future of the bean
+     * @param <T> type of the bean
+     */
+    public <T extends Object> CompletableFuture<T> whenReady(final Class<T> clazz) {
+        return container.whenReady(clazz);
+    }
+
+    /**
+     * Returns a future of the requested bean by the specified id and class, that is completed as soon as the bean is created.
+     * @param beanId the beanId
+     * @param clazz the class of the bean
+     * @return the future of the bean
+     * @param <T> type of the bean
+     */
+    public <T extends Object> CompletableFuture<T> whenReady(final String beanId, final Class<T> clazz) {
+        return container.whenReady(beanId, clazz);
+    }
+}
@@ -0,0 +1,145 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.BeanCreationException;
+import de.darxun.companion.api.Subscribe;
+import de.darxun.companion.container.model.BeanDefinition;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.System.Logger.Level;
+
+/**
+ * Dispatches published events to the @Subscribe-methods of the beans.
+ * Every @Subscribe-method is turned into a MethodHandle bound to its bean once, the listeners of an event type are computed
+ * on the first publish of the type and kept as array, so publishing walks an array of handles.
+ * Asynchronous listeners queue the events and drain their queue in a single task on the executor, so the events are
+ * delivered in publish order and in batches.
+ */
+class EventDispatcher {
+
+    private static final System.Logger LOGGER = System.getLogger(EventDispatcher.class.getName());
+
+    private static final MethodType LISTENER_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private final Listener[] listeners;
+
+    private final ClassValue<Listener[]> listenersByEventType = new ClassValue<>() {
+        @Override
+        protected Listener[] computeValue(Class<?> eventType) {
+            List<Listener> matches = new ArrayList<>();
+            for (Listener listener : listeners) {
+                if (listener.eventType.isAssignableFrom(eventType)) {
+                    matches.add(listener);
+                }
+            }
+
+            return matches.toArray(new Listener[0]);
+        }
+    };
+
+    /**
+     * @param subscribers the instances of the beans declaring @Subscribe-methods
+     * @param executor the executor of the asynchronous listeners
+     */
+    EventDispatcher(Map<BeanDefinition, Object> subscribers, Executor executor) {
+        List<Listener> listeners = new ArrayList<>();
+        subscribers.forEach((beanDefinition, instance) -> {
+            for (Method method : beanDefinition.getSubscriberMethods()) {
+                listeners.add(new Listener(beanDefinition, method, instance, executor));
+            }
+        });
+
+        this.listeners = listeners.toArray(new Listener[0]);
+    }
+
+    /**
+     * Dispatches the given event to all listeners of its type
+     * @param event the event
+     */
+    void publish(Object event) {
+        for (Listener listener : listenersByEventType.get(event.getClass())) {
+            listener.dispatch(event);
+        }
+    }
+
+    private static final class Listener {
+
+        private final BeanDefinition beanDefinition;
+
+        private final Method method;
+
+        private final Class<?> eventType;
+
+        private final MethodHandle handle;
+
+        /** the executor of an asynchronous listener, null for synchronous listeners */
+        private final Executor executor;
+
+        private final Queue<Object> pendingEvents;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Listener(BeanDefinition beanDefinition, Method method, Object instance, Executor executor) {
+            this.beanDefinition = beanDefinition;
+            this.method = method;
+            this.eventType = method.getParameterTypes()[0];
+
+            try {
+                this.handle = MethodHandles.lookup().unreflect(method).bindTo(instance).asType(LISTENER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new BeanCreationException(String.format("The @Subscribe-method (%s) of bean %s is not accessible", method, beanDefinition.getId()), e);
+            }
+
+            boolean async = method.getAnnotation(Subscribe.class).async();
+            this.executor = async ? executor : null;
+            this.pendingEvents = async ? new ConcurrentLinkedQueue<>() : null;
+        }
+
+        private void dispatch(Object event) {
+            if (executor == null) {
+                invoke(event);
+                return;
+            }
+
+            pendingEvents.add(event);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                for (Object event = pendingEvents.poll(); event != null; event = pendingEvents.poll()) {
+                    try {
+                        invoke(event);
+                    } catch (RuntimeException | Error e) {
+                        LOGGER.log(Level.WARNING, String.format("@Subscribe-method %s of bean %s failed", method.getName(), beanDefinition.getId()), e);
+                    }
+                }
+
+                scheduled.set(false);
+                // an event may have been queued after the last poll but before resetting the flag
+            } while (!pendingEvents.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+
+        private void invoke(Object event) {
+            try {
+                handle.invokeExact(event);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(String.format("@Subscribe-method %s of bean %s failed", method.getName(), beanDefinition.getId()), e);
+            }
+        }
+    }
+}
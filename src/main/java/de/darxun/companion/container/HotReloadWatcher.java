@@ -0,0 +1,159 @@
+package de.darxun.companion.container;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.System.Logger.Level;
+
+/**
+ * Watches the class output directories of a container (see CompanionContainer.watch) and reloads changed classes.
+ * Changes are collected until the directories are quiet for a short period, so a recompile results in a single reload.
+ */
+public class HotReloadWatcher implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(HotReloadWatcher.class.getName());
+
+    /** millis without further changes before a reload is triggered */
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final CompanionContainer container;
+
+    private final List<Path> classDirectories;
+
+    private final WatchService watchService;
+
+    private final Map<WatchKey, Path> watchedDirectories;
+
+    private final Thread watcherThread;
+
+    private final AtomicInteger reloadCount;
+
+    private volatile boolean closed;
+
+    HotReloadWatcher(CompanionContainer container, List<Path> classDirectories) throws IOException {
+        this.container = container;
+        this.classDirectories = classDirectories;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.watchedDirectories = new HashMap<>();
+        this.reloadCount = new AtomicInteger();
+
+        for (Path classDirectory : classDirectories) {
+            registerRecursively(classDirectory);
+        }
+
+        this.watcherThread = new Thread(this::watch, "companion-hot-reload");
+        this.watcherThread.setDaemon(true);
+        this.watcherThread.start();
+    }
+
+    /**
+     * @return the number of reloads done so far
+     */
+    public int getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * @return the watched class output directories
+     */
+    public List<Path> getClassDirectories() {
+        return Collections.unmodifiableList(classDirectories);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+        watcherThread.interrupt();
+    }
+
+    private void watch() {
+        try {
+            while (!closed) {
+                WatchKey key = watchService.take();
+                Set<String> changedClassNames = new HashSet<>();
+                collectChanges(key, changedClassNames);
+
+                // wait for the directories to be quiet, a recompile changes many files at once
+                while ((key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collectChanges(key, changedClassNames);
+                }
+
+                if (!changedClassNames.isEmpty()) {
+                    reload(changedClassNames);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the watcher was closed
+        }
+    }
+
+    private void reload(Set<String> changedClassNames) {
+        try {
+            container.reloadClasses(changedClassNames, classDirectories);
+            reloadCount.incrementAndGet();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.ERROR, String.format("Reloading classes %s failed, keeping the current beans", changedClassNames), e);
+        }
+    }
+
+    /**
+     * Collects the names of the changed classes of the given key and registers new directories
+     */
+    private void collectChanges(WatchKey key, Set<String> changedClassNames) {
+        Path directory = watchedDirectories.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                continue;
+            }
+
+            Path changed = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+                try {
+                    registerRecursively(changed);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, String.format("Could not watch directory %s", changed), e);
+                }
+            } else if (changed.getFileName().toString().endsWith(".class")) {
+                String className = toClassName(changed);
+                if (className != null) {
+                    changedClassNames.add(className);
+                }
+            }
+        }
+
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    /**
+     * Returns the binary name of the class for the given class file
+     */
+    private String toClassName(Path classFile) {
+        for (Path classDirectory : classDirectories) {
+            if (classFile.startsWith(classDirectory)) {
+                String relativePath = classDirectory.relativize(classFile).toString();
+                return relativePath.substring(0, relativePath.length() - ".class".length()).replace(classFile.getFileSystem().getSeparator(), ".");
+            }
+        }
+
+        return null;
+    }
+
+    private void registerRecursively(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.BeanCreationException;
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.model.BeanDependency;
+import de.darxun.companion.container.model.beansupplier.BeanSupplier;
+import de.darxun.companion.container.util.ReflectionHelper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The @Inject-fields and -methods of a class to inject into objects not created by the container (see CompanionContainer.injectMembers).
+ * The plan is computed once per class: every member is compiled into a MethodHandle and its dependencies are resolved to their BeanSuppliers,
+ * so injecting into an object calls the handles with the supplied beans only.
+ */
+class MemberInjectionPlan {
+
+    private static final MethodType FIELD_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodType METHOD_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+    private final Class<?> clazz;
+
+    /** the fields first, then the methods, both superclasses first */
+    private final InjectionPoint[] injectionPoints;
+
+    private MemberInjectionPlan(Class<?> clazz, InjectionPoint[] injectionPoints) {
+        this.clazz = clazz;
+        this.injectionPoints = injectionPoints;
+    }
+
+    /**
+     * Computes the plan of the given class
+     * @param clazz the class
+     * @param definitionResolver resolves the BeanDefinition of a dependency
+     * @param supplierResolver resolves the BeanSupplier of a BeanDefinition
+     * @return the plan
+     */
+    static MemberInjectionPlan of(Class<?> clazz, Function<BeanDependency, BeanDefinition> definitionResolver, Function<BeanDefinition, BeanSupplier> supplierResolver) {
+        List<InjectionPoint> injectionPoints = new ArrayList<>();
+
+        try {
+            for (Field field : ReflectionHelper.getInjectableFields(clazz)) {
+                BeanDependency dependency = new BeanDependency(field.getType(), field.getGenericType(), ReflectionHelper.getBeanIdForDependency(field));
+                MethodHandle handle = MethodHandles.lookup().unreflectSetter(field).asType(FIELD_TYPE);
+
+                injectionPoints.add(new InjectionPoint(field, handle, true, resolve(List.of(dependency), definitionResolver), supplierResolver));
+            }
+
+            for (Method method : ReflectionHelper.getInjectableMethods(clazz)) {
+                String[] beanIds = ReflectionHelper.getBeanIdsForDependencies(method);
+                Parameter[] parameters = method.getParameters();
+
+                List<BeanDependency> dependencies = new ArrayList<>(parameters.length);
+                for (int i = 0; i < parameters.length; i++) {
+                    dependencies.add(new BeanDependency(parameters[i].getType(), parameters[i].getParameterizedType(), beanIds[i]));
+                }
+                MethodHandle handle = MethodHandles.lookup().unreflect(method).asSpreader(Object[].class, parameters.length).asType(METHOD_TYPE);
+
+                injectionPoints.add(new InjectionPoint(method, handle, false, resolve(dependencies, definitionResolver), supplierResolver));
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new BeanCreationException(String.format("The members of class (%s) cannot be injected", clazz.getName()), e);
+        }
+
+        return new MemberInjectionPlan(clazz, injectionPoints.toArray(new InjectionPoint[0]));
+    }
+
+    private static BeanDefinition[] resolve(List<BeanDependency> dependencies, Function<BeanDependency, BeanDefinition> definitionResolver) {
+        BeanDefinition[] beanDefinitions = new BeanDefinition[dependencies.size()];
+        for (int i = 0; i < beanDefinitions.length; i++) {
+            beanDefinitions[i] = definitionResolver.apply(dependencies.get(i));
+        }
+
+        return beanDefinitions;
+    }
+
+    /**
+     * Injects the members of the given object
+     * @param instance the object, an instance of the class of the plan
+     * @param supplierResolver resolves the BeanSuppliers instead of the resolved ones (e.g. while beans are replaced), may be null
+     */
+    void inject(Object instance, Function<BeanDefinition, BeanSupplier> supplierResolver) {
+        for (InjectionPoint injectionPoint : injectionPoints) {
+            BeanSupplier[] suppliers = injectionPoint.suppliers;
+            if (supplierResolver != null) {
+                suppliers = new BeanSupplier[suppliers.length];
+                for (int i = 0; i < suppliers.length; i++) {
+                    suppliers[i] = supplierResolver.apply(injectionPoint.dependencies[i]);
+                }
+            }
+
+            try {
+                if (injectionPoint.isField) {
+                    injectionPoint.handle.invokeExact(instance, suppliers[0].get());
+                } else {
+                    Object[] args = new Object[suppliers.length];
+                    for (int i = 0; i < args.length; i++) {
+                        args[i] = suppliers[i].get();
+                    }
+
+                    injectionPoint.handle.invokeExact(instance, args);
+                }
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeanCreationException(String.format("Injecting %s of class (%s) failed", injectionPoint.member.getName(), clazz.getName()), e);
+            }
+        }
+    }
+
+    private static final class InjectionPoint {
+
+        private final Member member;
+
+        private final MethodHandle handle;
+
+        /** true for fields, called with the bean, false for methods, called with the array of beans */
+        private final boolean isField;
+
+        private final BeanDefinition[] dependencies;
+
+        private final BeanSupplier[] suppliers;
+
+        private InjectionPoint(Member member, MethodHandle handle, boolean isField, BeanDefinition[] dependencies, Function<BeanDefinition, BeanSupplier> supplierResolver) {
+            this.member = member;
+            this.handle = handle;
+            this.isField = isField;
+            this.dependencies = dependencies;
+            this.suppliers = new BeanSupplier[dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                suppliers[i] = supplierResolver.apply(dependencies[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Warmup;
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.util.ReflectionHelper;
+
+import java.io.IOException;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Derives the native-image configuration from the BeanDefinitions of the classpath without creating any bean:
+ * <ul>
+ *     <li>reflect-config.json registers the bean classes, their injectable constructors, lifecycle-, warm-up- and subscriber-methods
+ *     and the interfaces invoked through proxies</li>
+ *     <li>proxy-config.json registers the interface lists of the beans supplied as proxies (thread-, task-, pooled- and striped-scope, intercepted and async beans)</li>
+ *     <li>resource-config.json includes the bean index, META-INF/companion/beans.idx, which lists the @Bean-classes,
+ *     so the container starts without scanning the classpath</li>
+ * </ul>
+ * Usage: {@code java -cp <classpath> de.darxun.companion.container.NativeImageConfigGenerator [--output directory]},
+ * the output directory (target/classes by default) is to be part of the classpath of the native image build.
+ */
+public class NativeImageConfigGenerator {
+
+    static final String CONFIG_DIRECTORY = "META-INF/native-image/companion";
+
+    private final List<BeanDefinition> beanDefinitions;
+
+    public NativeImageConfigGenerator(Collection<BeanDefinition> beanDefinitions) {
+        this.beanDefinitions = beanDefinitions.stream().sorted(Comparator.comparing(BeanDefinition::getId)).collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get("target", "classes");
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--output".equals(args[i]) && i + 1 < args.length) {
+                output = Paths.get(args[++i]);
+            } else {
+                throw new IllegalArgumentException(String.format("Unknown argument %s, usage: [--output directory]", args[i]));
+            }
+        }
+
+        // the classpath is always scanned, an existing bean index may be outdated
+        CompanionSettings settings = new CompanionSettings();
+        settings.setBeanIndexEnabled(false);
+
+        NativeImageConfigGenerator generator = new NativeImageConfigGenerator(CompanionContainer.computeBeanDefinitions(settings));
+        generator.write(output);
+
+        System.err.println(String.format("Native-image configuration for %d beans written to %s", generator.beanDefinitions.size(), output.toAbsolutePath()));
+    }
+
+    /**
+     * Writes the configuration files and the bean index to the given output directory
+     * @param outputDirectory the output directory, e.g. target/classes
+     * @throws IOException if the files could not be written
+     */
+    public void write(Path outputDirectory) throws IOException {
+        Path configDirectory = outputDirectory.resolve(CONFIG_DIRECTORY);
+        Files.createDirectories(configDirectory);
+        Files.write(configDirectory.resolve("reflect-config.json"), toReflectConfig().getBytes(StandardCharsets.UTF_8));
+        Files.write(configDirectory.resolve("proxy-config.json"), toProxyConfig().getBytes(StandardCharsets.UTF_8));
+        Files.write(configDirectory.resolve("resource-config.json"), toResourceConfig().getBytes(StandardCharsets.UTF_8));
+
+        Path beanIndex = outputDirectory.resolve(CompanionContainer.BEAN_INDEX);
+        Files.createDirectories(beanIndex.getParent());
+        Files.write(beanIndex, toBeanIndex().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the reflection configuration (reflect-config.json)
+     */
+    public String toReflectConfig() {
+        Map<String, ReflectEntry> entries = new TreeMap<>();
+
+        for (BeanDefinition beanDefinition : beanDefinitions) {
+            Class<?> clazz = beanDefinition.getClazz();
+
+            // the injectable constructor, the @Warmup- and the @Subscribe-methods are looked up among the public members
+            ReflectEntry beanEntry = getEntry(entries, clazz);
+            beanEntry.flags.add("queryAllPublicConstructors");
+            beanEntry.flags.add("queryAllPublicMethods");
+            if (beanDefinition.getConstructor() != null) {
+                beanEntry.executables.add(beanDefinition.getConstructor());
+            }
+            ReflectionHelper.getMethodWithAnnotation(clazz, Warmup.class).stream().sorted(Comparator.comparing(Method::getName)).forEach(beanEntry.executables::add);
+            beanEntry.executables.addAll(beanDefinition.getSubscriberMethods());
+
+            // lifecycle-methods are looked up among the declared methods of the class hierarchy
+            for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+                getEntry(entries, current).flags.add("queryAllDeclaredMethods");
+            }
+            for (Method lifecycleMethod : concat(beanDefinition.getPostConstructMethods(), beanDefinition.getPreDestroyMethods())) {
+                getEntry(entries, lifecycleMethod.getDeclaringClass()).executables.add(lifecycleMethod);
+            }
+
+            // proxies invoke the interface methods on the instances reflectively
+            if (beanDefinition.isProxied()) {
+                for (Class<?> interfaceClazz : beanDefinition.getProxyInterfaces()) {
+                    getEntry(entries, interfaceClazz).flags.add("allPublicMethods");
+                }
+            }
+        }
+
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+        for (ReflectEntry entry : entries.values()) {
+            sb.append(first ? "\n" : ",\n");
+            sb.append("  {\"name\": ").append(quote(entry.name));
+            for (String flag : entry.flags) {
+                sb.append(", ").append(quote(flag)).append(": true");
+            }
+            if (!entry.executables.isEmpty()) {
+                sb.append(", \"methods\": [");
+                boolean firstExecutable = true;
+                for (Executable executable : entry.executables) {
+                    sb.append(firstExecutable ? "" : ", ");
+                    sb.append("{\"name\": ").append(quote(executable instanceof Method ? executable.getName() : "<init>"));
+                    sb.append(", \"parameterTypes\": [");
+                    sb.append(Arrays.stream(executable.getParameterTypes()).map(type -> quote(type.getTypeName())).collect(Collectors.joining(", ")));
+                    sb.append("]}");
+                    firstExecutable = false;
+                }
+                sb.append(']');
+            }
+            sb.append('}');
+            first = false;
+        }
+        sb.append("\n]\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * @return the dynamic proxy configuration (proxy-config.json)
+     */
+    public String toProxyConfig() {
+        Set<String> interfaceLists = new TreeSet<>();
+        for (BeanDefinition beanDefinition : beanDefinitions) {
+            if (beanDefinition.isProxied()) {
+                // the same order as used by the BeanSuppliers, the proxy classes are defined per interface list
+                interfaceLists.add(Arrays.stream(beanDefinition.getProxyInterfaces()).map(interfaceClazz -> quote(interfaceClazz.getName())).collect(Collectors.joining(", ")));
+            }
+        }
+
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+        for (String interfaceList : interfaceLists) {
+            sb.append(first ? "\n" : ",\n");
+            sb.append("  {\"interfaces\": [").append(interfaceList).append("]}");
+            first = false;
+        }
+        sb.append("\n]\n");
+
+        return sb.toString();
+    }
+
+    /**
+     * @return the resource configuration (resource-config.json) including the bean index
+     */
+    public String toResourceConfig() {
+        return "{\n  \"resources\": {\"includes\": [{\"pattern\": " + quote("\\Q" + CompanionContainer.BEAN_INDEX + "\\E") + "}]}\n}\n";
+    }
+
+    /**
+     * @return the bean index, listing the binary names of the @Bean-classes
+     */
+    public String toBeanIndex() {
+        Set<String> classNames = beanDefinitions.stream().map(beanDefinition -> beanDefinition.getClazz().getName()).collect(Collectors.toCollection(TreeSet::new));
+
+        return classNames.stream().map(className -> className + "\n").collect(Collectors.joining("", "# @Bean-classes, generated by NativeImageConfigGenerator\n", ""));
+    }
+
+    private static ReflectEntry getEntry(Map<String, ReflectEntry> entries, Class<?> clazz) {
+        return entries.computeIfAbsent(clazz.getName(), ReflectEntry::new);
+    }
+
+    private static List<Method> concat(List<Method> first, List<Method> second) {
+        List<Method> methods = new ArrayList<>(first);
+        methods.addAll(second);
+
+        return methods;
+    }
+
+    /**
+     * Quotes and escapes the given string for JSON
+     */
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * A class of the reflection configuration
+     */
+    private static final class ReflectEntry {
+
+        private final String name;
+
+        private final Set<String> flags = new TreeSet<>();
+
+        private final Set<Executable> executables = new LinkedHashSet<>();
+
+        private ReflectEntry(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.darxun.companion.container;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ClassLoader that (re)loads the given classes and their nested classes from the class output directories
+ * instead of delegating to its parent. All other classes are loaded by the parent, which is the loader of the previous reload
+ * (if any), so classes reloaded earlier resolve to their latest version.
+ */
+class ReloadingClassLoader extends ClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final List<Path> classDirectories;
+
+    private final Set<String> reloadedClassNames;
+
+    ReloadingClassLoader(ClassLoader parent, List<Path> classDirectories, Set<String> reloadedClassNames) {
+        super(parent);
+        this.classDirectories = classDirectories;
+        this.reloadedClassNames = reloadedClassNames;
+    }
+
+    /**
+     * Returns true, if the given class is (re)loaded by this loader
+     * @param className the binary name of the class
+     * @return true, if the class is reloaded
+     */
+    boolean isReloaded(String className) {
+        // nested classes have to be reloaded along with their outer class
+        int nestedIndex = className.indexOf('$');
+        String outerClassName = nestedIndex < 0 ? className : className.substring(0, nestedIndex);
+
+        return reloadedClassNames.contains(className) || reloadedClassNames.contains(outerClassName);
+    }
+
+    /**
+     * Returns the class file for the given class
+     * @param className the binary name of the class
+     * @return the class file or null if it does not exist
+     */
+    Path findClassFile(String className) {
+        String relativePath = className.replace('.', '/') + ".class";
+
+        for (Path classDirectory : classDirectories) {
+            Path classFile = classDirectory.resolve(relativePath);
+            if (Files.isRegularFile(classFile)) {
+                return classFile;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isReloaded(name)) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> clazz = findLoadedClass(name);
+            if (clazz == null) {
+                clazz = findClass(name);
+            }
+
+            if (resolve) {
+                resolveClass(clazz);
+            }
+
+            return clazz;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        Path classFile = findClassFile(name);
+        if (classFile == null) {
+            throw new ClassNotFoundException(name);
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(classFile);
+            return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+}
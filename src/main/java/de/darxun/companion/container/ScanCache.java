@@ -0,0 +1,167 @@
+package de.darxun.companion.container;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.System.Logger.Level;
+
+/**
+ * On-disk cache of classpath scan results. Every scanned class file is recorded with its fingerprint (size and last modification time)
+ * and wether it is a @Bean-class, so later scans only need to stat the class files and analyze the changed ones.
+ */
+class ScanCache {
+
+    private static final System.Logger LOGGER = System.getLogger(ScanCache.class.getName());
+
+    static final String FILE_NAME = "companion-scan.cache";
+
+    /** first line of the cache file, bumped on format changes to discard old caches */
+    private static final String HEADER = "companion-scan-cache 1";
+
+    private static final String SEPARATOR = "\t";
+
+    private final Path file;
+
+    private final Map<String, Entry> entries;
+
+    private boolean modified;
+
+    private int hits;
+
+    private int misses;
+
+    private ScanCache(Path file, Map<String, Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    /**
+     * Loads the cache from the given directory, an unreadable or outdated cache is discarded
+     * @param directory directory of the cache file
+     * @return the cache
+     */
+    static ScanCache load(Path directory) {
+        Path file = directory.resolve(FILE_NAME);
+        Map<String, Entry> entries = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (HEADER.equals(reader.readLine())) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(SEPARATOR);
+                    entries.put(fields[0], new Entry(fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3]), Boolean.parseBoolean(fields[4])));
+                }
+            } else {
+                LOGGER.log(Level.INFO, "Discarding outdated scan cache {0}", file);
+            }
+        } catch (NoSuchFileException e) {
+            // first run
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, String.format("Discarding unreadable scan cache %s", file), e);
+            entries.clear();
+        }
+
+        return new ScanCache(file, entries);
+    }
+
+    /**
+     * Returns the cached result for the given class file, if the class file is unchanged
+     * @param className the binary name of the class
+     * @param classFile the class file
+     * @param attributes the current attributes of the class file
+     * @return true/false if the class is known to be a @Bean-class or not, null if the class needs to be analyzed
+     */
+    Boolean isBean(String className, Path classFile, BasicFileAttributes attributes) {
+        Entry entry = entries.get(className);
+
+        if (entry != null && entry.path.equals(classFile.toString()) && entry.size == attributes.size() && entry.lastModified == attributes.lastModifiedTime().toMillis()) {
+            hits++;
+            return entry.bean;
+        }
+
+        misses++;
+        return null;
+    }
+
+    /**
+     * Records the analysis result for the given class file
+     * @param className the binary name of the class
+     * @param classFile the class file
+     * @param attributes the attributes of the class file
+     * @param bean true, if the class is a @Bean-class
+     */
+    void put(String className, Path classFile, BasicFileAttributes attributes, boolean bean) {
+        entries.put(className, new Entry(classFile.toString(), attributes.size(), attributes.lastModifiedTime().toMillis(), bean));
+        modified = true;
+    }
+
+    /**
+     * Removes the entries of classes that no longer exist
+     * @param classNames the binary names of all scanned classes
+     */
+    void retainAll(Set<String> classNames) {
+        modified |= entries.keySet().retainAll(classNames);
+    }
+
+    /**
+     * Writes the cache, if it was modified. The cache file is replaced atomically, so concurrent runs never see a partial cache.
+     */
+    void store() {
+        if (LOGGER.isLoggable(Level.DEBUG)) {
+            LOGGER.log(Level.DEBUG, String.format("Scan cache: %d unchanged, %d analyzed class files", hits, misses));
+        }
+
+        if (!modified) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(file.getParent());
+            Path tempFile = Files.createTempFile(file.getParent(), FILE_NAME, ".tmp");
+
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+
+                for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    Entry value = entry.getValue();
+                    writer.write(String.join(SEPARATOR, entry.getKey(), value.path, Long.toString(value.size), Long.toString(value.lastModified), Boolean.toString(value.bean)));
+                    writer.newLine();
+                }
+            }
+
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            modified = false;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, String.format("Could not write scan cache %s", file), e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String path;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final boolean bean;
+
+        private Entry(String path, long size, long lastModified, boolean bean) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.bean = bean;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.BeanComputationException;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Streams the class names found by the classpath scan through class loading, the @Bean-filter and a consumer
+ * (e.g. computing the BeanDefinitions) on worker threads, while the scan is still running.
+ * The scan submits the class names of a directory as one batch, only the batches not processed yet are held,
+ * so the pipeline neither keeps the Class-Objects of the classpath nor sets of them.
+ * The thread awaiting the pipeline processes the pending batches as well, so the pipeline completes even if the
+ * executor does not run its tasks (e.g. when the container is set up on a saturated pool).
+ */
+class ScanPipeline {
+
+    private final Executor executor;
+
+    private final int maxWorkers;
+
+    private final ClassLoader classLoader;
+
+    private final Predicate<Class<?>> filter;
+
+    private final Consumer<Class<?>> consumer;
+
+    /** the training run to record the loaded classes for, may be null */
+    private final TrainingRun trainingRun;
+
+    private final Queue<List<String>> pendingBatches = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger workers = new AtomicInteger();
+
+    /** the first exception thrown while processing a batch, later batches are skipped */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /** batches submitted but not processed yet, guarded by this */
+    private int unprocessedBatches;
+
+    /** number of submitted class names, only accessed by the scanning thread */
+    private int classCount;
+
+    /**
+     * @param executor the executor of the workers
+     * @param maxWorkers the maximum number of concurrent workers besides the awaiting thread
+     * @param classLoader the class loader to load the classes with, the classes are not initialized
+     * @param filter the filter of the classes to pass to the consumer
+     * @param consumer the consumer of the filtered classes, called concurrently
+     * @param trainingRun the training run to record the loaded classes for, may be null
+     */
+    ScanPipeline(Executor executor, int maxWorkers, ClassLoader classLoader, Predicate<Class<?>> filter, Consumer<Class<?>> consumer, TrainingRun trainingRun) {
+        this.executor = executor;
+        this.maxWorkers = maxWorkers;
+        this.classLoader = classLoader;
+        this.filter = filter;
+        this.consumer = consumer;
+        this.trainingRun = trainingRun;
+    }
+
+    /**
+     * Submits the class names of a scanned directory, which are processed by a worker
+     * @param classNames the binary class names
+     */
+    void submit(List<String> classNames) {
+        if (classNames.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            unprocessedBatches++;
+        }
+        classCount += classNames.size();
+        pendingBatches.add(classNames);
+
+        int currentWorkers = workers.get();
+        if (currentWorkers < maxWorkers && workers.compareAndSet(currentWorkers, currentWorkers + 1)) {
+            executor.execute(this::work);
+        }
+    }
+
+    /**
+     * Processes the pending batches and waits for the batches processed by the workers.
+     * A batch submitted after a worker found the queue empty is processed here at the latest.
+     * @return the number of submitted class names
+     */
+    int await() {
+        drain();
+
+        synchronized (this) {
+            while (unprocessedBatches > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BeanComputationException("Interrupted while scanning the classpath", e);
+                }
+            }
+        }
+
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+
+        return classCount;
+    }
+
+    private void work() {
+        try {
+            drain();
+        } finally {
+            workers.decrementAndGet();
+        }
+    }
+
+    private void drain() {
+        for (List<String> batch = pendingBatches.poll(); batch != null; batch = pendingBatches.poll()) {
+            try {
+                if (failure.get() == null) {
+                    process(batch);
+                }
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                synchronized (this) {
+                    if (--unprocessedBatches == 0) {
+                        notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    private void process(List<String> batch) {
+        for (String className : batch) {
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+
+            if (trainingRun != null) {
+                trainingRun.record(clazz);
+            }
+            if (filter.test(clazz)) {
+                consumer.accept(clazz);
+            }
+        }
+    }
+}
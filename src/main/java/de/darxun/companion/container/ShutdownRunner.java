@@ -0,0 +1,137 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.model.beansupplier.BeanSupplier;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.lang.System.Logger.Level;
+
+/**
+ * Destroys the beans of a container by calling their @PreDestroy-methods in reverse dependency order.
+ * A bean is destroyed as soon as all beans depending on it are destroyed, so independent beans are destroyed in parallel.
+ */
+class ShutdownRunner {
+
+    private static final System.Logger LOGGER = System.getLogger(ShutdownRunner.class.getName());
+
+    private final CompanionSettings settings;
+
+    ShutdownRunner(CompanionSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Destroys the given beans
+     * @param beanContainerMap the beans to destroy
+     * @param beanDependencyMap the resolved dependencies of the beans
+     */
+    void run(Map<BeanDefinition, BeanSupplier> beanContainerMap, Map<BeanDefinition, List<BeanDefinition>> beanDependencyMap) {
+        if (LOGGER.isLoggable(Level.TRACE)) {
+            LOGGER.log(Level.TRACE, "Destroying beans");
+        }
+
+        // invert the dependencies, a bean may only be destroyed after its dependents
+        Map<BeanDefinition, List<BeanDefinition>> dependentsMap = new HashMap<>();
+        beanDependencyMap.forEach((beanDefinition, dependencies) -> {
+            for (BeanDefinition dependency : dependencies) {
+                dependentsMap.computeIfAbsent(dependency, key -> new ArrayList<>()).add(beanDefinition);
+            }
+        });
+
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "companion-shutdown");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Map<BeanDefinition, CompletableFuture<Void>> destroyFutures = new HashMap<>();
+            for (BeanDefinition beanDefinition : beanContainerMap.keySet()) {
+                getOrCreateDestroyFuture(beanDefinition, beanContainerMap, dependentsMap, destroyFutures, executor);
+            }
+
+            CompletableFuture.allOf(destroyFutures.values().toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the future that completes as soon as the given bean is destroyed.
+     * Destroying starts as soon as all beans depending on the given bean are destroyed.
+     */
+    private CompletableFuture<Void> getOrCreateDestroyFuture(BeanDefinition beanDefinition, Map<BeanDefinition, BeanSupplier> beanContainerMap,
+                                                             Map<BeanDefinition, List<BeanDefinition>> dependentsMap,
+                                                             Map<BeanDefinition, CompletableFuture<Void>> destroyFutures, ExecutorService executor) {
+        CompletableFuture<Void> destroyFuture = destroyFutures.get(beanDefinition);
+        if (destroyFuture != null) {
+            return destroyFuture;
+        }
+
+        List<BeanDefinition> dependents = dependentsMap.getOrDefault(beanDefinition, List.of());
+        CompletableFuture<?>[] dependentFutures = new CompletableFuture[dependents.size()];
+        for (int i = 0; i < dependents.size(); i++) {
+            dependentFutures[i] = getOrCreateDestroyFuture(dependents.get(i), beanContainerMap, dependentsMap, destroyFutures, executor);
+        }
+
+        BeanSupplier beanSupplier = beanContainerMap.get(beanDefinition);
+        final long timeoutMillis = settings.getDestroyTimeout().toMillis();
+
+        destroyFuture = CompletableFuture.allOf(dependentFutures)
+                // failures of dependents are logged already and must not prevent this bean from being destroyed
+                .handle((result, e) -> null)
+                .thenCompose(v -> {
+                    if (beanSupplier == null || beanDefinition.getPreDestroyMethods().isEmpty()) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+
+                    return CompletableFuture.runAsync(() -> destroy(beanDefinition, beanSupplier.getInstances()), executor)
+                            .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        LOGGER.log(Level.WARNING, "Destroying bean {0} timed out after {1} ms", beanDefinition.getId(), timeoutMillis);
+                    } else {
+                        LOGGER.log(Level.WARNING, String.format("Error destroying bean %s", beanDefinition.getId()), cause);
+                    }
+
+                    return null;
+                });
+
+        destroyFutures.put(beanDefinition, destroyFuture);
+
+        return destroyFuture;
+    }
+
+    /**
+     * Calls the @PreDestroy-methods of the given instances
+     * @param beanDefinition the BeanDefinition of the instances
+     * @param instances the instances
+     */
+    private static void destroy(BeanDefinition beanDefinition, Collection<Object> instances) {
+        for (Object instance : instances) {
+            for (Method preDestroyMethod : beanDefinition.getPreDestroyMethods()) {
+                try {
+                    preDestroyMethod.invoke(instance);
+                } catch (InvocationTargetException e) {
+                    LOGGER.log(Level.WARNING, String.format("@PreDestroy-method %s of bean %s failed", preDestroyMethod, beanDefinition.getId()), e.getCause());
+                } catch (IllegalAccessException e) {
+                    LOGGER.log(Level.WARNING, String.format("@PreDestroy-method %s of bean %s is not accessible", preDestroyMethod, beanDefinition.getId()), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.container.model.beansupplier.TaskContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExecutorService carrying the task-scope of the submitting thread into the submitted tasks (see CompanionContainer.taskScoped).
+ * Tasks submitted outside of a task-scope are run in a task-scope of their own.
+ */
+public class TaskScopeExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    TaskScopeExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("command may not be null");
+        }
+
+        TaskContext current = TaskContext.current();
+        ScopedTask scopedTask = new ScopedTask(command, current == null ? TaskContext.open() : current.retain());
+
+        try {
+            delegate.execute(scopedTask);
+        } catch (RejectedExecutionException e) {
+            scopedTask.taskContext.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pendingTasks = new ArrayList<>();
+
+        for (Runnable pendingTask : delegate.shutdownNow()) {
+            if (pendingTask instanceof ScopedTask) {
+                // the tasks are never run, so they release their scope here
+                ScopedTask scopedTask = (ScopedTask) pendingTask;
+                scopedTask.taskContext.release();
+                pendingTasks.add(scopedTask.task);
+            } else {
+                pendingTasks.add(pendingTask);
+            }
+        }
+
+        return pendingTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Runs the task bound to the task-scope it was submitted in and releases its reference afterwards
+     */
+    private static final class ScopedTask implements Runnable {
+
+        private final Runnable task;
+
+        private final TaskContext taskContext;
+
+        private ScopedTask(Runnable task, TaskContext taskContext) {
+            this.task = task;
+            this.taskContext = taskContext;
+        }
+
+        @Override
+        public void run() {
+            try {
+                taskContext.run(task);
+            } finally {
+                taskContext.release();
+            }
+        }
+    }
+}
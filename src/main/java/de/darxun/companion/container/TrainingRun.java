@@ -0,0 +1,113 @@
+package de.darxun.companion.container;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.lang.System.Logger.Level;
+
+/**
+ * Records the classes loaded while initializing a container and writes them as class list for an AppCDS archive,
+ * along with a launch recipe to dump and use the archive (see CompanionSettings.setTrainingRunDirectory).
+ */
+class TrainingRun {
+
+    private static final System.Logger LOGGER = System.getLogger(TrainingRun.class.getName());
+
+    static final String CLASS_LIST_FILE = "companion.classlist";
+
+    static final String RECIPE_FILE = "companion-cds.sh";
+
+    static final String ARCHIVE_FILE = "companion.jsa";
+
+    private final Path outputDirectory;
+
+    /** names of the recorded classes in the class list format (e.g. java/lang/Object), in load order */
+    private final Set<String> classNames = new LinkedHashSet<>();
+
+    TrainingRun(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Records the given class along with its superclasses and interfaces, which have to be archived as well
+     * @param clazz the class
+     */
+    synchronized void record(Class<?> clazz) {
+        while (clazz != null && clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+
+        // proxies and hidden classes (e.g. lambdas) are generated at runtime and cannot be archived
+        if (clazz == null || clazz.isPrimitive() || Proxy.isProxyClass(clazz) || clazz.getName().contains("/")) {
+            return;
+        }
+
+        if (classNames.add(clazz.getName().replace('.', '/'))) {
+            record(clazz.getSuperclass());
+            for (Class<?> interfaceClazz : clazz.getInterfaces()) {
+                record(interfaceClazz);
+            }
+        }
+    }
+
+    /**
+     * @param classes the classes to record
+     */
+    void record(Iterable<? extends Class<?>> classes) {
+        for (Class<?> clazz : classes) {
+            record(clazz);
+        }
+    }
+
+    /**
+     * Writes the class list and the launch recipe to the output directory
+     */
+    synchronized void write() {
+        try {
+            Files.createDirectories(outputDirectory);
+
+            Path classList = outputDirectory.resolve(CLASS_LIST_FILE).toAbsolutePath();
+            Files.write(classList, classNames, StandardCharsets.UTF_8);
+
+            Path recipe = outputDirectory.resolve(RECIPE_FILE).toAbsolutePath();
+            Files.write(recipe, createRecipe(classList, outputDirectory.resolve(ARCHIVE_FILE).toAbsolutePath()), StandardCharsets.UTF_8);
+            recipe.toFile().setExecutable(true);
+
+            LOGGER.log(Level.INFO, "Training run recorded {0} classes, see {1} to create the CDS archive", classNames.size(), recipe);
+        } catch (IOException e) {
+            throw new UncheckedIOException("The training run could not be written", e);
+        }
+    }
+
+    private static List<String> createRecipe(Path classList, Path archive) {
+        String classpath = System.getProperty("java.class.path");
+        String command = System.getProperty("sun.java.command", "");
+        String mainClass = command.isEmpty() ? "<main-class>" : command.split(" ")[0];
+
+        List<String> recipe = new ArrayList<>();
+        recipe.add("#!/bin/sh");
+        recipe.add("# Launch recipe for an AppCDS archive of the classes recorded by a companion-di training run.");
+        recipe.add("# The JVM archives classes loaded from jar files only, so package the application before dumping the archive.");
+        recipe.add("set -e");
+        recipe.add("CLASSPATH='" + classpath + "'");
+        recipe.add("");
+        recipe.add("# 1. dump the archive from the recorded class list (once per build)");
+        recipe.add("java -Xshare:dump -XX:SharedClassListFile='" + classList + "' -XX:SharedArchiveFile='" + archive + "' -cp \"$CLASSPATH\"");
+        recipe.add("");
+        recipe.add("# 2. start with the classes mapped from the archive");
+        recipe.add("# java -XX:SharedArchiveFile='" + archive + "' -cp \"$CLASSPATH\" " + mainClass);
+        recipe.add("");
+        recipe.add("# Alternatively (JDK 13+) a dynamic archive of all classes loaded by a complete run can be recorded:");
+        recipe.add("# java -XX:ArchiveClassesAtExit='" + archive + "' -cp \"$CLASSPATH\" " + mainClass);
+
+        return recipe;
+    }
+}
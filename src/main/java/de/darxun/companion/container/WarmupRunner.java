@@ -0,0 +1,167 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.BeanCreationException;
+import de.darxun.companion.api.Warmup;
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.model.beansupplier.BeanSupplier;
+import de.darxun.companion.container.util.ReflectionHelper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static java.lang.System.Logger.Level;
+
+/**
+ * Runs the warm-up of a container by calling all @Warmup-methods and warm-up callbacks repeatedly and in parallel
+ */
+class WarmupRunner {
+
+    private static final System.Logger LOGGER = System.getLogger(WarmupRunner.class.getName());
+
+    private final CompanionContainer container;
+
+    private final CompanionSettings settings;
+
+    WarmupRunner(CompanionContainer container, CompanionSettings settings) {
+        this.container = container;
+        this.settings = settings;
+    }
+
+    /**
+     * Runs the warm-up for the given beans
+     * @param beanContainerMap the beans to warm up
+     * @return the time spent warming up
+     */
+    Duration run(Map<BeanDefinition, BeanSupplier> beanContainerMap) {
+        List<WarmupTask> tasks = new ArrayList<>();
+
+        beanContainerMap.forEach((beanDefinition, beanSupplier) -> {
+            for (Method method : ReflectionHelper.getMethodWithAnnotation(beanDefinition.getClazz(), Warmup.class)) {
+                if (method.getParameterCount() != 0) {
+                    throw new BeanCreationException(String.format("The @Warmup-method (%s) of bean %s must not have parameters", method, beanDefinition.getId()));
+                }
+
+                int iterations = method.getAnnotation(Warmup.class).iterations();
+                tasks.add(new WarmupTask(beanDefinition, beanSupplier, method, iterations < 1 ? settings.getWarmupIterations() : iterations));
+            }
+        });
+
+        for (Consumer<CompanionContainer> warmupCallback : settings.getWarmupCallbacks()) {
+            tasks.add(new WarmupTask(warmupCallback, settings.getWarmupIterations()));
+        }
+
+        if (tasks.isEmpty()) {
+            return Duration.ZERO;
+        }
+
+        if (LOGGER.isLoggable(Level.TRACE)) {
+            LOGGER.log(Level.TRACE, "Warming up {0} methods and callbacks", tasks.size());
+        }
+
+        final int parallelism = settings.getWarmupParallelism();
+        final long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "companion-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<?>> futures = new ArrayList<>(parallelism);
+            for (int i = 0; i < parallelism; i++) {
+                final int worker = i;
+                futures.add(executor.submit(() -> {
+                    for (WarmupTask task : tasks) {
+                        // every worker takes its share of the iterations
+                        int iterations = task.iterations / parallelism + (worker < task.iterations % parallelism ? 1 : 0);
+                        task.run(iterations);
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeanCreationException("Interrupted while warming up", e);
+        } catch (ExecutionException e) {
+            throw new BeanCreationException("Error while warming up", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, "Warm-up of {0} methods and callbacks took {1} ms", tasks.size(), duration.toMillis());
+        }
+
+        return duration;
+    }
+
+    /**
+     * A single @Warmup-method or warm-up callback
+     */
+    private class WarmupTask {
+
+        private final BeanDefinition beanDefinition;
+
+        private final BeanSupplier beanSupplier;
+
+        private final Method method;
+
+        private final Consumer<CompanionContainer> warmupCallback;
+
+        private final int iterations;
+
+        WarmupTask(BeanDefinition beanDefinition, BeanSupplier beanSupplier, Method method, int iterations) {
+            this.beanDefinition = beanDefinition;
+            this.beanSupplier = beanSupplier;
+            this.method = method;
+            this.warmupCallback = null;
+            this.iterations = iterations;
+        }
+
+        WarmupTask(Consumer<CompanionContainer> warmupCallback, int iterations) {
+            this.beanDefinition = null;
+            this.beanSupplier = null;
+            this.method = null;
+            this.warmupCallback = warmupCallback;
+            this.iterations = iterations;
+        }
+
+        void run(int iterations) throws ReflectiveOperationException {
+            if (warmupCallback != null) {
+                for (int i = 0; i < iterations; i++) {
+                    warmupCallback.accept(container);
+                }
+                return;
+            }
+
+            Object bean = beanSupplier.get();
+            // proxied beans (e.g. thread-scope beans) only offer the methods of their interfaces, which declare the method (see computeBeanDefinition)
+            Method target = method.getDeclaringClass().isInstance(bean) ? method : bean.getClass().getMethod(method.getName());
+
+            try {
+                for (int i = 0; i < iterations; i++) {
+                    target.invoke(bean);
+                }
+            } catch (InvocationTargetException e) {
+                throw new BeanCreationException(String.format("The @Warmup-method (%s) of bean %s failed", method, beanDefinition.getId()), e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.darxun.companion.container.footprint;
+
+import de.darxun.companion.container.model.BeanScope;
+
+/**
+ * The heap footprint of the instances of a bean
+ */
+public class BeanFootprint {
+
+    private final String id;
+
+    private final BeanScope scope;
+
+    private final int instanceCount;
+
+    private final long shallowBytes;
+
+    private final long reachableBytes;
+
+    private final long retainedBytes;
+
+    BeanFootprint(String id, BeanScope scope, int instanceCount, long shallowBytes, long reachableBytes, long retainedBytes) {
+        this.id = id;
+        this.scope = scope;
+        this.instanceCount = instanceCount;
+        this.shallowBytes = shallowBytes;
+        this.reachableBytes = reachableBytes;
+        this.retainedBytes = retainedBytes;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public BeanScope getScope() {
+        return scope;
+    }
+
+    /**
+     * @return the number of instances, e.g. the instances of all live threads for thread-scope beans
+     */
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    /**
+     * @return the size (in bytes) of the instances themselves
+     */
+    public long getShallowBytes() {
+        return shallowBytes;
+    }
+
+    /**
+     * @return the size (in bytes) of all objects reachable from the instances, excluding other beans
+     */
+    public long getReachableBytes() {
+        return reachableBytes;
+    }
+
+    /**
+     * @return the size (in bytes) of the objects reachable from the instances of this bean only, i.e. freed along with the instances
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+}
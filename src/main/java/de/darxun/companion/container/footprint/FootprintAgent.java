@@ -0,0 +1,27 @@
+package de.darxun.companion.container.footprint;
+
+import java.lang.instrument.Instrumentation;
+
+/**
+ * Java agent providing the Instrumentation to measure the exact object sizes of the footprint report.
+ * Started via -javaagent:companion-di.jar (or attached at runtime), without the agent the object sizes are estimated.
+ */
+public class FootprintAgent {
+
+    private static volatile Instrumentation instrumentation;
+
+    public static void premain(String arguments, Instrumentation instrumentation) {
+        FootprintAgent.instrumentation = instrumentation;
+    }
+
+    public static void agentmain(String arguments, Instrumentation instrumentation) {
+        FootprintAgent.instrumentation = instrumentation;
+    }
+
+    /**
+     * @return the Instrumentation or null, if the agent is not attached
+     */
+    static Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+}
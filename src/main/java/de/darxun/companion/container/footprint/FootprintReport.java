@@ -0,0 +1,152 @@
+package de.darxun.companion.container.footprint;
+
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.model.BeanScope;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Retained-memory footprint of the beans of a container (see CompanionContainer.exportFootprint).
+ * Objects reachable from the instances of more than one bean are shared and not retained by any of them.
+ */
+public class FootprintReport {
+
+    /** marks objects reachable from more than one bean */
+    private static final BeanDefinition SHARED = new BeanDefinition(Object.class, "shared");
+
+    private final List<BeanFootprint> beanFootprints;
+
+    private final Map<BeanScope, Long> retainedBytesByScope;
+
+    private final long sharedBytes;
+
+    private final boolean exact;
+
+    private FootprintReport(List<BeanFootprint> beanFootprints, Map<BeanScope, Long> retainedBytesByScope, long sharedBytes, boolean exact) {
+        this.beanFootprints = Collections.unmodifiableList(beanFootprints);
+        this.retainedBytesByScope = Collections.unmodifiableMap(retainedBytesByScope);
+        this.sharedBytes = sharedBytes;
+        this.exact = exact;
+    }
+
+    /**
+     * Walks the objects reachable from the given instances and computes the footprint of every bean
+     * @param beanInstances the instances by BeanDefinition
+     * @return the report
+     */
+    public static FootprintReport of(Map<BeanDefinition, Collection<Object>> beanInstances) {
+        ObjectSizes objectSizes = new ObjectSizes(FootprintAgent.getInstrumentation());
+
+        Set<Object> allInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        beanInstances.values().forEach(allInstances::addAll);
+        HeapWalker heapWalker = new HeapWalker(objectSizes, allInstances);
+
+        Map<Object, BeanDefinition> owners = new IdentityHashMap<>();
+        Map<Object, Long> sizes = new IdentityHashMap<>();
+        Map<BeanDefinition, long[]> totals = new IdentityHashMap<>();
+
+        beanInstances.forEach((beanDefinition, instances) -> {
+            Set<Object> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+            roots.addAll(instances);
+
+            // shallow and reachable bytes
+            long[] total = new long[2];
+            heapWalker.walk(roots, (object, size) -> {
+                if (roots.contains(object)) {
+                    total[0] += size;
+                }
+                total[1] += size;
+
+                BeanDefinition owner = owners.putIfAbsent(object, beanDefinition);
+                if (owner == null) {
+                    sizes.put(object, size);
+                } else if (owner != beanDefinition) {
+                    owners.put(object, SHARED);
+                }
+            });
+            totals.put(beanDefinition, total);
+        });
+
+        Map<BeanDefinition, Long> retainedBytes = new IdentityHashMap<>();
+        long sharedBytes = 0;
+        for (Map.Entry<Object, BeanDefinition> entry : owners.entrySet()) {
+            long size = sizes.get(entry.getKey());
+            if (entry.getValue() == SHARED) {
+                sharedBytes += size;
+            } else {
+                retainedBytes.merge(entry.getValue(), size, Long::sum);
+            }
+        }
+
+        List<BeanFootprint> beanFootprints = new ArrayList<>();
+        Map<BeanScope, Long> retainedBytesByScope = new EnumMap<>(BeanScope.class);
+        beanInstances.forEach((beanDefinition, instances) -> {
+            long[] total = totals.get(beanDefinition);
+            long retained = retainedBytes.getOrDefault(beanDefinition, 0L);
+
+            beanFootprints.add(new BeanFootprint(beanDefinition.getId(), beanDefinition.getScope(), instances.size(), total[0], total[1], retained));
+            retainedBytesByScope.merge(beanDefinition.getScope(), retained, Long::sum);
+        });
+        beanFootprints.sort(Comparator.comparingLong(BeanFootprint::getRetainedBytes).reversed().thenComparing(BeanFootprint::getId));
+
+        return new FootprintReport(beanFootprints, retainedBytesByScope, sharedBytes, objectSizes.isExact());
+    }
+
+    /**
+     * @return the footprints of all beans, the ones retaining the most bytes first
+     */
+    public List<BeanFootprint> getBeanFootprints() {
+        return beanFootprints;
+    }
+
+    /**
+     * @param beanId the beanId
+     * @return the footprint of the specified bean or null, if there is no such bean
+     */
+    public BeanFootprint getBeanFootprint(String beanId) {
+        return beanFootprints.stream().filter(beanFootprint -> beanFootprint.getId().equals(beanId)).findFirst().orElse(null);
+    }
+
+    /**
+     * @return the retained bytes of all beans by scope
+     */
+    public Map<BeanScope, Long> getRetainedBytesByScope() {
+        return retainedBytesByScope;
+    }
+
+    /**
+     * @return the size (in bytes) of the objects reachable from more than one bean
+     */
+    public long getSharedBytes() {
+        return sharedBytes;
+    }
+
+    /**
+     * @return true, if the sizes are measured via the FootprintAgent, false if they are estimated from the field layout
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("Footprint of %d beans (%s sizes)%n", beanFootprints.size(), exact ? "measured" : "estimated"));
+        sb.append(String.format("%-40s %-10s %9s %12s %12s %12s%n", "bean", "scope", "instances", "shallow", "reachable", "retained"));
+        for (BeanFootprint beanFootprint : beanFootprints) {
+            sb.append(String.format("%-40s %-10s %9d %12d %12d %12d%n", beanFootprint.getId(), beanFootprint.getScope(), beanFootprint.getInstanceCount(),
+                    beanFootprint.getShallowBytes(), beanFootprint.getReachableBytes(), beanFootprint.getRetainedBytes()));
+        }
+        retainedBytesByScope.forEach((scope, bytes) -> sb.append(String.format("%-40s %-10s %9s %12s %12s %12d%n", "", scope, "", "", "", bytes)));
+        sb.append(String.format("shared between beans: %d bytes%n", sharedBytes));
+
+        return sb.toString();
+    }
+}
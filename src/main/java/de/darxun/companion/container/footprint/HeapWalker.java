@@ -0,0 +1,133 @@
+package de.darxun.companion.container.footprint;
+
+import de.darxun.companion.BeanContainer;
+import de.darxun.companion.container.model.beansupplier.BeanSupplier;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Walks the object graph reachable from the instances of a bean via the (instance) fields of the objects.
+ * The walk stops at the instances of other beans, which are reported on their own, and at objects shared by the whole runtime
+ * (classes, class loaders, threads, enums, references, proxies and the container). The fields of JDK objects are never opened
+ * (which would warn about illegal reflective access and depend on the JDK version), they are walked via their elements
+ * (collections, maps) and the size of their internal storage is estimated.
+ */
+class HeapWalker {
+
+    private static final ClassValue<Field[]> REFERENCE_FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> clazz) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive() && field.trySetAccessible()) {
+                        fields.add(field);
+                    }
+                }
+            }
+
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    private final ObjectSizes objectSizes;
+
+    /** the instances of all beans */
+    private final Set<Object> beanInstances;
+
+    HeapWalker(ObjectSizes objectSizes, Set<Object> beanInstances) {
+        this.objectSizes = objectSizes;
+        this.beanInstances = beanInstances;
+    }
+
+    /**
+     * Walks the objects reachable from the given roots, visiting every object once along with its size
+     * @param roots the instances of a bean
+     * @param visitor called with every reachable object and its size in bytes
+     */
+    void walk(Collection<Object> roots, ObjLongConsumer<Object> visitor) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> pending = new ArrayDeque<>(roots);
+        visited.addAll(roots);
+
+        while (!pending.isEmpty()) {
+            Object object = pending.poll();
+            Class<?> clazz = object.getClass();
+
+            long size = objectSizes.getShallowSize(object);
+            boolean walkFields = !isJdkClass(clazz);
+            if (!walkFields) {
+                size += ObjectSizes.getInternalSize(object);
+            }
+            visitor.accept(object, size);
+
+            List<Object> children = new ArrayList<>();
+            if (clazz.isArray()) {
+                if (!clazz.getComponentType().isPrimitive()) {
+                    children.addAll(Arrays.asList((Object[]) object));
+                }
+            } else if (walkFields) {
+                for (Field field : REFERENCE_FIELDS.get(clazz)) {
+                    try {
+                        children.add(field.get(object));
+                    } catch (IllegalAccessException e) {
+                        // not accessible after all, the field is skipped
+                    }
+                }
+            } else {
+                addElements(object, children);
+            }
+
+            for (Object child : children) {
+                if (child != null && !isBoundary(child) && visited.add(child)) {
+                    pending.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if the given class is loaded by the bootstrap or the platform class loader, i.e. is part of the JDK
+     */
+    private static boolean isJdkClass(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+
+        return classLoader == null || classLoader == ClassLoader.getPlatformClassLoader();
+    }
+
+    private boolean isBoundary(Object object) {
+        return beanInstances.contains(object) || object instanceof Class || object instanceof ClassLoader || object instanceof Thread
+                || object instanceof Enum || object instanceof Reference || object instanceof BeanSupplier || object instanceof BeanContainer
+                || Proxy.isProxyClass(object.getClass());
+    }
+
+    private static void addElements(Object object, List<Object> children) {
+        try {
+            if (object instanceof Collection) {
+                children.addAll((Collection<?>) object);
+            } else if (object instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                    children.add(entry.getKey());
+                    children.add(entry.getValue());
+                }
+            }
+        } catch (ConcurrentModificationException | UnsupportedOperationException e) {
+            // the elements of collections modified concurrently are skipped
+        }
+    }
+}
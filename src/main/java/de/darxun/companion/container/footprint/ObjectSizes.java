@@ -0,0 +1,115 @@
+package de.darxun.companion.container.footprint;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Determines the shallow size of objects, measured via the Instrumentation of the FootprintAgent if attached
+ * or estimated from the field layout of the classes otherwise (HotSpot layout, compressed references below 32 GB of heap).
+ */
+final class ObjectSizes {
+
+    private static final boolean COMPRESSED_REFERENCES = Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+
+    private static final int REFERENCE_SIZE = COMPRESSED_REFERENCES ? 4 : 8;
+
+    private static final int OBJECT_HEADER_SIZE = COMPRESSED_REFERENCES ? 12 : 16;
+
+    private static final int ARRAY_HEADER_SIZE = COMPRESSED_REFERENCES ? 16 : 24;
+
+    /** the estimated size of a node of a HashMap (header, hash and three references) */
+    private static final int MAP_NODE_SIZE = align(OBJECT_HEADER_SIZE + 4 + 3 * REFERENCE_SIZE);
+
+    private final Instrumentation instrumentation;
+
+    private final ClassValue<Long> instanceSizes = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> clazz) {
+            long size = OBJECT_HEADER_SIZE;
+            for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += getFieldSize(field.getType());
+                    }
+                }
+            }
+
+            return align(size);
+        }
+    };
+
+    ObjectSizes(Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * @return true, if the sizes are measured, false if they are estimated
+     */
+    boolean isExact() {
+        return instrumentation != null;
+    }
+
+    /**
+     * @param object the object
+     * @return the shallow size of the object in bytes
+     */
+    long getShallowSize(Object object) {
+        if (instrumentation != null) {
+            return instrumentation.getObjectSize(object);
+        }
+
+        Class<?> clazz = object.getClass();
+        if (clazz.isArray()) {
+            return align(ARRAY_HEADER_SIZE + (long) Array.getLength(object) * getFieldSize(clazz.getComponentType()));
+        }
+
+        return instanceSizes.get(clazz);
+    }
+
+    /**
+     * Estimates the size of the internal storage of JDK objects, whose fields cannot be walked reflectively
+     * (the backing array of Strings and collections and the nodes of maps)
+     * @param object the object
+     * @return the estimated size of the internal storage in bytes
+     */
+    static long getInternalSize(Object object) {
+        if (object instanceof String) {
+            // compact strings store latin-1 characters in a byte each
+            return align(ARRAY_HEADER_SIZE + ((String) object).length());
+        } else if (object instanceof Collection) {
+            return align(ARRAY_HEADER_SIZE + (long) ((Collection<?>) object).size() * REFERENCE_SIZE);
+        } else if (object instanceof Map) {
+            int size = ((Map<?, ?>) object).size();
+            int tableSize = Integer.highestOneBit(Math.max(1, (int) (size / 0.75f)) * 2 - 1);
+            return align(ARRAY_HEADER_SIZE + (long) tableSize * REFERENCE_SIZE) + (long) size * MAP_NODE_SIZE;
+        }
+
+        return 0;
+    }
+
+    private static int getFieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+
+        return REFERENCE_SIZE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+}
@@ -0,0 +1,214 @@
+package de.darxun.companion.container.graph;
+
+import de.darxun.companion.container.model.BeanDefinition;
+
+import java.util.*;
+
+/**
+ * The resolved bean graph of a container.
+ * Every node is annotated with the time spent creating the bean, which allows to compute the critical path,
+ * i.e. the chain of dependencies with the longest accumulated creation time that bounds the startup of the container.
+ * Only the creation of singletons is measured, the instances of the other scopes are created on use and count as 0.
+ */
+public class BeanGraph {
+
+    private final List<BeanGraphNode> nodes;
+
+    private BeanGraph(List<BeanGraphNode> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * Creates the graph for the given BeanDefinitions
+     * @param beanDefinitions the BeanDefinitions
+     * @param beanDependencyMap the resolved dependencies of the BeanDefinitions
+     * @param beanCreationTimeMap the time (in nanos) spent creating the BeanDefinitions, BeanDefinitions without time are not measured
+     * @return the graph
+     */
+    public static BeanGraph of(Collection<BeanDefinition> beanDefinitions, Map<BeanDefinition, List<BeanDefinition>> beanDependencyMap,
+                               Map<BeanDefinition, Long> beanCreationTimeMap) {
+        Map<BeanDefinition, BeanGraphNode> nodeMap = new LinkedHashMap<>();
+
+        List<BeanDefinition> sortedBeanDefinitions = new ArrayList<>(beanDefinitions);
+        sortedBeanDefinitions.sort(Comparator.comparing(BeanDefinition::getId));
+
+        for (BeanDefinition beanDefinition : sortedBeanDefinitions) {
+            Long creationNanos = beanCreationTimeMap.get(beanDefinition);
+            nodeMap.put(beanDefinition, new BeanGraphNode(beanDefinition.getId(), beanDefinition.getClazz(), beanDefinition.getScope(),
+                    creationNanos != null ? creationNanos : 0L, creationNanos != null));
+        }
+
+        nodeMap.forEach((beanDefinition, node) -> {
+            for (BeanDefinition dependency : beanDependencyMap.getOrDefault(beanDefinition, List.of())) {
+                BeanGraphNode dependencyNode = nodeMap.get(dependency);
+                if (dependencyNode != null) {
+                    node.addDependency(dependencyNode);
+                }
+            }
+        });
+
+        return new BeanGraph(new ArrayList<>(nodeMap.values()));
+    }
+
+    /**
+     * @return all beans of the graph
+     */
+    public List<BeanGraphNode> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Returns the critical path, i.e. the chain of dependencies with the longest accumulated creation time.
+     * The path is ordered by creation, so it starts with the bean that is created first.
+     * @return the critical path
+     */
+    public List<BeanGraphNode> getCriticalPath() {
+        Map<BeanGraphNode, Long> pathNanos = new HashMap<>();
+        Map<BeanGraphNode, BeanGraphNode> successors = new HashMap<>();
+
+        BeanGraphNode start = null;
+        for (BeanGraphNode node : nodes) {
+            long nanos = computePathNanos(node, pathNanos, successors);
+            if (start == null || nanos > pathNanos.get(start)) {
+                start = node;
+            }
+        }
+
+        LinkedList<BeanGraphNode> criticalPath = new LinkedList<>();
+        for (BeanGraphNode node = start; node != null; node = successors.get(node)) {
+            criticalPath.addFirst(node);
+        }
+
+        return criticalPath;
+    }
+
+    /**
+     * Returns the accumulated creation time of the given node and its most expensive chain of dependencies
+     */
+    private static long computePathNanos(BeanGraphNode node, Map<BeanGraphNode, Long> pathNanos, Map<BeanGraphNode, BeanGraphNode> successors) {
+        Long nanos = pathNanos.get(node);
+        if (nanos != null) {
+            return nanos;
+        }
+
+        long maxDependencyNanos = 0;
+        for (BeanGraphNode dependency : node.getDependencies()) {
+            long dependencyNanos = computePathNanos(dependency, pathNanos, successors);
+            if (!successors.containsKey(node) || dependencyNanos > maxDependencyNanos) {
+                maxDependencyNanos = dependencyNanos;
+                successors.put(node, dependency);
+            }
+        }
+
+        long result = node.getCreationNanos() + maxDependencyNanos;
+        pathNanos.put(node, result);
+
+        return result;
+    }
+
+    /**
+     * Returns the graph in the DOT-format (graphviz), nodes on the critical path are highlighted
+     * @return the graph as DOT
+     */
+    public String toDot() {
+        Set<BeanGraphNode> criticalPath = new HashSet<>(getCriticalPath());
+
+        StringBuilder sb = new StringBuilder("digraph beans {\n");
+        sb.append("  node [shape=box];\n");
+
+        for (BeanGraphNode node : nodes) {
+            sb.append("  ").append(quote(node.getId()))
+                    .append(" [label=").append(quote(String.format("%s\n%s\n%s\n%s", node.getId(), node.getClazz().getName(), node.getScope(), formatCreationTime(node))));
+            if (criticalPath.contains(node)) {
+                sb.append(", color=red");
+            }
+            if (!node.isMeasured()) {
+                sb.append(", style=dashed");
+            }
+            sb.append("];\n");
+        }
+
+        for (BeanGraphNode node : nodes) {
+            for (BeanGraphNode dependency : node.getDependencies()) {
+                sb.append("  ").append(quote(node.getId())).append(" -> ").append(quote(dependency.getId()));
+                if (criticalPath.contains(node) && criticalPath.contains(dependency)) {
+                    sb.append(" [color=red]");
+                }
+                sb.append(";\n");
+            }
+        }
+
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the graph in the JSON-format including the critical path
+     * @return the graph as JSON
+     */
+    public String toJson() {
+        List<BeanGraphNode> criticalPath = getCriticalPath();
+
+        StringBuilder sb = new StringBuilder("{\n  \"nodes\": [");
+        for (int i = 0; i < nodes.size(); i++) {
+            BeanGraphNode node = nodes.get(i);
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    {\"id\": ").append(quote(node.getId()))
+                    .append(", \"class\": ").append(quote(node.getClazz().getName()))
+                    .append(", \"scope\": ").append(quote(node.getScope().name()))
+                    .append(", \"creationNanos\": ").append(node.isMeasured() ? String.valueOf(node.getCreationNanos()) : "null")
+                    .append('}');
+        }
+        sb.append("\n  ],\n  \"edges\": [");
+
+        boolean first = true;
+        for (BeanGraphNode node : nodes) {
+            for (BeanGraphNode dependency : node.getDependencies()) {
+                sb.append(first ? "\n" : ",\n");
+                sb.append("    {\"from\": ").append(quote(node.getId())).append(", \"to\": ").append(quote(dependency.getId())).append('}');
+                first = false;
+            }
+        }
+        sb.append("\n  ],\n  \"criticalPath\": {\"nanos\": ");
+        sb.append(criticalPath.stream().mapToLong(BeanGraphNode::getCreationNanos).sum());
+        sb.append(", \"ids\": [");
+        for (int i = 0; i < criticalPath.size(); i++) {
+            sb.append(i == 0 ? "" : ", ").append(quote(criticalPath.get(i).getId()));
+        }
+        sb.append("]}\n}\n");
+
+        return sb.toString();
+    }
+
+    private static String formatCreationTime(BeanGraphNode node) {
+        return node.isMeasured() ? String.format("%.3f ms", node.getCreationNanos() / 1_000_000.0) : "not measured";
+    }
+
+    /**
+     * Quotes and escapes the given string for DOT and JSON
+     */
+    private static String quote(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+}
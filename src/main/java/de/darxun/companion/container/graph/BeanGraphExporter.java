@@ -0,0 +1,74 @@
+package de.darxun.companion.container.graph;
+
+import de.darxun.companion.container.CompanionContainer;
+import de.darxun.companion.container.CompanionSettings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Command line entry point that initializes a container on the current classpath and exports its bean graph.
+ * <p>
+ * Usage: {@code java -cp <classpath> de.darxun.companion.container.graph.BeanGraphExporter [--format dot|json] [--output file]}
+ */
+public class BeanGraphExporter {
+
+    public static void main(String[] args) throws IOException {
+        String format = "dot";
+        Path output = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--format":
+                    format = requireValue(args, ++i);
+                    break;
+                case "--output":
+                    output = Paths.get(requireValue(args, ++i));
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown argument %s, usage: [--format dot|json] [--output file]", args[i]));
+            }
+        }
+
+        CompanionSettings settings = new CompanionSettings();
+        settings.setWarmupEnabled(false);
+
+        BeanGraph graph;
+        try (CompanionContainer container = CompanionContainer.setup(settings)) {
+            graph = container.exportGraph();
+        }
+
+        String exported;
+        if ("dot".equals(format)) {
+            exported = graph.toDot();
+        } else if ("json".equals(format)) {
+            exported = graph.toJson();
+        } else {
+            throw new IllegalArgumentException(String.format("Unknown format %s, expected dot or json", format));
+        }
+
+        if (output == null) {
+            System.out.print(exported);
+        } else {
+            Files.write(output, exported.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<BeanGraphNode> criticalPath = graph.getCriticalPath();
+        System.err.println(String.format("Critical path (%.3f ms): %s",
+                criticalPath.stream().mapToLong(BeanGraphNode::getCreationNanos).sum() / 1_000_000.0,
+                criticalPath.stream().map(BeanGraphNode::getId).collect(Collectors.joining(" -> "))));
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(String.format("Missing value for argument %s", args[index - 1]));
+        }
+
+        return args[index];
+    }
+}
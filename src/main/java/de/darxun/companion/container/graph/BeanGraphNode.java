@@ -0,0 +1,85 @@
+package de.darxun.companion.container.graph;
+
+import de.darxun.companion.container.model.BeanScope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A bean in the exported bean graph
+ */
+public class BeanGraphNode {
+
+    private final String id;
+
+    private final Class<?> clazz;
+
+    private final BeanScope scope;
+
+    private final long creationNanos;
+
+    private final boolean measured;
+
+    private final List<BeanGraphNode> dependencies;
+
+    BeanGraphNode(String id, Class<?> clazz, BeanScope scope, long creationNanos, boolean measured) {
+        this.id = id;
+        this.clazz = clazz;
+        this.scope = scope;
+        this.creationNanos = creationNanos;
+        this.measured = measured;
+        this.dependencies = new ArrayList<>();
+    }
+
+    void addDependency(BeanGraphNode dependency) {
+        this.dependencies.add(dependency);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Class<?> getClazz() {
+        return clazz;
+    }
+
+    public BeanScope getScope() {
+        return scope;
+    }
+
+    /**
+     * @return the time (in nanos) spent creating the bean, excluding the time spent creating its dependencies, 0 if not measured
+     */
+    public long getCreationNanos() {
+        return creationNanos;
+    }
+
+    /**
+     * Returns false if the creation of the bean was not measured,
+     * i.e. for beans of the scopes other than singleton, whose instances are created on use, and for registered singletons
+     * @return true, if the creation time was measured
+     */
+    public boolean isMeasured() {
+        return measured;
+    }
+
+    /**
+     * @return the beans this bean depends on
+     */
+    public List<BeanGraphNode> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("BeanGraphNode{");
+        sb.append("id=").append(id);
+        sb.append(", clazz=").append(clazz);
+        sb.append(", scope=").append(scope);
+        sb.append(", creationNanos=").append(creationNanos);
+        sb.append(", measured=").append(measured);
+        sb.append('}');
+        return sb.toString();
+    }
+}
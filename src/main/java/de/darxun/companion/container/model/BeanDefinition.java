@@ -1,32 +1,56 @@
 package de.darxun.companion.container.model;
 
+import de.darxun.companion.api.MethodInterceptor;
 import de.darxun.companion.container.util.BeanDefinitionHelper;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.util.*;
 
 public class BeanDefinition extends BeanDependency {
 
-    private final List<BeanDependency> dependencies;
+    private List<BeanDependency> dependencies;
 
     private Constructor constructor;
 
-    private Set<Class<?>> interfaces;
+    private TypeSet interfaces;
 
-    private Set<Class<?>> superclasses;
+    private TypeSet superclasses;
+
+    /** resolved names of the parameterized supertypes, e.g. Repository<User> */
+    private Set<String> genericSupertypes;
 
     private BeanScope scope;
 
+    private List<Method> postConstructMethods;
+
+    private List<Method> preDestroyMethods;
+
+    /** the interceptors declared via @Intercept on the bean class and its methods */
+    private List<Class<? extends MethodInterceptor>> interceptorClasses;
+
+    /** the @Subscribe-methods of the bean class */
+    private List<Method> subscriberMethods;
+
+    /** the interface methods declared @Async on the interface or the bean class */
+    private List<Method> asyncMethods;
+
     public BeanDefinition(final Class<?> clazz, final String beanId) {
         this(clazz, beanId, BeanScope.Singleton);
     }
 
     public BeanDefinition(final Class<?> clazz, final String beanId, final BeanScope scope) {
         super(clazz, beanId);
-        this.dependencies = new ArrayList<>();
-        this.interfaces = new HashSet<>();
-        this.superclasses = new HashSet<>();
+        this.dependencies = List.of();
+        this.interfaces = TypeSet.EMPTY;
+        this.superclasses = TypeSet.EMPTY;
+        this.genericSupertypes = Collections.emptySet();
         this.scope = scope;
+        this.postConstructMethods = Collections.emptyList();
+        this.preDestroyMethods = Collections.emptyList();
+        this.interceptorClasses = Collections.emptyList();
+        this.subscriberMethods = Collections.emptyList();
+        this.asyncMethods = Collections.emptyList();
     }
 
     public BeanDefinition(Class<?> clazz) {
@@ -38,11 +62,14 @@ public class BeanDefinition extends BeanDependency {
     }
 
     public void addDependency(BeanDependency dependecy) {
-        this.dependencies.add(dependecy);
+        // most beans only have a few dependencies, so the compact immutable list is copied instead of keeping a growable list
+        BeanDependency[] extended = this.dependencies.toArray(new BeanDependency[this.dependencies.size() + 1]);
+        extended[extended.length - 1] = dependecy;
+        this.dependencies = List.of(extended);
     }
 
     public List<BeanDependency> getDependencies() {
-        return Collections.unmodifiableList(dependencies);
+        return dependencies;
     }
 
     public Constructor getConstructor() {
@@ -54,36 +81,124 @@ public class BeanDefinition extends BeanDependency {
     }
 
     public void addInterface(Class<?> interfaceClazz) {
-        this.interfaces.add(interfaceClazz);
+        this.interfaces = this.interfaces.with(interfaceClazz);
     }
 
     public void addInterfaces(Set<Class<?>> interfaces) {
-        this.interfaces.addAll(interfaces);
+        this.interfaces = this.interfaces.union(TypeSet.of(interfaces));
     }
 
     public void addSuperclass(Class<?> superClazz) {
-        this.superclasses.add(superClazz);
+        this.superclasses = this.superclasses.with(superClazz);
+    }
+
+    public void addSuperclasses(Set<Class<?>> superclasses) {
+        this.superclasses = this.superclasses.union(TypeSet.of(superclasses));
     }
 
     public Set<Class<?>> getInterfaces() {
-        return Collections.unmodifiableSet(interfaces);
+        return interfaces.toSet();
+    }
+
+    /**
+     * Returns true if the bean is supplied as proxy of its interfaces, i.e. for scopes other than singleton and prototype
+     * and for beans with interceptors or @Async-methods
+     * @return true, if the bean is proxied
+     */
+    public boolean isProxied() {
+        return scope == BeanScope.Thread || scope == BeanScope.Task || scope == BeanScope.Pooled || scope == BeanScope.Striped
+                || !interceptorClasses.isEmpty() || !asyncMethods.isEmpty();
+    }
+
+    /**
+     * Returns the interfaces of the bean sorted by name, so proxies implement them in the same order on every run
+     * (a native image only contains the proxy classes of the interface lists of its proxy configuration)
+     * @return the interfaces to proxy the bean by
+     */
+    public Class<?>[] getProxyInterfaces() {
+        return interfaces.toSet().stream().sorted(Comparator.comparing(Class::getName)).toArray(Class<?>[]::new);
     }
 
     public Set<Class<?>> getSuperclasses() {
-        return Collections.unmodifiableSet(superclasses);
+        return superclasses.toSet();
+    }
+
+    public void addGenericSupertypes(Set<String> genericSupertypes) {
+        Set<String> extended = new HashSet<>(this.genericSupertypes);
+        extended.addAll(genericSupertypes);
+        this.genericSupertypes = Collections.unmodifiableSet(extended);
+    }
+
+    public Set<String> getGenericSupertypes() {
+        return genericSupertypes;
     }
 
     public Set<Class<?>> getInterfacesAndSuperclasses() {
-        Set<Class<?>> classes = Collections.unmodifiableSet(interfaces);
-        classes.addAll(superclasses);
+        return interfaces.union(superclasses).toSet();
+    }
 
-        return classes;
+    /**
+     * Returns true if the given class is one of the interfaces of the bean (bit test on the interned TypeSet)
+     * @param clazz the class
+     * @return true, if the bean implements the interface
+     */
+    public boolean hasInterface(Class<?> clazz) {
+        return interfaces.contains(clazz);
+    }
+
+    /**
+     * Returns true if the given class is one of the superclasses of the bean (bit test on the interned TypeSet)
+     * @param clazz the class
+     * @return true, if the bean extends the class
+     */
+    public boolean hasSuperclass(Class<?> clazz) {
+        return superclasses.contains(clazz);
     }
 
     public BeanScope getScope() {
         return scope;
     }
 
+    public List<Method> getPostConstructMethods() {
+        return postConstructMethods;
+    }
+
+    public void setPostConstructMethods(List<Method> postConstructMethods) {
+        this.postConstructMethods = Collections.unmodifiableList(new ArrayList<>(postConstructMethods));
+    }
+
+    public List<Method> getPreDestroyMethods() {
+        return preDestroyMethods;
+    }
+
+    public void setPreDestroyMethods(List<Method> preDestroyMethods) {
+        this.preDestroyMethods = Collections.unmodifiableList(new ArrayList<>(preDestroyMethods));
+    }
+
+    public List<Class<? extends MethodInterceptor>> getInterceptorClasses() {
+        return interceptorClasses;
+    }
+
+    public void setInterceptorClasses(List<Class<? extends MethodInterceptor>> interceptorClasses) {
+        this.interceptorClasses = Collections.unmodifiableList(new ArrayList<>(interceptorClasses));
+    }
+
+    public List<Method> getSubscriberMethods() {
+        return subscriberMethods;
+    }
+
+    public void setSubscriberMethods(List<Method> subscriberMethods) {
+        this.subscriberMethods = Collections.unmodifiableList(new ArrayList<>(subscriberMethods));
+    }
+
+    public List<Method> getAsyncMethods() {
+        return asyncMethods;
+    }
+
+    public void setAsyncMethods(List<Method> asyncMethods) {
+        this.asyncMethods = Collections.unmodifiableList(new ArrayList<>(asyncMethods));
+    }
+
     @Override
     public String toString() {
         final StringBuffer sb = new StringBuffer("BeanDefinition{");
@@ -1,5 +1,9 @@
 package de.darxun.companion.container.model;
 
+import de.darxun.companion.container.util.ReflectionHelper;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.Objects;
 
 public class BeanDependency {
@@ -7,9 +11,17 @@ public class BeanDependency {
 
     private final String id;
 
+    /** the resolved name of the parameterized type (e.g. Repository<User>), null for dependencies by raw type */
+    private final String genericTypeName;
+
     public BeanDependency(Class<?> clazz, String id) {
+        this(clazz, clazz, id);
+    }
+
+    public BeanDependency(Class<?> clazz, Type type, String id) {
         this.clazz = clazz;
         this.id = id;
+        this.genericTypeName = type instanceof ParameterizedType ? ReflectionHelper.getResolvedTypeName(type) : null;
     }
 
     public BeanDependency(Class<?> clazz) {
@@ -24,11 +36,16 @@ public class BeanDependency {
         return id;
     }
 
+    public String getGenericTypeName() {
+        return genericTypeName;
+    }
+
     @Override
     public String toString() {
         return "BeanDependency{" +
                 "clazz=" + clazz +
                 ", id='" + id + '\'' +
+                (genericTypeName != null ? ", genericType=" + genericTypeName : "") +
                 '}';
     }
 
@@ -37,11 +54,11 @@ public class BeanDependency {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         BeanDependency that = (BeanDependency) o;
-        return Objects.equals(clazz, that.clazz) && Objects.equals(id, that.id);
+        return Objects.equals(clazz, that.clazz) && Objects.equals(id, that.id) && Objects.equals(genericTypeName, that.genericTypeName);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(clazz, id);
+        return Objects.hash(clazz, id, genericTypeName);
     }
 }
@@ -7,5 +7,13 @@ public enum BeanScope {
     /** The default-scope - there's exactly one instance in the container for a singleton-bean */
     Singleton,
     /** With the thread-scope there's an instance for every instance for a thread-scope-bean */
-    Thread;
+    Thread,
+    /** With the pooled-scope there's a bounded pool of instances, each call borrows an instance exclusively */
+    Pooled,
+    /** With the striped-scope there's a fixed number of instances, every thread is mapped to one of them */
+    Striped,
+    /** With the prototype-scope there's a new instance for every injection and every lookup of a prototype-bean */
+    Prototype,
+    /** With the task-scope there's an instance for every task started via runInScope, shared with the tasks it hands off */
+    Task;
 }
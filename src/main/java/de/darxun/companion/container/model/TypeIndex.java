@@ -0,0 +1,159 @@
+package de.darxun.companion.container.model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns a unique int id to every type that is part of a BeanDefinitions type hierarchy.
+ * The ids are dense, so sets of types can be stored as bitsets (see TypeSet).
+ * The types are referenced weakly and looked up by name, so the index does not keep the types and their class loaders alive
+ * (e.g. of discarded containers or reloaded classes) and looking up a type that is not indexed does not allocate.
+ * The id of a collected type is reused once no TypeSet contains it anymore, so the ids and the widths of the bitsets
+ * are bounded by the types in use rather than growing with every reload of the bean classes.
+ */
+public final class TypeIndex {
+
+    /** the ids of the types by name, several ids if types of the same name are loaded by different class loaders (copy-on-write) */
+    private static final Map<String, int[]> idsByName = new ConcurrentHashMap<>();
+
+    /** notified about collected types, whose ids may be reused */
+    private static final ReferenceQueue<Class<?>> collectedTypes = new ReferenceQueue<>();
+
+    /** the ids of collected types, guarded by the class */
+    private static final List<Integer> freeIds = new ArrayList<>();
+
+    private static volatile TypeReference[] types = new TypeReference[64];
+
+    private static int size;
+
+    private TypeIndex() {
+    }
+
+    /**
+     * Returns the id for the given type, assigns a new one if the type is not indexed yet
+     * @param type the type
+     * @return the id of the type
+     */
+    public static int getOrAssignId(Class<?> type) {
+        int id = getId(type);
+        if (id >= 0) {
+            return id;
+        }
+
+        return assignId(type);
+    }
+
+    /**
+     * Returns the id for the given type without assigning one
+     * @param type the type
+     * @return the id of the type or -1 if the type is not indexed
+     */
+    public static int getId(Class<?> type) {
+        int[] ids = idsByName.get(type.getName());
+        if (ids == null) {
+            return -1;
+        }
+
+        // the types are published before the ids, so every visible id can be resolved
+        TypeReference[] currentTypes = types;
+        for (int id : ids) {
+            if (currentTypes[id].get() == type) {
+                return id;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the type for the given id
+     * @param id the id
+     * @return the type or null if the type was collected already
+     */
+    public static Class<?> getType(int id) {
+        return types[id].get();
+    }
+
+    /**
+     * @return the number of ids assigned so far, including the ids of collected types
+     */
+    static synchronized int size() {
+        return size;
+    }
+
+    private static synchronized int assignId(Class<?> type) {
+        int id = getId(type);
+        if (id >= 0) {
+            return id;
+        }
+
+        TypeReference[] currentTypes = types;
+        id = reuseId(currentTypes);
+        if (id < 0) {
+            if (size == currentTypes.length) {
+                currentTypes = Arrays.copyOf(currentTypes, size * 2);
+            }
+            id = size++;
+        }
+
+        // publish the type before the id
+        currentTypes[id] = new TypeReference(type, id);
+        types = currentTypes;
+        idsByName.merge(type.getName(), new int[] { id }, TypeIndex::concat);
+
+        return id;
+    }
+
+    /**
+     * Returns the id of a collected type no TypeSet contains anymore, -1 if there is none
+     */
+    private static int reuseId(TypeReference[] currentTypes) {
+        for (Reference<? extends Class<?>> reference; (reference = collectedTypes.poll()) != null; ) {
+            freeIds.add(((TypeReference) reference).id);
+        }
+
+        for (Iterator<Integer> iterator = freeIds.iterator(); iterator.hasNext(); ) {
+            int id = iterator.next();
+            if (!TypeSet.isInUse(id)) {
+                iterator.remove();
+                idsByName.computeIfPresent(currentTypes[id].name, (name, ids) -> remove(ids, id));
+                return id;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int[] concat(int[] ids, int[] additionalIds) {
+        int[] result = Arrays.copyOf(ids, ids.length + additionalIds.length);
+        System.arraycopy(additionalIds, 0, result, ids.length, additionalIds.length);
+
+        return result;
+    }
+
+    private static int[] remove(int[] ids, int id) {
+        int[] result = Arrays.stream(ids).filter(current -> current != id).toArray();
+
+        return result.length == 0 ? null : result;
+    }
+
+    private static final class TypeReference extends WeakReference<Class<?>> {
+
+        private final int id;
+
+        private final String name;
+
+        private TypeReference(Class<?> type, int id) {
+            super(type, collectedTypes);
+            this.id = id;
+            this.name = type.getName();
+        }
+    }
+}
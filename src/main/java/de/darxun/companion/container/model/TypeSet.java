@@ -0,0 +1,189 @@
+package de.darxun.companion.container.model;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable set of types stored as bitset over the ids of the TypeIndex.
+ * TypeSets are interned, so BeanDefinitions with identical type hierarchies share the same instance.
+ * The intern table holds the sets weakly, a set is dropped once no BeanDefinition uses it anymore.
+ */
+public final class TypeSet {
+
+    /** the interned sets, guarded by itself */
+    private static final Map<TypeSet, WeakReference<TypeSet>> internedSets = new WeakHashMap<>();
+
+    /** the empty TypeSet */
+    public static final TypeSet EMPTY = intern(new TypeSet(new long[0]));
+
+    private final long[] bits;
+
+    private final int hashCode;
+
+    /** lazily computed view of the types */
+    private volatile Set<Class<?>> classes;
+
+    private TypeSet(long[] bits) {
+        this.bits = bits;
+        this.hashCode = Arrays.hashCode(bits);
+    }
+
+    /**
+     * Returns the (interned) TypeSet containing the given types
+     * @param types the types
+     * @return the TypeSet
+     */
+    public static TypeSet of(Collection<Class<?>> types) {
+        if (types.isEmpty()) {
+            return EMPTY;
+        }
+
+        long[] bits = new long[0];
+        for (Class<?> type : types) {
+            bits = set(bits, TypeIndex.getOrAssignId(type));
+        }
+
+        return intern(new TypeSet(bits));
+    }
+
+    /**
+     * Returns the (interned) TypeSet containing the types of this set and the given type
+     * @param type the type to add
+     * @return the TypeSet
+     */
+    public TypeSet with(Class<?> type) {
+        if (contains(type)) {
+            return this;
+        }
+
+        return intern(new TypeSet(set(bits.clone(), TypeIndex.getOrAssignId(type))));
+    }
+
+    /**
+     * Returns the (interned) TypeSet containing the types of this and the given set
+     * @param other the other set
+     * @return the TypeSet
+     */
+    public TypeSet union(TypeSet other) {
+        long[] union = Arrays.copyOf(bits, Math.max(bits.length, other.bits.length));
+        for (int i = 0; i < other.bits.length; i++) {
+            union[i] |= other.bits[i];
+        }
+
+        return intern(new TypeSet(union));
+    }
+
+    /**
+     * Returns true if the given type is part of this set
+     * @param type the type
+     * @return true, if the type is contained
+     */
+    public boolean contains(Class<?> type) {
+        int id = TypeIndex.getId(type);
+        if (id < 0) {
+            return false;
+        }
+
+        int word = id >>> 6;
+        return word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * @return true, if the set contains no types
+     */
+    public boolean isEmpty() {
+        return bits.length == 0;
+    }
+
+    /**
+     * Returns an unmodifiable view of the types of this set
+     * @return the types
+     */
+    public Set<Class<?>> toSet() {
+        Set<Class<?>> result = classes;
+        if (result == null) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            for (int word = 0; word < bits.length; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    int bit = Long.numberOfTrailingZeros(remaining);
+                    Class<?> type = TypeIndex.getType((word << 6) + bit);
+                    if (type != null) {
+                        types.add(type);
+                    }
+                    remaining &= remaining - 1;
+                }
+            }
+
+            result = Collections.unmodifiableSet(types);
+            classes = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns true if an interned set contains the given id, the TypeIndex must not reuse it then
+     * @param id the id of a collected type
+     * @return true, if the id is contained by a set
+     */
+    static boolean isInUse(int id) {
+        int word = id >>> 6;
+        synchronized (internedSets) {
+            for (TypeSet typeSet : internedSets.keySet()) {
+                if (word < typeSet.bits.length && (typeSet.bits[word] & (1L << id)) != 0) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static long[] set(long[] bits, int id) {
+        int word = id >>> 6;
+        if (word >= bits.length) {
+            bits = Arrays.copyOf(bits, word + 1);
+        }
+
+        bits[word] |= 1L << id;
+        return bits;
+    }
+
+    private static TypeSet intern(TypeSet typeSet) {
+        synchronized (internedSets) {
+            WeakReference<TypeSet> reference = internedSets.get(typeSet);
+            TypeSet interned = reference != null ? reference.get() : null;
+            if (interned != null) {
+                return interned;
+            }
+
+            internedSets.put(typeSet, new WeakReference<>(typeSet));
+            return typeSet;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TypeSet typeSet = (TypeSet) o;
+        return Arrays.equals(bits, typeSet.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "TypeSet" + toSet();
+    }
+}
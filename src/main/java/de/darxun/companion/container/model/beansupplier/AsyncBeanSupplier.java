@@ -0,0 +1,113 @@
+package de.darxun.companion.container.model.beansupplier;
+
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.model.BeanScope;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static java.lang.System.Logger.Level;
+
+/**
+ * BeanSupplier for beans declaring @Async-methods, wrapping the supplier of the beans scope (and its interceptors).
+ * The supplied proxy calls the @Async-methods on the async executor of the container and returns a future, that is completed
+ * along with the future returned by the bean. All other methods are called on the calling thread.
+ */
+public class AsyncBeanSupplier implements BeanSupplier {
+
+    private static final System.Logger LOGGER = System.getLogger(AsyncBeanSupplier.class.getName());
+
+    private final BeanDefinition beanDefinition;
+
+    private final BeanSupplier delegate;
+
+    private final Executor executor;
+
+    private final Set<Method> asyncMethods;
+
+    /** the proxy of scopes supplying the same object on every call, null for prototypes */
+    private final Object proxy;
+
+    public AsyncBeanSupplier(BeanDefinition beanDefinition, BeanSupplier delegate, Executor executor) {
+        this.beanDefinition = beanDefinition;
+        this.delegate = delegate;
+        this.executor = executor;
+        this.asyncMethods = new HashSet<>(beanDefinition.getAsyncMethods());
+        this.proxy = beanDefinition.getScope() == BeanScope.Prototype ? null : createProxyInstance(delegate.get());
+    }
+
+    @Override
+    public Object get() {
+        return proxy == null ? createProxyInstance(delegate.get()) : proxy;
+    }
+
+    /**
+     * @return the supplier of the beans scope
+     */
+    public BeanSupplier getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Collection<Object> getInstances() {
+        return delegate.getInstances();
+    }
+
+    private Object createProxyInstance(Object target) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            if (!asyncMethods.contains(method)) {
+                return invoke(target, method, args);
+            }
+
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            executor.execute(() -> {
+                try {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof CompletableFuture) {
+                        ((CompletableFuture<?>) result).whenComplete((value, e) -> {
+                            if (e != null) {
+                                future.completeExceptionally(e);
+                            } else {
+                                future.complete(value);
+                            }
+                        });
+                    } else {
+                        future.complete(result);
+                    }
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+
+            if (method.getReturnType() == void.class) {
+                // nobody waits for the result of a void-method, so its failures are logged
+                future.whenComplete((value, e) -> {
+                    if (e != null) {
+                        LOGGER.log(Level.WARNING, String.format("@Async-method %s of bean %s failed", method.getName(), beanDefinition.getId()), e);
+                    }
+                });
+
+                return null;
+            }
+
+            return future;
+        };
+
+        return Proxy.newProxyInstance(beanDefinition.getClazz().getClassLoader(), beanDefinition.getProxyInterfaces(), invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package de.darxun.companion.container.model.beansupplier;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.function.Supplier;
 
 /**
- * Marker-Interface for Suppliers for Beans
+ * Interface for Suppliers for Beans
  */
 public interface BeanSupplier extends Supplier<Object> {
 
+    /**
+     * Returns the instances held by this supplier, that are managed by the container (e.g. to be destroyed on close).
+     * Suppliers that do not keep track of their instances return an empty collection.
+     * @return the managed instances
+     */
+    default Collection<Object> getInstances() {
+        return Collections.emptyList();
+    }
+
 }
@@ -0,0 +1,138 @@
+package de.darxun.companion.container.model.beansupplier;
+
+import de.darxun.companion.BeanCreationException;
+import de.darxun.companion.api.Intercept;
+import de.darxun.companion.api.MethodInterceptor;
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.model.BeanScope;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BeanSupplier for intercepted beans (see @Intercept), wrapping the supplier of the beans scope.
+ * The interceptor chain of every interface method is composed into a single MethodHandle once, when the bean is created.
+ * The supplied proxy calls the composed handle of the called method, so a call does neither walk the chain nor allocate
+ * anything beyond the argument array of the proxy.
+ */
+public class InterceptingBeanSupplier implements BeanSupplier {
+
+    private final BeanDefinition beanDefinition;
+
+    private final BeanSupplier delegate;
+
+    /** the composed handles by interface method, not modified after construction */
+    private final Map<Method, MethodHandle> chains;
+
+    /** the proxy of scopes supplying the same object on every call, null for prototypes */
+    private final Object proxy;
+
+    public InterceptingBeanSupplier(BeanDefinition beanDefinition, BeanSupplier delegate, Map<Class<?>, MethodInterceptor> interceptors) {
+        this.beanDefinition = beanDefinition;
+        this.delegate = delegate;
+        this.chains = createChains(interceptors);
+        this.proxy = beanDefinition.getScope() == BeanScope.Prototype ? null : createProxyInstance(delegate.get());
+    }
+
+    @Override
+    public Object get() {
+        return proxy == null ? createProxyInstance(delegate.get()) : proxy;
+    }
+
+    /**
+     * @return the supplier of the beans scope
+     */
+    public BeanSupplier getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Collection<Object> getInstances() {
+        return delegate.getInstances();
+    }
+
+    private Map<Method, MethodHandle> createChains(Map<Class<?>, MethodInterceptor> interceptors) {
+        Class<?> clazz = beanDefinition.getClazz();
+        Intercept classIntercept = clazz.getAnnotation(Intercept.class);
+
+        Map<Method, MethodHandle> chains = new HashMap<>();
+        for (Class<?> interfaceClazz : beanDefinition.getProxyInterfaces()) {
+            for (Method method : interfaceClazz.getMethods()) {
+                List<Class<? extends MethodInterceptor>> interceptorClasses = new ArrayList<>();
+                if (classIntercept != null) {
+                    interceptorClasses.addAll(Arrays.asList(classIntercept.value()));
+                }
+
+                Intercept methodIntercept = getImplementation(clazz, method).getAnnotation(Intercept.class);
+                if (methodIntercept != null) {
+                    interceptorClasses.addAll(Arrays.asList(methodIntercept.value()));
+                }
+
+                MethodHandle chain = createTarget(method);
+                // the first interceptor is the outermost one, so the chain is composed from the last one
+                for (int i = interceptorClasses.size() - 1; i >= 0; i--) {
+                    MethodInterceptor interceptor = interceptors.get(interceptorClasses.get(i));
+                    chain = interceptor.intercept(method, chain);
+
+                    if (chain == null || !chain.type().equals(MethodInterceptor.TYPE)) {
+                        throw new BeanCreationException(String.format("The interceptor %s must return a handle of type %s for method %s of bean %s",
+                                interceptorClasses.get(i).getName(), MethodInterceptor.TYPE, method.getName(), beanDefinition.getId()));
+                    }
+                }
+
+                chains.put(method, chain);
+            }
+        }
+
+        return chains;
+    }
+
+    private Method getImplementation(Class<?> clazz, Method method) {
+        try {
+            return clazz.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            throw new BeanCreationException(String.format("Bean %s does not implement method %s", beanDefinition.getId(), method), e);
+        }
+    }
+
+    /**
+     * Returns the handle calling the given method on the bean, adapted to MethodInterceptor.TYPE
+     */
+    private MethodHandle createTarget(Method method) {
+        try {
+            return MethodHandles.lookup().unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodInterceptor.TYPE);
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException(String.format("Method %s of bean %s cannot be intercepted", method, beanDefinition.getId()), e);
+        }
+    }
+
+    private Object createProxyInstance(Object target) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            MethodHandle chain = chains.get(method);
+            if (chain == null) {
+                // methods of Object are not intercepted
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            return (Object) chain.invokeExact(target, args);
+        };
+
+        return Proxy.newProxyInstance(beanDefinition.getClazz().getClassLoader(), beanDefinition.getProxyInterfaces(), invocationHandler);
+    }
+}
@@ -0,0 +1,83 @@
+package de.darxun.companion.container.model.beansupplier;
+
+/**
+ * Snapshot of the statistics of a PooledBeanSupplier
+ */
+public class PoolStatistics {
+
+    private final int maxSize;
+
+    private final int size;
+
+    private final int idle;
+
+    private final long borrows;
+
+    private final long waits;
+
+    private final long creations;
+
+    public PoolStatistics(int maxSize, int size, int idle, long borrows, long waits, long creations) {
+        this.maxSize = maxSize;
+        this.size = size;
+        this.idle = idle;
+        this.borrows = borrows;
+        this.waits = waits;
+        this.creations = creations;
+    }
+
+    /**
+     * @return the maximum number of instances the pool may hold
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of instances currently held by the pool (idle and borrowed)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the number of instances currently waiting to be borrowed
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * @return the number of borrows so far
+     */
+    public long getBorrows() {
+        return borrows;
+    }
+
+    /**
+     * @return the number of borrows that had to wait for an instance to be returned
+     */
+    public long getWaits() {
+        return waits;
+    }
+
+    /**
+     * @return the number of instances created by the pool
+     */
+    public long getCreations() {
+        return creations;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuffer sb = new StringBuffer("PoolStatistics{");
+        sb.append("maxSize=").append(maxSize);
+        sb.append(", size=").append(size);
+        sb.append(", idle=").append(idle);
+        sb.append(", borrows=").append(borrows);
+        sb.append(", waits=").append(waits);
+        sb.append(", creations=").append(creations);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,187 @@
+package de.darxun.companion.container.model.beansupplier;
+
+import de.darxun.companion.container.model.BeanDefinition;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * BeanSupplier for pooled-scope beans.
+ * The supplied proxy borrows an instance from a lock-free bounded pool for every method call and returns it afterwards.
+ * Instances are created lazily until the maximum pool size is reached, afterwards callers wait for a returned instance
+ * up to the borrow timeout. Note that a pooled bean must not call itself via the proxy, as this may exhaust the pool
+ * and fails with the timeout then.
+ */
+public class PooledBeanSupplier implements BeanSupplier {
+
+    /** number of busy-spins before a waiting borrower starts parking */
+    private static final int MAX_SPINS = 64;
+
+    /** nanos a waiting borrower parks between polling the pool */
+    private static final long PARK_NANOS = 10_000L;
+
+    private final BeanDefinition beanDefinition;
+
+    private final Supplier<Object> instantiator;
+
+    private final int maxSize;
+
+    private final long borrowTimeoutNanos;
+
+    private final ConcurrentLinkedQueue<Object> idleInstances;
+
+    /** all instances created, idle and borrowed ones */
+    private final ConcurrentLinkedQueue<Object> instances;
+
+    private final AtomicInteger size;
+
+    private final LongAdder borrows;
+
+    private final LongAdder waits;
+
+    private final LongAdder creations;
+
+    private final Object proxy;
+
+    /**
+     * @param beanDefinition the BeanDefinition of the bean
+     * @param instantiator creates the instances
+     * @param maxSize the maximum number of instances
+     * @param borrowTimeoutMillis the maximum number of milliseconds a call waits for an instance of the exhausted pool
+     */
+    public PooledBeanSupplier(BeanDefinition beanDefinition, Supplier<Object> instantiator, int maxSize, long borrowTimeoutMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException(String.format("The maximum pool size (%d) must be atleast 1", maxSize));
+        }
+        if (borrowTimeoutMillis < 0) {
+            throw new IllegalArgumentException(String.format("The borrow timeout (%d ms) must not be negative", borrowTimeoutMillis));
+        }
+
+        this.beanDefinition = beanDefinition;
+        this.instantiator = instantiator;
+        this.maxSize = maxSize;
+        this.borrowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        this.idleInstances = new ConcurrentLinkedQueue<>();
+        this.instances = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger();
+        this.borrows = new LongAdder();
+        this.waits = new LongAdder();
+        this.creations = new LongAdder();
+        this.proxy = createProxyInstance();
+    }
+
+    @Override
+    public Object get() {
+        return proxy;
+    }
+
+    /**
+     * Returns the instances of the pool, the borrowed ones included
+     * @return the instances
+     */
+    @Override
+    public Collection<Object> getInstances() {
+        return new ArrayList<>(instances);
+    }
+
+    /**
+     * Returns a snapshot of the pools statistics
+     * @return the statistics
+     */
+    public PoolStatistics getStatistics() {
+        return new PoolStatistics(maxSize, size.get(), idleInstances.size(), borrows.sum(), waits.sum(), creations.sum());
+    }
+
+    /**
+     * Borrows an instance from the pool. Creates a new instance if none is idle and the pool is not exhausted,
+     * otherwise waits for an instance to be returned.
+     * @return the borrowed instance
+     * @throws IllegalStateException if no instance was returned within the borrow timeout
+     */
+    private Object borrow() {
+        borrows.increment();
+
+        Object instance = idleInstances.poll();
+        if (instance != null) {
+            return instance;
+        }
+
+        instance = tryCreate();
+        if (instance != null) {
+            return instance;
+        }
+
+        waits.increment();
+
+        final long deadline = System.nanoTime() + borrowTimeoutNanos;
+        int spins = 0;
+        while ((instance = idleInstances.poll()) == null) {
+            if (spins < MAX_SPINS) {
+                Thread.onSpinWait();
+                spins++;
+            } else if (System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            } else {
+                throw new IllegalStateException(String.format("No instance of pooled bean %s was returned within %d ms, the pool of %d instances is exhausted",
+                        beanDefinition.getId(), TimeUnit.NANOSECONDS.toMillis(borrowTimeoutNanos), maxSize));
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Creates a new instance if the pool is not exhausted yet
+     * @return the new instance or null if the pool is exhausted
+     */
+    private Object tryCreate() {
+        int current;
+        while ((current = size.get()) < maxSize) {
+            if (size.compareAndSet(current, current + 1)) {
+                try {
+                    Object instance = instantiator.get();
+                    instances.add(instance);
+                    creations.increment();
+                    return instance;
+                } catch (RuntimeException e) {
+                    // the slot is free again as the instance could not be created
+                    size.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns a borrowed instance to the pool
+     * @param instance the instance
+     */
+    private void giveBack(Object instance) {
+        idleInstances.offer(instance);
+    }
+
+    private Object createProxyInstance() {
+        Class<?>[] interfaces = beanDefinition.getProxyInterfaces();
+
+        return Proxy.newProxyInstance(beanDefinition.getClazz().getClassLoader(), interfaces, (proxy, method, args) -> {
+            Object instance = borrow();
+            try {
+                return method.invoke(instance, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                giveBack(instance);
+            }
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package de.darxun.companion.container.model.beansupplier;
+
+import de.darxun.companion.BeanCreationException;
+import de.darxun.companion.container.model.BeanDefinition;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * BeanSupplier for prototype-scope beans.
+ * Every call creates a new instance via a factory that is compiled once from the beans constructor and the
+ * suppliers of its (already resolved) dependencies, so no reflection and no argument array is involved per call.
+ */
+public class PrototypeBeanSupplier implements BeanSupplier {
+
+    private static final MethodHandle SUPPLIER_GET;
+
+    static {
+        try {
+            SUPPLIER_GET = MethodHandles.publicLookup().findVirtual(Supplier.class, "get", MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final BeanDefinition beanDefinition;
+
+    /** the compiled factory of type ()Object */
+    private final MethodHandle factory;
+
+    public PrototypeBeanSupplier(BeanDefinition beanDefinition, BeanSupplier[] dependencySuppliers) {
+        this.beanDefinition = beanDefinition;
+        this.factory = compileFactory(beanDefinition, dependencySuppliers);
+    }
+
+    @Override
+    public Object get() {
+        try {
+            return (Object) factory.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeanCreationException(String.format("Error creating prototype bean %s", beanDefinition.getId()), e);
+        }
+    }
+
+    /**
+     * Compiles a factory for the beans constructor, that retrieves every constructor-parameter from its supplier
+     * and calls the @PostConstruct-methods of the new instance
+     * @param beanDefinition the BeanDefinition
+     * @param dependencySuppliers the suppliers for the constructor-parameters
+     * @return the factory of type ()Object
+     */
+    private static MethodHandle compileFactory(BeanDefinition beanDefinition, BeanSupplier[] dependencySuppliers) {
+        Constructor<?> constructor = beanDefinition.getConstructor();
+
+        MethodHandle factory;
+        try {
+            factory = MethodHandles.lookup().unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException(String.format("Constructor %s is not accessible", constructor), e);
+        }
+
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        if (parameterTypes.length != dependencySuppliers.length) {
+            throw new BeanCreationException(String.format("Expected %d dependencies for constructor %s but got %d", parameterTypes.length, constructor, dependencySuppliers.length));
+        }
+
+        // replace the parameters from last to first, so the position of the remaining parameters does not change
+        for (int i = parameterTypes.length - 1; i >= 0; i--) {
+            MethodHandle dependency = SUPPLIER_GET.bindTo(dependencySuppliers[i]).asType(MethodType.methodType(parameterTypes[i]));
+            factory = MethodHandles.collectArguments(factory, i, dependency);
+        }
+
+        factory = factory.asType(MethodType.methodType(Object.class));
+
+        for (Method postConstructMethod : beanDefinition.getPostConstructMethods()) {
+            MethodHandle postConstruct;
+            try {
+                postConstruct = MethodHandles.lookup().unreflect(postConstructMethod);
+            } catch (IllegalAccessException e) {
+                throw new BeanCreationException(String.format("@PostConstruct-method %s is not accessible", postConstructMethod), e);
+            }
+
+            // (Object)Object that calls the method on the instance and returns the instance
+            MethodHandle callAndReturn = MethodHandles.foldArguments(MethodHandles.identity(Object.class), postConstruct.asType(MethodType.methodType(void.class, Object.class)));
+            factory = MethodHandles.filterReturnValue(factory, callAndReturn);
+        }
+
+        return factory;
+    }
+}
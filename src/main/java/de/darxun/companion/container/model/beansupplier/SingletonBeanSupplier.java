@@ -1,6 +1,7 @@
 package de.darxun.companion.container.model.beansupplier;
 
-import de.darxun.companion.container.model.beansupplier.BeanSupplier;
+import java.util.Collection;
+import java.util.Collections;
 
 public class SingletonBeanSupplier implements BeanSupplier {
 
@@ -14,4 +15,9 @@ public class SingletonBeanSupplier implements BeanSupplier {
     public Object get() {
         return instance;
     }
+
+    @Override
+    public Collection<Object> getInstances() {
+        return Collections.singletonList(instance);
+    }
 }
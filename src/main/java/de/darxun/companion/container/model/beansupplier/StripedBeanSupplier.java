@@ -0,0 +1,139 @@
+package de.darxun.companion.container.model.beansupplier;
+
+import de.darxun.companion.container.model.BeanDefinition;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * BeanSupplier for striped-scope beans.
+ * The supplied proxy maps the calling thread to one of a fixed number of stripes via a probe hash of the thread
+ * (similar to how LongAdder spreads its cells) and delegates the call to the instance of that stripe.
+ * Instances are created lazily the first time their stripe is hit.
+ */
+public class StripedBeanSupplier implements BeanSupplier {
+
+    private final BeanDefinition beanDefinition;
+
+    private final Supplier<Object> instantiator;
+
+    private final AtomicReferenceArray<Object> stripes;
+
+    /** stripe count - 1, the stripe count is always a power of two */
+    private final int mask;
+
+    private final Object proxy;
+
+    public StripedBeanSupplier(BeanDefinition beanDefinition, Supplier<Object> instantiator, int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException(String.format("The number of stripes (%d) must be atleast 1", stripeCount));
+        }
+
+        this.beanDefinition = beanDefinition;
+        this.instantiator = instantiator;
+
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+
+        this.stripes = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.proxy = createProxyInstance();
+    }
+
+    @Override
+    public Object get() {
+        return proxy;
+    }
+
+    /**
+     * @return the number of stripes
+     */
+    public int getStripeCount() {
+        return stripes.length();
+    }
+
+    /**
+     * Returns the instances of all stripes created so far
+     * @return the instances
+     */
+    @Override
+    public Collection<Object> getInstances() {
+        List<Object> instances = new ArrayList<>(stripes.length());
+        for (int i = 0; i < stripes.length(); i++) {
+            Object instance = stripes.get(i);
+            if (instance != null) {
+                instances.add(instance);
+            }
+        }
+
+        return instances;
+    }
+
+    /**
+     * Returns the instance of the stripe the current thread is mapped to
+     * @return the instance
+     */
+    private Object getStripeInstance() {
+        int index = probe(Thread.currentThread()) & mask;
+
+        Object instance = stripes.get(index);
+        if (instance == null) {
+            instance = createStripeInstance(index);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Creates the instance for the given stripe unless another thread has done so already.
+     * Creation is synchronized so that there's never more than one instance for a stripe.
+     * @param index the stripe
+     * @return the instance of the stripe
+     */
+    private synchronized Object createStripeInstance(int index) {
+        Object instance = stripes.get(index);
+        if (instance == null) {
+            instance = instantiator.get();
+            stripes.set(index, instance);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Returns the probe hash for the given thread
+     * @param thread the thread
+     * @return the probe hash
+     */
+    private static int probe(Thread thread) {
+        // murmur3 finalizer to spread consecutive thread ids evenly among the stripes
+        long h = thread.getId();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return (int) h;
+    }
+
+    private Object createProxyInstance() {
+        Class<?>[] interfaces = beanDefinition.getProxyInterfaces();
+
+        return Proxy.newProxyInstance(beanDefinition.getClazz().getClassLoader(), interfaces, (proxy, method, args) -> {
+            Object instance = getStripeInstance();
+            try {
+                return method.invoke(instance, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
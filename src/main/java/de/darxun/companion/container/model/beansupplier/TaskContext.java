@@ -0,0 +1,155 @@
+package de.darxun.companion.container.model.beansupplier;
+
+import de.darxun.companion.container.model.BeanDefinition;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.lang.System.Logger.Level;
+
+/**
+ * Context of a task-scope, holding the task-scope instances of a task and the tasks it handed off.
+ * The context is reference counted: the root task and every handed off task hold a reference,
+ * the instances are destroyed as soon as the last reference is released.
+ */
+public final class TaskContext {
+
+    private static final System.Logger LOGGER = System.getLogger(TaskContext.class.getName());
+
+    private static final ThreadLocal<TaskContext> CURRENT = new ThreadLocal<>();
+
+    private final Map<BeanDefinition, Object> instances = new ConcurrentHashMap<>();
+
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private TaskContext() {
+    }
+
+    /**
+     * Opens a new context, holding the reference of the root task
+     * @return the context
+     */
+    public static TaskContext open() {
+        return new TaskContext();
+    }
+
+    /**
+     * @return the context bound to the current thread or null, if the current thread does not run a task
+     */
+    public static TaskContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Adds a reference for a task handed off to another thread
+     * @return this context
+     */
+    public TaskContext retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current == 0) {
+                throw new IllegalStateException("The task scope is released already");
+            }
+        } while (!references.compareAndSet(current, current + 1));
+
+        return this;
+    }
+
+    /**
+     * Releases a reference, destroying the instances of the context if it was the last one
+     */
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            destroyInstances();
+        }
+    }
+
+    /**
+     * Runs the given task with this context bound to the current thread
+     * @param task the task
+     */
+    public void run(Runnable task) {
+        TaskContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            task.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Calls the given task with this context bound to the current thread
+     * @param task the task
+     * @return the result of the task
+     * @param <T> type of the result
+     * @throws Exception if the task fails
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        TaskContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Returns the instance of the given bean in this context, creating it if necessary
+     * @param beanDefinition the BeanDefinition of the task-scope bean
+     * @param instantiator creates the instance
+     * @return the instance
+     */
+    Object getInstance(BeanDefinition beanDefinition, Supplier<Object> instantiator) {
+        Object instance = instances.get(beanDefinition);
+        if (instance == null) {
+            // not computeIfAbsent, as creating an instance may use other task-scope beans of this context
+            synchronized (this) {
+                instance = instances.get(beanDefinition);
+                if (instance == null) {
+                    instance = instantiator.get();
+                    instances.put(beanDefinition, instance);
+                }
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * @return the number of task-scope instances created in this context
+     */
+    public int getInstanceCount() {
+        return instances.size();
+    }
+
+    private static void restore(TaskContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    private void destroyInstances() {
+        for (Map.Entry<BeanDefinition, Object> entry : instances.entrySet()) {
+            for (Method preDestroyMethod : entry.getKey().getPreDestroyMethods()) {
+                try {
+                    preDestroyMethod.invoke(entry.getValue());
+                } catch (InvocationTargetException | IllegalAccessException e) {
+                    Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                    LOGGER.log(Level.WARNING, String.format("@PreDestroy-method %s of task-scope bean %s failed", preDestroyMethod.getName(), entry.getKey().getId()), cause);
+                }
+            }
+        }
+
+        instances.clear();
+    }
+}
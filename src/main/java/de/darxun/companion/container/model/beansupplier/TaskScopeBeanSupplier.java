@@ -0,0 +1,67 @@
+package de.darxun.companion.container.model.beansupplier;
+
+import de.darxun.companion.container.model.BeanDefinition;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * BeanSupplier for task-scope beans.
+ * The supplied proxy delegates every call to the instance of the TaskContext bound to the calling thread,
+ * so the tasks handed off to other threads share the instances of their root task.
+ */
+public class TaskScopeBeanSupplier implements BeanSupplier {
+
+    private final BeanDefinition beanDefinition;
+
+    private final Supplier<Object> instantiator;
+
+    private final Object proxy;
+
+    public TaskScopeBeanSupplier(BeanDefinition beanDefinition, Supplier<Object> instantiator) {
+        this.beanDefinition = beanDefinition;
+        this.instantiator = instantiator;
+        this.proxy = createProxyInstance();
+    }
+
+    @Override
+    public Object get() {
+        return proxy;
+    }
+
+    private Object createProxyInstance() {
+        Class<?>[] interfaces = beanDefinition.getProxyInterfaces();
+
+        return Proxy.newProxyInstance(beanDefinition.getClazz().getClassLoader(), interfaces, (proxy, method, args) -> {
+            TaskContext taskContext = TaskContext.current();
+            if (taskContext == null) {
+                if (method.getDeclaringClass() == Object.class) {
+                    // the proxy may be logged or put into collections outside of a task
+                    return invokeOnProxy(proxy, method, args);
+                }
+
+                throw new IllegalStateException(String.format("The task-scope bean %s is used outside of a task (see runInScope)", beanDefinition.getId()));
+            }
+
+            Object instance = taskContext.getInstance(beanDefinition, instantiator);
+            try {
+                return method.invoke(instance, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private Object invokeOnProxy(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "TaskScopeProxy[" + beanDefinition.getId() + "]";
+        }
+    }
+}
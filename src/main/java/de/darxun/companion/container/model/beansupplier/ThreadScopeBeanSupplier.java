@@ -2,18 +2,28 @@ package de.darxun.companion.container.model.beansupplier;
 
 import de.darxun.companion.container.model.BeanDefinition;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Proxy;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.function.Supplier;
 
 public class ThreadScopeBeanSupplier implements BeanSupplier {
 
-    private final ThreadLocal<Object> threadLocalInstance;
+    /** replaced on reset, so the instances bound to the previous ThreadLocal are not found anymore */
+    private volatile ThreadLocal<Object> threadLocalInstance;
 
     private final BeanDefinition beanDefinition;
 
     private final Supplier<Object> instantiator;
 
+    /** the instances by thread, weakly referenced as they are held by the ThreadLocal already (see getThreadInstances) */
+    private final Map<Thread, WeakReference<Object>> threadInstances = Collections.synchronizedMap(new WeakHashMap<>());
+
     public ThreadScopeBeanSupplier(BeanDefinition beanDefinition, Supplier<Object> instantiator) {
         this.threadLocalInstance = new ThreadLocal<>();
         this.beanDefinition = beanDefinition;
@@ -25,21 +35,49 @@ public class ThreadScopeBeanSupplier implements BeanSupplier {
         return createProxyInstance();
     }
 
+    /**
+     * Discards the instances of all threads, every thread gets a new instance on its next call
+     */
+    public void reset() {
+        threadLocalInstance = new ThreadLocal<>();
+        threadInstances.clear();
+    }
+
     private Object getThreadBoundInstance() {
-        Object instance = threadLocalInstance.get();
+        ThreadLocal<Object> currentThreadLocalInstance = threadLocalInstance;
+        Object instance = currentThreadLocalInstance.get();
         if (instance == null) {
             instance = instantiator.get();
-            threadLocalInstance.set(instance);
+            currentThreadLocalInstance.set(instance);
+            threadInstances.put(Thread.currentThread(), new WeakReference<>(instance));
         }
 
         return instance;
     }
 
+    /**
+     * Returns the instances of all live threads. Other than getInstances the instances are not managed by the container,
+     * they are returned for diagnostics only (e.g. the footprint report).
+     * @return the instances of all live threads
+     */
+    public Collection<Object> getThreadInstances() {
+        List<Object> instances = new ArrayList<>();
+        synchronized (threadInstances) {
+            threadInstances.forEach((thread, instanceReference) -> {
+                Object instance = instanceReference.get();
+                if (thread.isAlive() && instance != null) {
+                    instances.add(instance);
+                }
+            });
+        }
+
+        return instances;
+    }
+
     private Object createProxyInstance() {
-        Set<Class<?>> interfacesSet = beanDefinition.getInterfaces();
-        Class<?>[] interfaces = interfacesSet.toArray(new Class<?>[interfacesSet.size()]);
+        Class<?>[] interfaces = beanDefinition.getProxyInterfaces();
 
-        return Proxy.newProxyInstance(beanDefinition.getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+        return Proxy.newProxyInstance(beanDefinition.getClazz().getClassLoader(), interfaces, (proxy, method, args) -> {
             Object instance = getThreadBoundInstance();
 
             return method.invoke(instance, args);
@@ -1,17 +1,35 @@
 package de.darxun.companion.container.util;
 
+import de.darxun.companion.api.Async;
 import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.Intercept;
+import de.darxun.companion.api.MethodInterceptor;
+import de.darxun.companion.api.Subscribe;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class ReflectionHelper {
@@ -37,6 +55,152 @@ public class ReflectionHelper {
         return Arrays.stream(clazz.getMethods()).filter(method -> method.isAnnotationPresent(annotationClazz)).collect(Collectors.toSet());
     }
 
+    /**
+     * Returns the interceptors declared via @Intercept on the given class and its public methods
+     * @param clazz the class to analyze
+     * @return list of interceptor-classes, the ones of the class first
+     */
+    public static List<Class<? extends MethodInterceptor>> getInterceptorClasses(Class<?> clazz) {
+        Set<Class<? extends MethodInterceptor>> interceptorClasses = new LinkedHashSet<>();
+
+        Intercept classIntercept = clazz.getAnnotation(Intercept.class);
+        if (classIntercept != null) {
+            interceptorClasses.addAll(Arrays.asList(classIntercept.value()));
+        }
+        for (Method method : getMethodWithAnnotation(clazz, Intercept.class)) {
+            interceptorClasses.addAll(Arrays.asList(method.getAnnotation(Intercept.class).value()));
+        }
+
+        return new ArrayList<>(interceptorClasses);
+    }
+
+    /**
+     * Returns the @Subscribe-methods of the given class, sorted by name.
+     * Throws an exception if a @Subscribe-method does not have exactly one (non-primitive) parameter
+     * @param clazz the class to analyze
+     * @return list of @Subscribe-methods
+     */
+    public static List<Method> getSubscriberMethods(Class<?> clazz) {
+        List<Method> subscriberMethods = new ArrayList<>(getMethodWithAnnotation(clazz, Subscribe.class));
+
+        for (Method method : subscriberMethods) {
+            if (method.getParameterCount() != 1 || method.getParameterTypes()[0].isPrimitive()) {
+                throw new IllegalStateException(String.format("The @Subscribe-method (%s) must have exactly one non-primitive parameter", method));
+            }
+
+            method.setAccessible(true);
+        }
+
+        subscriberMethods.sort(Comparator.comparing(Method::getName).thenComparing(method -> method.getParameterTypes()[0].getName()));
+
+        return subscriberMethods;
+    }
+
+    /**
+     * Returns the methods of the given interfaces declared @Async on the interface or on the implementing method of the given class, sorted by name.
+     * Throws an exception if an @Async-method does not return void or CompletableFuture or is not declared by any of the interfaces
+     * @param clazz the class to analyze
+     * @param interfaces the interfaces the bean is supplied as
+     * @return list of @Async-methods of the interfaces
+     */
+    public static List<Method> getAsyncMethods(Class<?> clazz, Class<?>[] interfaces) {
+        List<Method> asyncMethods = new ArrayList<>();
+        Set<Method> declaredAsyncMethods = getMethodWithAnnotation(clazz, Async.class);
+
+        for (Class<?> interfaceClazz : interfaces) {
+            for (Method method : interfaceClazz.getMethods()) {
+                Method implementation;
+                try {
+                    implementation = clazz.getMethod(method.getName(), method.getParameterTypes());
+                } catch (NoSuchMethodException e) {
+                    continue;
+                }
+
+                if (method.isAnnotationPresent(Async.class) || implementation.isAnnotationPresent(Async.class)) {
+                    if (method.getReturnType() != void.class && method.getReturnType() != CompletableFuture.class) {
+                        throw new IllegalStateException(String.format("The @Async-method (%s) must return void or CompletableFuture", method));
+                    }
+
+                    asyncMethods.add(method);
+                    declaredAsyncMethods.remove(implementation);
+                }
+            }
+        }
+
+        if (!declaredAsyncMethods.isEmpty()) {
+            throw new IllegalStateException(String.format("The @Async-method (%s) must be declared by an interface of the bean", declaredAsyncMethods.iterator().next()));
+        }
+
+        asyncMethods.sort(Comparator.comparing(Method::getName).thenComparing(method -> Arrays.toString(method.getParameterTypes())));
+
+        return asyncMethods;
+    }
+
+    /**
+     * Returns the lifecycle-methods (e.g. @PostConstruct) of the given class and its superclasses.
+     * The methods of a superclass come before the methods of its subclass, non-public methods are made accessible.
+     * An overriding lifecycle-method takes the place of the overridden one, so it is called once (like in the generated container),
+     * a lifecycle-method overridden by a method without the annotation is not called at all (see JSR-250).
+     * Throws an exception if a lifecycle-method is static or has parameters
+     * @param clazz the class to analyze
+     * @param annotationClazz the method-level-annotation to look for
+     * @return list of lifecycle-methods
+     */
+    public static List<Method> getLifecycleMethods(Class<?> clazz, Class<? extends Annotation> annotationClazz) {
+        List<Method> lifecycleMethods = new ArrayList<>();
+        for (Class<?> current : getHierarchy(clazz)) {
+            for (Method method : current.getDeclaredMethods()) {
+                boolean annotated = method.isAnnotationPresent(annotationClazz);
+                if (annotated && (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers()))) {
+                    throw new IllegalStateException(String.format("The @%s-method (%s) must neither be static nor have parameters", annotationClazz.getSimpleName(), method));
+                }
+
+                if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers()) || method.isSynthetic()) {
+                    continue;
+                }
+
+                int overridden = indexOfOverridden(lifecycleMethods, method);
+                if (annotated) {
+                    method.setAccessible(true);
+                    if (overridden >= 0) {
+                        lifecycleMethods.set(overridden, method);
+                    } else {
+                        lifecycleMethods.add(method);
+                    }
+                } else if (overridden >= 0) {
+                    lifecycleMethods.remove(overridden);
+                }
+            }
+        }
+
+        return lifecycleMethods;
+    }
+
+    /**
+     * Returns the index of the superclass-method the given parameterless method overrides, -1 if it overrides none of the given methods.
+     * A package-private method is only overridden by a method of a subclass in the same package
+     */
+    private static int indexOfOverridden(List<Method> superclassMethods, Method method) {
+        if (Modifier.isPrivate(method.getModifiers())) {
+            return -1;
+        }
+
+        for (int i = 0; i < superclassMethods.size(); i++) {
+            Method superclassMethod = superclassMethods.get(i);
+            int modifiers = superclassMethod.getModifiers();
+            if (Modifier.isPrivate(modifiers) || !superclassMethod.getName().equals(method.getName())) {
+                continue;
+            }
+
+            if (Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)
+                    || superclassMethod.getDeclaringClass().getPackageName().equals(method.getDeclaringClass().getPackageName())) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
     /**
      * Returns the single constructor the @Inject-Annotation is present on.
      * Throws an exception if no or more than one constructors are found
@@ -80,33 +244,120 @@ public class ReflectionHelper {
 
     /**
      * Returns a String-Array containing the specified (via @Named) or derived (via type) bean ids.
-     * @param injectableConstructor Constructor to analyse
+     * @param injectableExecutable Constructor or @Inject-method to analyse
      * @return bean ids
      */
-    public static String[] getBeanIdsForDependencies(Constructor injectableConstructor) {
-        Parameter[] parameters = injectableConstructor.getParameters();
+    public static String[] getBeanIdsForDependencies(Executable injectableExecutable) {
+        Parameter[] parameters = injectableExecutable.getParameters();
         String[] beanIds = new String[parameters.length];
 
         for (int i = 0; i < parameters.length; i++) {
-            Parameter parameter = parameters[i];
+            beanIds[i] = getNamedBeanId(parameters[i].getAnnotation(Named.class));
+        }
+
+        return beanIds;
+    }
+
+    /**
+     * Returns the specified (via @Named) bean id of the given @Inject-field
+     * @param injectableField the field to analyse
+     * @return the bean id or null, if the bean is derived via type
+     */
+    public static String getBeanIdForDependency(Field injectableField) {
+        return getNamedBeanId(injectableField.getAnnotation(Named.class));
+    }
 
-            Named namedAnnotation = parameter.getAnnotation(Named.class);
+    private static String getNamedBeanId(Named namedAnnotation) {
+        if (namedAnnotation == null) {
+            return null;
+        }
+
+        String namedBeanId = namedAnnotation.value();
+        if (namedBeanId.trim().length() == 0) {
+            throw new IllegalArgumentException(String.format("The id (%s) is not a valid bean id", namedBeanId));
+        }
+
+        return namedBeanId;
+    }
 
-            String parameterBeanId = null;
-            if (namedAnnotation != null) {
-                String namedBeanId = namedAnnotation.value();
+    /**
+     * Returns the @Inject-fields of the given class and its superclasses, the fields of a superclass come before the fields of its subclass.
+     * The fields are made accessible. Throws an exception if an @Inject-field is final
+     * @param clazz the class to analyze
+     * @return list of @Inject-fields
+     */
+    public static List<Field> getInjectableFields(Class<?> clazz) {
+        List<Field> injectableFields = new ArrayList<>();
+        for (Class<?> current : getHierarchy(clazz)) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(Inject.class) || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
 
-                if (namedBeanId.trim().length() == 0) {
-                    throw new IllegalArgumentException(String.format("The id (%s) is not a valid bean id", namedBeanId));
+                if (Modifier.isFinal(field.getModifiers())) {
+                    throw new IllegalStateException(String.format("The @Inject-field (%s) must not be final", field));
+                }
+
+                field.setAccessible(true);
+                injectableFields.add(field);
+            }
+        }
+
+        return injectableFields;
+    }
+
+    /**
+     * Returns the @Inject-methods of the given class and its superclasses, the methods of a superclass come before the methods of its subclass.
+     * Methods overridden by a subclass are only injected if the overriding method is annotated with @Inject. The methods are made accessible.
+     * @param clazz the class to analyze
+     * @return list of @Inject-methods
+     */
+    public static List<Method> getInjectableMethods(Class<?> clazz) {
+        List<Class<?>> hierarchy = getHierarchy(clazz);
+
+        List<Method> injectableMethods = new ArrayList<>();
+        for (int i = 0; i < hierarchy.size(); i++) {
+            for (Method method : hierarchy.get(i).getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(Inject.class) || Modifier.isStatic(method.getModifiers()) || Modifier.isAbstract(method.getModifiers())
+                        || isOverridden(method, hierarchy.subList(i + 1, hierarchy.size()))) {
+                    continue;
                 }
 
-                parameterBeanId = namedBeanId;
+                method.setAccessible(true);
+                injectableMethods.add(method);
             }
+        }
+
+        return injectableMethods;
+    }
 
-            beanIds[i] = parameterBeanId;
+    private static boolean isOverridden(Method method, List<Class<?>> subclasses) {
+        if (Modifier.isPrivate(method.getModifiers())) {
+            return false;
         }
 
-        return beanIds;
+        for (Class<?> subclass : subclasses) {
+            try {
+                subclass.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden by this subclass
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the given class and its superclasses (except Object), the topmost superclass first
+     */
+    private static List<Class<?>> getHierarchy(Class<?> clazz) {
+        LinkedList<Class<?>> hierarchy = new LinkedList<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.addFirst(current);
+        }
+
+        return new ArrayList<>(hierarchy);
     }
 
     /**
@@ -176,4 +427,96 @@ public class ReflectionHelper {
             addAllSuperclasses(superclass, superclasses);
         }
     }
+
+    /**
+     * Returns the names of all parameterized supertypes of the given class with their type arguments resolved,
+     * e.g. Repository<java.lang.String> for a class extending AbstractRepository<String> which implements Repository<T>.
+     * Supertypes whose type arguments cannot be resolved to concrete types are left out.
+     * @param clazz the class to analyze
+     * @return set of resolved type names (see getResolvedTypeName)
+     */
+    public static Set<String> getResolvedGenericSupertypes(final Class<?> clazz) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("clazz may not be null");
+        }
+
+        Set<String> genericSupertypes = new LinkedHashSet<>();
+        addResolvedGenericSupertypes(clazz, Collections.emptyMap(), genericSupertypes);
+
+        return genericSupertypes;
+    }
+
+    /**
+     * Adds the resolved parameterized supertypes of the class (recursively)
+     * @param clazz the class to analyze
+     * @param bindings the resolved type names of the type variables of the class
+     * @param genericSupertypes set of resolved type names to add to
+     */
+    private static void addResolvedGenericSupertypes(final Class<?> clazz, final Map<TypeVariable<?>, String> bindings, final Set<String> genericSupertypes) {
+        List<Type> supertypes = new ArrayList<>(Arrays.asList(clazz.getGenericInterfaces()));
+        if (clazz.getGenericSuperclass() != null) {
+            supertypes.add(clazz.getGenericSuperclass());
+        }
+
+        for (Type supertype : supertypes) {
+            if (supertype instanceof ParameterizedType) {
+                ParameterizedType parameterizedType = (ParameterizedType) supertype;
+                Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+                TypeVariable<?>[] typeParameters = rawType.getTypeParameters();
+                Type[] typeArguments = parameterizedType.getActualTypeArguments();
+
+                Map<TypeVariable<?>, String> supertypeBindings = new HashMap<>();
+                for (int i = 0; i < typeArguments.length; i++) {
+                    String typeArgumentName = getResolvedTypeName(typeArguments[i], bindings);
+                    if (typeArgumentName != null) {
+                        supertypeBindings.put(typeParameters[i], typeArgumentName);
+                    }
+                }
+
+                if (supertypeBindings.size() == typeArguments.length) {
+                    genericSupertypes.add(getResolvedTypeName(parameterizedType, bindings));
+                }
+                addResolvedGenericSupertypes(rawType, supertypeBindings, genericSupertypes);
+            } else if (supertype instanceof Class) {
+                addResolvedGenericSupertypes((Class<?>) supertype, Collections.emptyMap(), genericSupertypes);
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the given type, if it is fully resolved (i.e. contains no type variables or wildcards)
+     * @param type the type (e.g. the parameterized type of a constructor parameter)
+     * @return the resolved type name, e.g. java.util.List<java.lang.String>, or null
+     */
+    public static String getResolvedTypeName(final Type type) {
+        return getResolvedTypeName(type, Collections.emptyMap());
+    }
+
+    private static String getResolvedTypeName(final Type type, final Map<TypeVariable<?>, String> bindings) {
+        if (type instanceof Class) {
+            return ((Class<?>) type).getTypeName();
+        }
+        if (type instanceof TypeVariable) {
+            return bindings.get(type);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            StringBuilder typeName = new StringBuilder(((Class<?>) parameterizedType.getRawType()).getName()).append('<');
+
+            Type[] typeArguments = parameterizedType.getActualTypeArguments();
+            for (int i = 0; i < typeArguments.length; i++) {
+                String typeArgumentName = getResolvedTypeName(typeArguments[i], bindings);
+                if (typeArgumentName == null) {
+                    return null;
+                }
+
+                typeName.append(i == 0 ? "" : ", ").append(typeArgumentName);
+            }
+
+            return typeName.append('>').toString();
+        }
+
+        // wildcards and generic arrays are not resolved
+        return null;
+    }
 }
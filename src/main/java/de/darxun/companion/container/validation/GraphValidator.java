@@ -0,0 +1,109 @@
+package de.darxun.companion.container.validation;
+
+import de.darxun.companion.api.MethodInterceptor;
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.model.BeanDependency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the dependencies of BeanDefinitions and reports missing, ambiguous and circular dependencies without creating any bean
+ */
+public final class GraphValidator {
+
+    private GraphValidator() {
+    }
+
+    /**
+     * Validates the given BeanDefinitions
+     * @param beanDefinitions the BeanDefinitions
+     * @param resolver returns the BeanDefinitions matching a dependency
+     * @return the problems found, empty if all dependencies can be resolved
+     */
+    public static List<ValidationProblem> validate(Collection<BeanDefinition> beanDefinitions, Function<BeanDependency, Collection<BeanDefinition>> resolver) {
+        List<BeanDefinition> sortedBeanDefinitions = beanDefinitions.stream().sorted(Comparator.comparing(BeanDefinition::getId)).collect(Collectors.toList());
+        List<ValidationProblem> problems = new ArrayList<>();
+        Map<BeanDefinition, List<BeanDefinition>> resolvedDependencies = new HashMap<>();
+
+        for (BeanDefinition beanDefinition : sortedBeanDefinitions) {
+            List<BeanDependency> dependencies = new ArrayList<>(beanDefinition.getDependencies());
+            // interceptors are created along with the bean as well
+            for (Class<? extends MethodInterceptor> interceptorClass : beanDefinition.getInterceptorClasses()) {
+                dependencies.add(new BeanDependency(interceptorClass, null));
+            }
+
+            List<BeanDefinition> resolved = new ArrayList<>(dependencies.size());
+            for (BeanDependency dependency : dependencies) {
+                Collection<BeanDefinition> hits = resolver.apply(dependency);
+
+                if (hits.isEmpty()) {
+                    problems.add(new ValidationProblem(ValidationProblem.Type.MissingDependency, beanDefinition.getId(),
+                            String.format("No bean found for dependency %s", describe(dependency))));
+                } else if (hits.size() > 1) {
+                    problems.add(new ValidationProblem(ValidationProblem.Type.AmbiguousDependency, beanDefinition.getId(),
+                            String.format("No unique bean found for dependency %s, candidates are %s", describe(dependency),
+                                    hits.stream().map(BeanDefinition::getId).sorted().collect(Collectors.joining(", ")))));
+                } else {
+                    resolved.add(hits.iterator().next());
+                }
+            }
+
+            resolvedDependencies.put(beanDefinition, resolved);
+        }
+
+        Map<BeanDefinition, Boolean> visited = new HashMap<>();
+        for (BeanDefinition beanDefinition : sortedBeanDefinitions) {
+            findCycles(beanDefinition, resolvedDependencies, visited, new ArrayList<>(), problems);
+        }
+
+        return problems;
+    }
+
+    /**
+     * Depth-first search reporting every dependency back to a bean on the current path as cycle
+     * @param beanDefinition the current bean
+     * @param resolvedDependencies the resolved dependencies of all beans
+     * @param visited false for beans on the current path, true for finished beans
+     * @param path the current path
+     * @param problems the problems to append to
+     */
+    private static void findCycles(BeanDefinition beanDefinition, Map<BeanDefinition, List<BeanDefinition>> resolvedDependencies, Map<BeanDefinition, Boolean> visited,
+                                   List<BeanDefinition> path, List<ValidationProblem> problems) {
+        if (visited.containsKey(beanDefinition)) {
+            return;
+        }
+
+        visited.put(beanDefinition, false);
+        path.add(beanDefinition);
+
+        for (BeanDefinition dependency : resolvedDependencies.getOrDefault(beanDefinition, List.of())) {
+            Boolean finished = visited.get(dependency);
+            if (finished == null) {
+                findCycles(dependency, resolvedDependencies, visited, path, problems);
+            } else if (!finished) {
+                List<BeanDefinition> cycle = new ArrayList<>(path.subList(path.indexOf(dependency), path.size()));
+                cycle.add(dependency);
+                problems.add(new ValidationProblem(ValidationProblem.Type.CircularDependency, dependency.getId(),
+                        String.format("Circular dependency found: %s", cycle.stream().map(BeanDefinition::getId).collect(Collectors.joining(" -> ")))));
+            }
+        }
+
+        path.remove(path.size() - 1);
+        visited.put(beanDefinition, true);
+    }
+
+    private static String describe(BeanDependency dependency) {
+        if (dependency.getId() != null) {
+            return String.format("%s (id %s)", dependency.getClazz().getName(), dependency.getId());
+        }
+
+        return dependency.getGenericTypeName() != null ? dependency.getGenericTypeName() : dependency.getClazz().getName();
+    }
+}
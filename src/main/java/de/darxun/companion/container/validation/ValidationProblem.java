@@ -0,0 +1,52 @@
+package de.darxun.companion.container.validation;
+
+/**
+ * A problem found while validating the bean graph
+ */
+public class ValidationProblem {
+
+    public enum Type {
+        /** the BeanDefinition of a bean class could not be computed, e.g. because of conflicting scopes */
+        InvalidBean,
+        /** the id of a bean is used by another bean already */
+        DuplicateBeanId,
+        /** no bean matches a dependency */
+        MissingDependency,
+        /** more than one bean matches a dependency */
+        AmbiguousDependency,
+        /** beans depend on each other (transitively) */
+        CircularDependency
+    }
+
+    private final Type type;
+
+    private final String beanId;
+
+    private final String message;
+
+    public ValidationProblem(Type type, String beanId, String message) {
+        this.type = type;
+        this.beanId = beanId;
+        this.message = message;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the id of the bean (or the name of the bean class, if the BeanDefinition could not be computed) the problem was found for
+     */
+    public String getBeanId() {
+        return beanId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return type + " (" + beanId + "): " + message;
+    }
+}
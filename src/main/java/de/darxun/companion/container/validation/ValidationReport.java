@@ -0,0 +1,67 @@
+package de.darxun.companion.container.validation;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Result of validating the bean graph without creating any bean (see CompanionContainer.validate)
+ */
+public class ValidationReport {
+
+    private final int beanCount;
+
+    private final List<ValidationProblem> problems;
+
+    private final Duration duration;
+
+    public ValidationReport(int beanCount, List<ValidationProblem> problems, Duration duration) {
+        this.beanCount = beanCount;
+        this.problems = Collections.unmodifiableList(problems);
+        this.duration = duration;
+    }
+
+    /**
+     * @return true, if no problems were found and the container can be set up
+     */
+    public boolean isValid() {
+        return problems.isEmpty();
+    }
+
+    /**
+     * @return the number of validated beans
+     */
+    public int getBeanCount() {
+        return beanCount;
+    }
+
+    public List<ValidationProblem> getProblems() {
+        return problems;
+    }
+
+    /**
+     * @param type the type of the problems
+     * @return the problems of the given type
+     */
+    public List<ValidationProblem> getProblems(ValidationProblem.Type type) {
+        return problems.stream().filter(problem -> problem.getType() == type).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the time spent scanning, computing the BeanDefinitions and resolving the dependencies
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("Validated %d beans in %.3f ms, %d problems", beanCount, duration.toNanos() / 1_000_000.0, problems.size()));
+        for (ValidationProblem problem : problems) {
+            sb.append("\n  ").append(problem);
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package de.darxun.companion.junit;
+
+import de.darxun.companion.BeanContainer;
+import de.darxun.companion.container.CompanionContainer;
+import de.darxun.companion.container.CompanionSettings;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import java.lang.reflect.Field;
+
+/**
+ * JUnit 5 extension of @CompanionTest-classes, sharing one CompanionContainer per configuration (the values of @CompanionTest)
+ * across all test classes of a test run. The containers are kept in the store of the root context and closed at the end of the run,
+ * so the classpath is scanned and the beans are created once per configuration instead of once per test class.
+ * <p>
+ * Before every test the @ReplaceBean-fields of the test instances replace their beans in an overlay of the shared container,
+ * after every test the replacements are removed and the thread-scope instances are discarded, so tests do not see each others state.
+ * Tests replacing beans must therefore not run concurrently with other tests of the same configuration.
+ * <p>
+ * Test constructors and methods may declare parameters of type CompanionContainer or BeanContainer.
+ */
+public class CompanionExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(CompanionExtension.class);
+
+    /** the configuration of test classes registering the extension without @CompanionTest */
+    private static final CompanionTest DEFAULT_CONFIGURATION = DefaultConfiguration.class.getAnnotation(CompanionTest.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) throws Exception {
+        CompanionContainer container = getContainer(context);
+
+        for (Object testInstance : context.getRequiredTestInstances().getAllInstances()) {
+            for (Class<?> clazz = testInstance.getClass(); clazz != Object.class; clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    ReplaceBean replaceBean = field.getAnnotation(ReplaceBean.class);
+                    if (replaceBean != null) {
+                        replaceBean(container, field, replaceBean, testInstance);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        CompanionContainer container = getContainer(context);
+
+        container.clearOverrides();
+        container.resetThreadScope();
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Class<?> type = parameterContext.getParameter().getType();
+
+        return type == CompanionContainer.class || type == BeanContainer.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return getContainer(extensionContext);
+    }
+
+    private static void replaceBean(CompanionContainer container, Field field, ReplaceBean replaceBean, Object testInstance) throws IllegalAccessException {
+        field.setAccessible(true);
+        Object testDouble = field.get(testInstance);
+        if (testDouble == null) {
+            throw new IllegalStateException(String.format("The @ReplaceBean-field %s of %s is not initialized", field.getName(), field.getDeclaringClass().getName()));
+        }
+
+        if (replaceBean.value().isEmpty()) {
+            overrideBean(container, field.getType(), testDouble);
+        } else {
+            container.overrideBean(replaceBean.value(), testDouble);
+        }
+    }
+
+    private static <T> void overrideBean(CompanionContainer container, Class<T> type, Object testDouble) {
+        container.overrideBean(type, type.cast(testDouble));
+    }
+
+    /**
+     * Returns the container of the configuration of the current test class, setting it up on first use
+     */
+    private static CompanionContainer getContainer(ExtensionContext context) {
+        CompanionTest configuration = getConfiguration(context.getRequiredTestClass());
+
+        // annotations are equal if their values are, so test classes of the same configuration share the container
+        return context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent(configuration, key -> new SharedContainer(configuration), SharedContainer.class)
+                .container;
+    }
+
+    /**
+     * Returns the @CompanionTest of the given test class or of its enclosing classes (e.g. of @Nested-classes)
+     */
+    private static CompanionTest getConfiguration(Class<?> testClass) {
+        for (Class<?> clazz = testClass; clazz != null; clazz = clazz.getEnclosingClass()) {
+            CompanionTest configuration = clazz.getAnnotation(CompanionTest.class);
+            if (configuration != null) {
+                return configuration;
+            }
+        }
+
+        return DEFAULT_CONFIGURATION;
+    }
+
+    /**
+     * A container shared by the test classes of a configuration, closed along with the root context.
+     * JUnit 5.13 and later close AutoCloseable values of the store, earlier versions CloseableResources only.
+     */
+    private static final class SharedContainer implements ExtensionContext.Store.CloseableResource, AutoCloseable {
+
+        private final CompanionContainer container;
+
+        private SharedContainer(CompanionTest configuration) {
+            CompanionSettings settings = new CompanionSettings();
+            settings.setRoots(configuration.roots());
+            settings.setWarmupEnabled(configuration.warmup());
+            settings.setBeanIndexEnabled(configuration.beanIndex());
+
+            this.container = CompanionContainer.setup(settings);
+        }
+
+        @Override
+        public void close() {
+            container.close();
+        }
+    }
+
+    @CompanionTest
+    private static final class DefaultConfiguration {
+    }
+}
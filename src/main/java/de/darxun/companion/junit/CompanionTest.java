@@ -0,0 +1,30 @@
+package de.darxun.companion.junit;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks a JUnit 5 test class to be run with a CompanionContainer, that is shared by all test classes of the same configuration (see CompanionExtension).
+ */
+@Target({ TYPE })
+@Retention(RUNTIME)
+@Inherited
+@ExtendWith(CompanionExtension.class)
+public @interface CompanionTest {
+
+    /** the roots of the container, all beans are created on setup if none are set (see CompanionSettings.setRoots) */
+    Class<?>[] roots() default {};
+
+    /** true to warm up the beans on setup */
+    boolean warmup() default false;
+
+    /** true to read the bean index instead of scanning the classpath (see CompanionSettings.setBeanIndexEnabled) */
+    boolean beanIndex() default false;
+
+}
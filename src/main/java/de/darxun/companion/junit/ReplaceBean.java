@@ -0,0 +1,20 @@
+package de.darxun.companion.junit;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks a field of a @CompanionTest-class holding a test double, that replaces the bean of the fields type (or with the given id)
+ * while a test is executed (see CompanionContainer.overrideBean). The field is read after the @BeforeEach-methods.
+ */
+@Target({ FIELD })
+@Retention(RUNTIME)
+public @interface ReplaceBean {
+
+    /** the id of the replaced bean, the bean is looked up by the type of the field if empty */
+    String value() default "";
+
+}
@@ -0,0 +1,109 @@
+package de.darxun.companion.processor;
+
+import de.darxun.companion.container.model.BeanScope;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compile-time counterpart of a BeanDefinition, describing a bean as it is wired by the generated container
+ */
+class BeanModel {
+
+    private final TypeElement element;
+
+    private final String id;
+
+    private final BeanScope scope;
+
+    private final ExecutableElement constructor;
+
+    /** binary names of all types the bean can be retrieved and injected by */
+    private final Set<String> assignableTypes = new LinkedHashSet<>();
+
+    /** all parameterized supertypes of the bean with resolved type arguments, e.g. Repository<User> */
+    private final Set<String> genericTypes = new LinkedHashSet<>();
+
+    /** all interfaces of the bean, as seen from the bean class */
+    private final List<DeclaredType> interfaces = new ArrayList<>();
+
+    private final List<BeanModel> dependencies = new ArrayList<>();
+
+    private final List<String> postConstructMethods = new ArrayList<>();
+
+    private final List<String> preDestroyMethods = new ArrayList<>();
+
+    private int index;
+
+    BeanModel(TypeElement element, String id, BeanScope scope, ExecutableElement constructor) {
+        this.element = element;
+        this.id = id;
+        this.scope = scope;
+        this.constructor = constructor;
+    }
+
+    TypeElement getElement() {
+        return element;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    BeanScope getScope() {
+        return scope;
+    }
+
+    ExecutableElement getConstructor() {
+        return constructor;
+    }
+
+    Set<String> getAssignableTypes() {
+        return assignableTypes;
+    }
+
+    Set<String> getGenericTypes() {
+        return genericTypes;
+    }
+
+    List<DeclaredType> getInterfaces() {
+        return interfaces;
+    }
+
+    List<BeanModel> getDependencies() {
+        return dependencies;
+    }
+
+    List<String> getPostConstructMethods() {
+        return postConstructMethods;
+    }
+
+    List<String> getPreDestroyMethods() {
+        return preDestroyMethods;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * @return the name of the bean class to be used in source code
+     */
+    String getSourceName() {
+        return element.getQualifiedName().toString();
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
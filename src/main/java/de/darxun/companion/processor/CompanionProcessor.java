@@ -0,0 +1,604 @@
+package de.darxun.companion.processor;
+
+import de.darxun.companion.container.model.BeanScope;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Annotation processor generating a GeneratedCompanionContainer, which wires the @Beans of the compiled sources
+ * with plain constructor calls in dependency order. No classpath scanning, reflection or proxies are needed at runtime
+ * and missing, ambiguous or cyclic dependencies are reported as compile errors.
+ *
+ * As the processor is shipped along with the runtime container it only generates the container if the compiler option
+ * -Acompanion.generate is set. The package of the container may be set via -Acompanion.package, it defaults to the
+ * common package of all beans.
+ */
+@SupportedAnnotationTypes(CompanionProcessor.BEAN_ANNOTATION)
+@SupportedOptions({ CompanionProcessor.GENERATE_OPTION, CompanionProcessor.PACKAGE_OPTION })
+public class CompanionProcessor extends AbstractProcessor {
+
+    static final String BEAN_ANNOTATION = "de.darxun.companion.api.Bean";
+
+    static final String GENERATE_OPTION = "companion.generate";
+
+    static final String PACKAGE_OPTION = "companion.package";
+
+    static final String CONTAINER_NAME = "GeneratedCompanionContainer";
+
+    private static final String DEFAULT_PACKAGE = "de.darxun.companion.generated";
+
+    private static final String INJECT_ANNOTATION = "javax.inject.Inject";
+
+    private static final String NAMED_ANNOTATION = "javax.inject.Named";
+
+    private static final String POST_CONSTRUCT_ANNOTATION = "javax.annotation.PostConstruct";
+
+    private static final String PRE_DESTROY_ANNOTATION = "javax.annotation.PreDestroy";
+
+    private static final String INTERCEPT_ANNOTATION = "de.darxun.companion.api.Intercept";
+
+    private static final String SUBSCRIBE_ANNOTATION = "de.darxun.companion.api.Subscribe";
+
+    private static final String ASYNC_ANNOTATION = "de.darxun.companion.api.Async";
+
+    private static final Map<String, BeanScope> SCOPE_ANNOTATIONS = Map.of(
+            "de.darxun.companion.api.ThreadScope", BeanScope.Thread,
+            "de.darxun.companion.api.Pooled", BeanScope.Pooled,
+            "de.darxun.companion.api.Striped", BeanScope.Striped,
+            "de.darxun.companion.api.Prototype", BeanScope.Prototype,
+            "de.darxun.companion.api.TaskScope", BeanScope.Task);
+
+    private Elements elements;
+
+    private Types types;
+
+    private Messager messager;
+
+    /** the container is generated once, beans of later rounds (generated sources) are not considered */
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // -Acompanion.generate is passed without value
+        boolean enabled = processingEnv.getOptions().containsKey(GENERATE_OPTION) && !"false".equals(processingEnv.getOptions().get(GENERATE_OPTION));
+        if (generated || !enabled || annotations.isEmpty()) {
+            return false;
+        }
+
+        generated = true;
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        messager = processingEnv.getMessager();
+
+        List<TypeElement> beanElements = new ArrayList<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(elements.getTypeElement(BEAN_ANNOTATION))) {
+            if (element.getKind() == ElementKind.CLASS) {
+                beanElements.add((TypeElement) element);
+            }
+        }
+        // a stable order keeps the generated source reproducible
+        beanElements.sort(Comparator.comparing(element -> elements.getBinaryName(element).toString()));
+
+        String packageName = processingEnv.getOptions().getOrDefault(PACKAGE_OPTION, getCommonPackage(beanElements));
+
+        List<BeanModel> beans = new ArrayList<>();
+        for (TypeElement beanElement : beanElements) {
+            BeanModel bean = analyzeBean(beanElement, packageName);
+            if (bean != null) {
+                beans.add(bean);
+            }
+        }
+
+        if (beans.size() != beanElements.size() || !resolveDependencies(beans)) {
+            return false;
+        }
+
+        List<BeanModel> orderedBeans = sortByDependencies(beans);
+        if (orderedBeans == null) {
+            return false;
+        }
+
+        writeContainer(packageName, orderedBeans, beanElements);
+
+        return false;
+    }
+
+    /**
+     * Computes the BeanModel for the given @Bean-class, reporting errors for beans the generated container cannot create
+     * @return the BeanModel or null, if errors were reported
+     */
+    private BeanModel analyzeBean(TypeElement element, String packageName) {
+        boolean valid = true;
+
+        if (element.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(element, "The bean class (%s) must not be abstract", element.getQualifiedName());
+            valid = false;
+        }
+        if (element.getNestingKind().isNested() && !element.getModifiers().contains(Modifier.STATIC)) {
+            error(element, "The nested bean class (%s) must be static", element.getQualifiedName());
+            valid = false;
+        }
+        if (!isAccessible(element, packageName)) {
+            error(element, "The bean class (%s) must be public to be created by the generated container", element.getQualifiedName());
+            valid = false;
+        }
+
+        ExecutableElement constructor = getInjectableConstructor(element);
+        if (constructor == null) {
+            error(element, "No single injectable constructor found for class %s", element.getQualifiedName());
+            valid = false;
+        }
+
+        List<BeanScope> scopes = new ArrayList<>(1);
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            BeanScope scope = SCOPE_ANNOTATIONS.get(getName(annotationMirror));
+            if (scope != null) {
+                scopes.add(scope);
+            }
+        }
+
+        if (scopes.size() > 1) {
+            error(element, "The class (%s) must not declare more than one scope but declares %s", element.getQualifiedName(), scopes);
+            return null;
+        }
+
+        BeanScope scope = scopes.isEmpty() ? BeanScope.Singleton : scopes.get(0);
+        if (scope == BeanScope.Pooled || scope == BeanScope.Striped || scope == BeanScope.Task) {
+            error(element, "The scope %s of class (%s) is not supported by the generated container", scope, element.getQualifiedName());
+            valid = false;
+        }
+
+        if (getAnnotation(element, INTERCEPT_ANNOTATION) != null
+                || element.getEnclosedElements().stream().anyMatch(enclosed -> getAnnotation(enclosed, INTERCEPT_ANNOTATION) != null)) {
+            error(element, "Interceptors of class (%s) are not supported by the generated container", element.getQualifiedName());
+            valid = false;
+        }
+        if (element.getEnclosedElements().stream().anyMatch(enclosed -> getAnnotation(enclosed, SUBSCRIBE_ANNOTATION) != null)) {
+            error(element, "@Subscribe-methods of class (%s) are not supported by the generated container", element.getQualifiedName());
+            valid = false;
+        }
+        if (hasAsyncMethods(element)) {
+            error(element, "@Async-methods of class (%s) are not supported by the generated container", element.getQualifiedName());
+            valid = false;
+        }
+
+        String beanId = getBeanId(element);
+        if (beanId.trim().length() == 0) {
+            error(element, "The id (%s) is not a valid bean id.", beanId);
+            valid = false;
+        }
+
+        if (!valid) {
+            return null;
+        }
+
+        BeanModel bean = new BeanModel(element, beanId, scope, constructor);
+        collectSupertypes(bean, (DeclaredType) element.asType());
+        if (scope == BeanScope.Thread && bean.getInterfaces().isEmpty()) {
+            error(element, "The class (%s) must implement atleast one interface in order to register for a ThreadScope-Bean", element.getQualifiedName());
+            return null;
+        }
+        if (scope != BeanScope.Thread) {
+            // thread-scope beans are injected as delegates implementing the interfaces of the bean only
+            bean.getAssignableTypes().add(elements.getBinaryName(element).toString());
+        }
+
+        if (!collectLifecycleMethods(element, POST_CONSTRUCT_ANNOTATION, bean.getPostConstructMethods(), packageName)
+                || !collectLifecycleMethods(element, PRE_DESTROY_ANNOTATION, bean.getPreDestroyMethods(), packageName)) {
+            return null;
+        }
+
+        return bean;
+    }
+
+    /**
+     * Returns the injectable constructor following the rules of the runtime container:
+     * the only public constructor or the only public constructor annotated with @Inject
+     */
+    private ExecutableElement getInjectableConstructor(TypeElement element) {
+        List<ExecutableElement> constructors = new ArrayList<>();
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                constructors.add(constructor);
+            }
+        }
+
+        if (constructors.size() == 1) {
+            return constructors.get(0);
+        }
+
+        ExecutableElement injectableConstructor = null;
+        for (ExecutableElement constructor : constructors) {
+            if (getAnnotation(constructor, INJECT_ANNOTATION) != null) {
+                if (injectableConstructor != null) {
+                    return null;
+                }
+                injectableConstructor = constructor;
+            }
+        }
+
+        return injectableConstructor;
+    }
+
+    /**
+     * Adds the binary names of all superclasses and interfaces (except Object) to the assignable types of the bean
+     */
+    private void collectSupertypes(BeanModel bean, TypeMirror type) {
+        for (TypeMirror supertype : types.directSupertypes(type)) {
+            TypeElement supertypeElement = (TypeElement) types.asElement(supertype);
+            String binaryName = elements.getBinaryName(supertypeElement).toString();
+
+            if (binaryName.equals(Object.class.getName())) {
+                continue;
+            }
+            if (isResolvedGenericType(supertype) && (supertypeElement.getKind() == ElementKind.INTERFACE || bean.getScope() != BeanScope.Thread)) {
+                bean.getGenericTypes().add(supertype.toString());
+            }
+            if (!bean.getAssignableTypes().add(binaryName)) {
+                continue;
+            }
+
+            if (supertypeElement.getKind() == ElementKind.INTERFACE) {
+                bean.getInterfaces().add((DeclaredType) supertype);
+            } else if (bean.getScope() == BeanScope.Thread) {
+                bean.getAssignableTypes().remove(binaryName);
+            }
+
+            collectSupertypes(bean, supertype);
+        }
+    }
+
+    /**
+     * Collects the names of the methods annotated with the given lifecycle-annotation, methods of superclasses first
+     * @return false, if a method cannot be called by the generated container
+     */
+    private boolean collectLifecycleMethods(TypeElement element, String annotation, List<String> methodNames, String packageName) {
+        TypeMirror superclass = element.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED && !collectLifecycleMethods((TypeElement) types.asElement(superclass), annotation, methodNames, packageName)) {
+            return false;
+        }
+
+        for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+            if (getAnnotation(method, annotation) == null) {
+                // a lifecycle-method overridden without the annotation is not called at all (see JSR-250)
+                if (method.getParameters().isEmpty() && overridesLifecycleMethod(method, element, annotation)) {
+                    methodNames.remove(method.getSimpleName().toString());
+                }
+                continue;
+            }
+
+            if (!method.getParameters().isEmpty() || method.getModifiers().contains(Modifier.STATIC)) {
+                error(method, "The lifecycle-method (%s) must neither be static nor declare parameters", method.getSimpleName());
+                return false;
+            }
+            if (!isAccessible(method, packageName)) {
+                error(method, "The lifecycle-method (%s) must be public to be called by the generated container", method.getSimpleName());
+                return false;
+            }
+
+            // overriding methods are called once
+            String methodName = method.getSimpleName().toString();
+            if (!methodNames.contains(methodName)) {
+                methodNames.add(methodName);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if the given method overrides a method of a superclass of the given type annotated with the given lifecycle-annotation
+     */
+    private boolean overridesLifecycleMethod(ExecutableElement method, TypeElement element, String annotation) {
+        for (TypeMirror superclass = element.getSuperclass(); superclass.getKind() == TypeKind.DECLARED; ) {
+            TypeElement superclassElement = (TypeElement) types.asElement(superclass);
+            for (ExecutableElement superclassMethod : ElementFilter.methodsIn(superclassElement.getEnclosedElements())) {
+                if (getAnnotation(superclassMethod, annotation) != null && elements.overrides(method, superclassMethod, element)) {
+                    return true;
+                }
+            }
+            superclass = superclassElement.getSuperclass();
+        }
+
+        return false;
+    }
+
+    /**
+     * Resolves the dependencies of all beans by @Named-id or by type, reporting missing and ambiguous dependencies
+     * @return false, if errors were reported
+     */
+    private boolean resolveDependencies(List<BeanModel> beans) {
+        Map<String, BeanModel> beansById = new HashMap<>();
+        for (BeanModel bean : beans) {
+            BeanModel duplicate = beansById.put(bean.getId(), bean);
+            if (duplicate != null) {
+                error(bean.getElement(), "The id (%s) is used by %s and %s", bean.getId(), duplicate.getSourceName(), bean.getSourceName());
+                return false;
+            }
+        }
+
+        boolean valid = true;
+        for (BeanModel bean : beans) {
+            for (VariableElement parameter : bean.getConstructor().getParameters()) {
+                TypeMirror parameterType = types.erasure(parameter.asType());
+                if (parameterType.getKind() != TypeKind.DECLARED) {
+                    error(parameter, "The dependency (%s) of %s is no bean type", parameterType, bean.getSourceName());
+                    valid = false;
+                    continue;
+                }
+                String parameterTypeName = elements.getBinaryName((TypeElement) types.asElement(parameterType)).toString();
+
+                List<BeanModel> hits = new ArrayList<>(1);
+                String namedId = getNamedId(parameter);
+                if (namedId != null) {
+                    BeanModel hit = beansById.get(namedId);
+                    if (hit != null) {
+                        hits.add(hit);
+                    }
+                } else if (isResolvedGenericType(parameter.asType())) {
+                    // parameterized types (e.g. Repository<User>) are matched by the resolved supertypes first, by raw type otherwise
+                    for (BeanModel candidate : beans) {
+                        if (candidate.getGenericTypes().contains(parameter.asType().toString())) {
+                            hits.add(candidate);
+                        }
+                    }
+                }
+
+                if (namedId == null && hits.isEmpty()) {
+                    // beans resolving the raw type with other type arguments (e.g. Repository<String> for Repository<Long>) do not match
+                    String otherParameterizationPrefix = isResolvedGenericType(parameter.asType()) ? types.erasure(parameter.asType()).toString() + "<" : null;
+                    for (BeanModel candidate : beans) {
+                        if (candidate.getAssignableTypes().contains(parameterTypeName) && !hasGenericTypeStartingWith(candidate, otherParameterizationPrefix)) {
+                            hits.add(candidate);
+                        }
+                    }
+                }
+
+                if (hits.isEmpty()) {
+                    error(parameter, "No bean found for dependency %s of %s", namedId != null ? namedId : parameterTypeName, bean.getSourceName());
+                    valid = false;
+                } else if (hits.size() > 1) {
+                    error(parameter, "No unique bean found for dependency %s of %s, candidates are %s", parameterTypeName, bean.getSourceName(), hits);
+                    valid = false;
+                } else if (!hits.get(0).getAssignableTypes().contains(parameterTypeName)) {
+                    error(parameter, "The bean %s is not assignable to dependency %s of %s", namedId, parameterTypeName, bean.getSourceName());
+                    valid = false;
+                } else {
+                    bean.getDependencies().add(hits.get(0));
+                }
+            }
+        }
+
+        return valid;
+    }
+
+    /**
+     * Sorts the beans, so every bean follows its dependencies
+     * @return the sorted beans or null, if a cyclic dependency was reported
+     */
+    private List<BeanModel> sortByDependencies(List<BeanModel> beans) {
+        List<BeanModel> orderedBeans = new ArrayList<>(beans.size());
+        Set<BeanModel> visited = new HashSet<>();
+
+        for (BeanModel bean : beans) {
+            if (!visit(bean, new ArrayList<>(), visited, orderedBeans)) {
+                return null;
+            }
+        }
+
+        for (int i = 0; i < orderedBeans.size(); i++) {
+            orderedBeans.get(i).setIndex(i);
+        }
+
+        return orderedBeans;
+    }
+
+    private boolean visit(BeanModel bean, List<BeanModel> history, Set<BeanModel> visited, List<BeanModel> orderedBeans) {
+        if (history.contains(bean)) {
+            List<BeanModel> circle = new ArrayList<>(history.subList(history.indexOf(bean), history.size()));
+            circle.add(bean);
+            error(bean.getElement(), "Circular dependency found: %s", circle);
+            return false;
+        }
+        if (!visited.add(bean)) {
+            return true;
+        }
+
+        history.add(bean);
+        for (BeanModel dependency : bean.getDependencies()) {
+            if (!visit(dependency, history, visited, orderedBeans)) {
+                return false;
+            }
+        }
+        history.remove(history.size() - 1);
+
+        orderedBeans.add(bean);
+        return true;
+    }
+
+    /**
+     * Returns true, if one of the resolved generic supertypes of the given bean starts with the given prefix, false if the prefix is null
+     */
+    private static boolean hasGenericTypeStartingWith(BeanModel bean, String prefix) {
+        if (prefix == null) {
+            return false;
+        }
+
+        for (String genericType : bean.getGenericTypes()) {
+            if (genericType.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns true, if the given type is a parameterized type without type variables or wildcards
+     */
+    private boolean isResolvedGenericType(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty() && isResolvedType(type);
+    }
+
+    private boolean isResolvedType(TypeMirror type) {
+        switch (type.getKind()) {
+            case DECLARED:
+                return ((DeclaredType) type).getTypeArguments().stream().allMatch(this::isResolvedType);
+            case ARRAY:
+                return isResolvedType(((ArrayType) type).getComponentType());
+            default:
+                return type.getKind().isPrimitive();
+        }
+    }
+
+    private void writeContainer(String packageName, List<BeanModel> beans, List<TypeElement> originatingElements) {
+        String source = new ContainerSourceWriter(packageName, CONTAINER_NAME, beans, elements, types).write();
+
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(packageName + "." + CONTAINER_NAME, originatingElements.toArray(new Element[0]));
+            try (Writer writer = sourceFile.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, String.format("Could not write %s: %s", CONTAINER_NAME, e.getMessage()));
+        }
+    }
+
+    /**
+     * Returns the id of the bean, defaulting to the binary class name like BeanDefinitionHelper.getBeanId
+     */
+    private String getBeanId(TypeElement element) {
+        String beanId = getAnnotationValue(getAnnotation(element, BEAN_ANNOTATION));
+
+        return beanId == null || beanId.equals("") ? elements.getBinaryName(element).toString() : beanId;
+    }
+
+    private String getNamedId(VariableElement parameter) {
+        AnnotationMirror namedAnnotation = getAnnotation(parameter, NAMED_ANNOTATION);
+        if (namedAnnotation == null) {
+            return null;
+        }
+
+        String namedId = getAnnotationValue(namedAnnotation);
+        if (namedId == null || namedId.trim().length() == 0) {
+            error(parameter, "The id (%s) is not a valid bean id", namedId);
+            return null;
+        }
+
+        return namedId;
+    }
+
+    private String getCommonPackage(List<TypeElement> beanElements) {
+        String commonPackage = null;
+
+        for (TypeElement beanElement : beanElements) {
+            String packageName = elements.getPackageOf(beanElement).getQualifiedName().toString();
+
+            if (commonPackage == null) {
+                commonPackage = packageName;
+            }
+            while (!packageName.equals(commonPackage) && !packageName.startsWith(commonPackage + ".")) {
+                int lastDot = commonPackage.lastIndexOf('.');
+                commonPackage = lastDot < 0 ? "" : commonPackage.substring(0, lastDot);
+                if (commonPackage.isEmpty()) {
+                    return DEFAULT_PACKAGE;
+                }
+            }
+        }
+
+        return commonPackage == null || commonPackage.isEmpty() ? DEFAULT_PACKAGE : commonPackage;
+    }
+
+    /**
+     * Returns true, if the generated container in the given package may access the element
+     */
+    private boolean isAccessible(Element element, String packageName) {
+        for (Element current = element; current.getKind() != ElementKind.PACKAGE; current = current.getEnclosingElement()) {
+            Set<Modifier> modifiers = current.getModifiers();
+
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(current).getQualifiedName().contentEquals(packageName)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns true if a method of the given class or of one of its interfaces is annotated with @Async
+     */
+    private static boolean hasAsyncMethods(TypeElement element) {
+        if (element.getEnclosedElements().stream().anyMatch(enclosed -> getAnnotation(enclosed, ASYNC_ANNOTATION) != null)) {
+            return true;
+        }
+
+        for (TypeMirror interfaceType : element.getInterfaces()) {
+            if (interfaceType.getKind() == TypeKind.DECLARED && hasAsyncMethods((TypeElement) ((DeclaredType) interfaceType).asElement())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static AnnotationMirror getAnnotation(Element element, String annotation) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            if (getName(annotationMirror).equals(annotation)) {
+                return annotationMirror;
+            }
+        }
+
+        return null;
+    }
+
+    private static String getName(AnnotationMirror annotationMirror) {
+        return ((TypeElement) annotationMirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    /**
+     * Returns the value()-attribute of the given annotation
+     */
+    private static String getAnnotationValue(AnnotationMirror annotationMirror) {
+        if (annotationMirror == null) {
+            return null;
+        }
+
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationMirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return entry.getValue().getValue().toString();
+            }
+        }
+
+        return null;
+    }
+
+    private void error(Element element, String format, Object... args) {
+        messager.printMessage(Diagnostic.Kind.ERROR, String.format(format, args), element);
+    }
+}
@@ -0,0 +1,305 @@
+package de.darxun.companion.processor;
+
+import de.darxun.companion.container.model.BeanScope;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the source of the generated container for the given beans (sorted by dependencies)
+ */
+class ContainerSourceWriter {
+
+    private final String packageName;
+
+    private final String containerName;
+
+    private final List<BeanModel> beans;
+
+    private final Elements elements;
+
+    private final Types types;
+
+    private final StringBuilder source = new StringBuilder();
+
+    ContainerSourceWriter(String packageName, String containerName, List<BeanModel> beans, Elements elements, Types types) {
+        this.packageName = packageName;
+        this.containerName = containerName;
+        this.beans = beans;
+        this.elements = elements;
+        this.types = types;
+    }
+
+    String write() {
+        line(0, "package %s;", packageName);
+        line(0, "");
+        line(0, "/**");
+        line(0, " * Container wiring the @Beans with plain constructor calls, generated by %s.", CompanionProcessor.class.getName());
+        line(0, " */");
+        line(0, "public final class %s implements de.darxun.companion.BeanContainer {", containerName);
+
+        writeFields();
+        writeConstructor();
+        writeGetBeanById();
+        writeGetBeanByClass();
+        writeClose();
+        writeFactoryMethods();
+        writeThreadScopeDelegates();
+
+        line(0, "}");
+
+        return source.toString();
+    }
+
+    private void writeFields() {
+        line(1, "");
+        line(1, "private final java.util.concurrent.atomic.AtomicBoolean closed = new java.util.concurrent.atomic.AtomicBoolean();");
+
+        for (BeanModel bean : beans) {
+            if (bean.getScope() == BeanScope.Singleton) {
+                line(1, "");
+                line(1, "private final %s %s;", bean.getSourceName(), field(bean));
+            } else if (bean.getScope() == BeanScope.Thread) {
+                line(1, "");
+                line(1, "private final %s %s;", delegate(bean), field(bean));
+            }
+        }
+    }
+
+    private void writeConstructor() {
+        line(1, "");
+        line(1, "public %s() {", containerName);
+        for (BeanModel bean : beans) {
+            if (bean.getScope() == BeanScope.Singleton) {
+                line(2, "%s = %s();", field(bean), factory(bean));
+            } else if (bean.getScope() == BeanScope.Thread) {
+                line(2, "%s = new %s();", field(bean), delegate(bean));
+            }
+        }
+        line(1, "}");
+    }
+
+    private void writeGetBeanById() {
+        line(1, "");
+        line(1, "@Override");
+        line(1, "public Object getBean(final String beanId) {");
+        line(2, "switch (beanId) {");
+        for (BeanModel bean : beans) {
+            line(3, "case %s:", literal(bean.getId()));
+            line(4, "return %s;", reference(bean));
+        }
+        line(3, "default:");
+        line(4, "throw new de.darxun.companion.BeanNotFoundException(String.format(\"No bean found for bean id %%s\", beanId));");
+        line(2, "}");
+        line(1, "}");
+
+        line(1, "");
+        line(1, "@Override");
+        line(1, "@SuppressWarnings(\"unchecked\")");
+        line(1, "public <T extends Object> T getBean(final String beanId, final Class<T> clazz) {");
+        line(2, "return (T) getBean(beanId);");
+        line(1, "}");
+    }
+
+    private void writeGetBeanByClass() {
+        // group the beans by the types they are assignable to, types of more than one bean are ambiguous
+        Map<String, List<BeanModel>> beansByType = new TreeMap<>();
+        for (BeanModel bean : beans) {
+            for (String type : bean.getAssignableTypes()) {
+                beansByType.computeIfAbsent(type, key -> new ArrayList<>()).add(bean);
+            }
+        }
+
+        line(1, "");
+        line(1, "@Override");
+        line(1, "@SuppressWarnings(\"unchecked\")");
+        line(1, "public <T extends Object> T getBean(final Class<T> clazz) {");
+        line(2, "switch (clazz.getName()) {");
+        for (BeanModel bean : beans) {
+            List<String> beanTypes = beansByType.entrySet().stream()
+                    .filter(entry -> entry.getValue().size() == 1 && entry.getValue().get(0) == bean)
+                    .map(Map.Entry::getKey).collect(Collectors.toList());
+
+            if (!beanTypes.isEmpty()) {
+                for (String type : beanTypes) {
+                    line(3, "case %s:", literal(type));
+                }
+                line(4, "return (T) %s;", reference(bean));
+            }
+        }
+
+        List<String> ambiguousTypes = beansByType.entrySet().stream().filter(entry -> entry.getValue().size() > 1).map(Map.Entry::getKey).collect(Collectors.toList());
+        if (!ambiguousTypes.isEmpty()) {
+            for (String type : ambiguousTypes) {
+                line(3, "case %s:", literal(type));
+            }
+            line(4, "throw new de.darxun.companion.NoUniqueBeanFoundException(String.format(\"No unique bean found for class %%s\", clazz));");
+        }
+
+        line(3, "default:");
+        line(4, "throw new de.darxun.companion.BeanNotFoundException(String.format(\"No bean found for class %%s\", clazz));");
+        line(2, "}");
+        line(1, "}");
+    }
+
+    private void writeClose() {
+        line(1, "");
+        line(1, "/**");
+        line(1, " * Calls the @PreDestroy-methods of the singleton-beans in reverse dependency order");
+        line(1, " */");
+        line(1, "@Override");
+        line(1, "public void close() {");
+        line(2, "if (!closed.compareAndSet(false, true)) {");
+        line(3, "return;");
+        line(2, "}");
+
+        for (int i = beans.size() - 1; i >= 0; i--) {
+            BeanModel bean = beans.get(i);
+            if (bean.getScope() != BeanScope.Singleton || bean.getPreDestroyMethods().isEmpty()) {
+                continue;
+            }
+
+            line(2, "try {");
+            for (String method : bean.getPreDestroyMethods()) {
+                line(3, "%s.%s();", field(bean), method);
+            }
+            line(2, "} catch (Exception e) {");
+            line(3, "System.getLogger(%s.class.getName()).log(System.Logger.Level.WARNING, \"Destroying bean %s failed\", e);", containerName, escape(bean.getId()));
+            line(2, "}");
+        }
+        line(1, "}");
+    }
+
+    private void writeFactoryMethods() {
+        for (BeanModel bean : beans) {
+            String arguments = bean.getDependencies().stream().map(this::reference).collect(Collectors.joining(", "));
+
+            line(1, "");
+            line(1, "private %s %s() {", bean.getSourceName(), factory(bean));
+            line(2, "try {");
+            line(3, "%s bean = new %s(%s);", bean.getSourceName(), bean.getSourceName(), arguments);
+            for (String method : bean.getPostConstructMethods()) {
+                line(3, "bean.%s();", method);
+            }
+            line(3, "return bean;");
+            line(2, "} catch (RuntimeException e) {");
+            line(3, "throw e;");
+            line(2, "} catch (Exception e) {");
+            line(3, "throw new de.darxun.companion.BeanCreationException(\"Bean %s could not be created\", e);", escape(bean.getId()));
+            line(2, "}");
+            line(1, "}");
+        }
+    }
+
+    /**
+     * Writes the delegates of the thread-scope beans, which implement the interfaces of the bean by calling the instance of the current thread
+     */
+    private void writeThreadScopeDelegates() {
+        for (BeanModel bean : beans) {
+            if (bean.getScope() != BeanScope.Thread) {
+                continue;
+            }
+
+            String interfaces = bean.getInterfaces().stream().map(TypeMirror::toString).collect(Collectors.joining(", "));
+
+            line(1, "");
+            line(1, "private final class %s implements %s {", delegate(bean), interfaces);
+            line(2, "");
+            line(2, "private final ThreadLocal<%s> instances = ThreadLocal.withInitial(%s.this::%s);", bean.getSourceName(), containerName, factory(bean));
+
+            Set<String> signatures = new HashSet<>();
+            for (DeclaredType interfaceType : bean.getInterfaces()) {
+                for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers((TypeElement) interfaceType.asElement()))) {
+                    if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE || method.getModifiers().contains(Modifier.STATIC)) {
+                        continue;
+                    }
+
+                    ExecutableType methodType = (ExecutableType) types.asMemberOf((DeclaredType) bean.getElement().asType(), method);
+                    String signature = method.getSimpleName() + methodType.getParameterTypes().stream().map(type -> types.erasure(type).toString()).collect(Collectors.joining(",", "(", ")"));
+                    if (signatures.add(signature)) {
+                        writeDelegateMethod(method, methodType);
+                    }
+                }
+            }
+
+            line(1, "}");
+        }
+    }
+
+    private void writeDelegateMethod(ExecutableElement method, ExecutableType methodType) {
+        StringBuilder typeVariables = new StringBuilder();
+        if (!methodType.getTypeVariables().isEmpty()) {
+            typeVariables.append(methodType.getTypeVariables().stream().map(this::declaration).collect(Collectors.joining(", ", "<", "> ")));
+        }
+
+        List<String> parameters = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < methodType.getParameterTypes().size(); i++) {
+            parameters.add(methodType.getParameterTypes().get(i) + " arg" + i);
+            arguments.add("arg" + i);
+        }
+
+        String exceptions = methodType.getThrownTypes().isEmpty() ? ""
+                : methodType.getThrownTypes().stream().map(TypeMirror::toString).collect(Collectors.joining(", ", " throws ", ""));
+        boolean isVoid = methodType.getReturnType().getKind() == TypeKind.VOID;
+
+        line(2, "");
+        line(2, "@Override");
+        line(2, "public %s%s %s(%s)%s {", typeVariables, methodType.getReturnType(), method.getSimpleName(), String.join(", ", parameters), exceptions);
+        line(3, "%sinstances.get().%s(%s);", isVoid ? "" : "return ", method.getSimpleName(), String.join(", ", arguments));
+        line(2, "}");
+    }
+
+    private String declaration(TypeVariable typeVariable) {
+        TypeMirror upperBound = typeVariable.getUpperBound();
+
+        return upperBound.toString().equals(Object.class.getName()) ? typeVariable.toString() : typeVariable + " extends " + upperBound;
+    }
+
+    /**
+     * Returns the expression referencing the given bean, prototype-beans are created on every reference
+     */
+    private String reference(BeanModel bean) {
+        return bean.getScope() == BeanScope.Prototype ? factory(bean) + "()" : field(bean);
+    }
+
+    private static String field(BeanModel bean) {
+        return "bean" + bean.getIndex();
+    }
+
+    private static String factory(BeanModel bean) {
+        return "createBean" + bean.getIndex();
+    }
+
+    private static String delegate(BeanModel bean) {
+        return "ThreadScopeBean" + bean.getIndex();
+    }
+
+    private static String literal(String value) {
+        return "\"" + escape(value) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void line(int indent, String format, Object... args) {
+        String line = String.format(format, args);
+        if (!line.isEmpty()) {
+            source.append("    ".repeat(indent)).append(line);
+        }
+        source.append('\n');
+    }
+}
@@ -0,0 +1,15 @@
+package de.darxun.companion.container;
+
+public abstract class AbstractRepository<T> implements Repository<T> {
+
+    private final Class<T> entityType;
+
+    protected AbstractRepository(Class<T> entityType) {
+        this.entityType = entityType;
+    }
+
+    @Override
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+}
@@ -0,0 +1,16 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Async;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncService {
+
+    @Async
+    CompletableFuture<Thread> getThread();
+
+    CompletableFuture<Thread> getCallingThread();
+
+    CompletableFuture<String> fail();
+
+}
@@ -0,0 +1,26 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Async;
+import de.darxun.companion.api.Bean;
+
+import java.util.concurrent.CompletableFuture;
+
+@Bean
+public class AsyncServiceImpl implements AsyncService {
+
+    @Override
+    public CompletableFuture<Thread> getThread() {
+        return CompletableFuture.completedFuture(Thread.currentThread());
+    }
+
+    @Override
+    public CompletableFuture<Thread> getCallingThread() {
+        return CompletableFuture.completedFuture(Thread.currentThread());
+    }
+
+    @Override
+    @Async
+    public CompletableFuture<String> fail() {
+        throw new IllegalStateException("failed");
+    }
+}
@@ -0,0 +1,39 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.MethodInterceptor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Bean
+public class CallCountingInterceptor implements MethodInterceptor {
+
+    private static final MethodHandle COUNT;
+
+    static {
+        try {
+            COUNT = MethodHandles.lookup().findVirtual(CallCountingInterceptor.class, "count", MethodType.methodType(void.class, Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public MethodHandle intercept(Method method, MethodHandle target) {
+        return MethodHandles.foldArguments(target, COUNT.bindTo(this));
+    }
+
+    private void count(Object bean, Object[] args) {
+        calls.incrementAndGet();
+    }
+
+    public int getCalls() {
+        return calls.get();
+    }
+}
@@ -1,8 +1,50 @@
 package de.darxun.companion.container;
 
+import de.darxun.companion.BeanComputationException;
+import de.darxun.companion.BeanCreationException;
 import de.darxun.companion.BeanNotFoundException;
+import de.darxun.companion.NoUniqueBeanFoundException;
+import de.darxun.companion.api.Async;
+import de.darxun.companion.api.TaskScope;
+import de.darxun.companion.api.ThreadScope;
+import de.darxun.companion.api.TypeLiteral;
+import de.darxun.companion.api.Warmup;
+import de.darxun.companion.container.footprint.BeanFootprint;
+import de.darxun.companion.container.footprint.FootprintReport;
+import de.darxun.companion.container.graph.BeanGraph;
+import de.darxun.companion.container.graph.BeanGraphNode;
+import de.darxun.companion.container.lifecycle.PackagePrivateLifecycleBase;
+import de.darxun.companion.container.model.BeanDefinition;
+import de.darxun.companion.container.model.BeanScope;
+import de.darxun.companion.container.model.beansupplier.BeanSupplier;
+import de.darxun.companion.container.model.beansupplier.PoolStatistics;
 import de.darxun.companion.container.util.BeanDefinitionHelper;
+import de.darxun.companion.container.validation.ValidationProblem;
+import de.darxun.companion.container.validation.ValidationReport;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,4 +84,852 @@ class CompanionContainerTest {
             }).start();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void pooled() throws Exception {
+        CompanionContainer container = CompanionContainer.setup();
+
+        PooledBean pooledBean = container.getBean(PooledBean.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final int value = i;
+                results.add(executor.submit(() -> pooledBean.process(value)));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i * 2, results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        PoolStatistics statistics = container.getPoolStatistics(BeanDefinitionHelper.getBeanId(PooledBeanImpl.class));
+        assertEquals(2, statistics.getMaxSize());
+        assertTrue(statistics.getSize() >= 1 && statistics.getSize() <= 2);
+        assertEquals(statistics.getSize(), statistics.getCreations());
+        // all calls completed, so every instance is idle again
+        assertEquals(statistics.getSize(), statistics.getIdle());
+        assertEquals(1000, statistics.getBorrows());
+        assertTrue(statistics.getWaits() <= statistics.getBorrows());
+        assertThrows(IllegalArgumentException.class, () -> container.getPoolStatistics("someProvider"));
+    }
+
+    @Test
+    void pooledPrototypeDependencies() {
+        CompanionContainer container = CompanionContainer.setup();
+
+        PooledBean pooledBean = container.getBean(PooledBean.class);
+
+        // the first instance is borrowed by the outer call, so the nested call creates the second one
+        PrototypeBean first = pooledBean.getPrototype();
+        List<PrototypeBean> nested = new ArrayList<>();
+        pooledBean.run(() -> nested.add(pooledBean.getPrototype()));
+
+        assertEquals(2, container.getPoolStatistics(BeanDefinitionHelper.getBeanId(PooledBeanImpl.class)).getCreations());
+        assertNotSame(first, nested.get(0));
+    }
+
+    @Test
+    void pooledTimeoutAndDestroy() throws Exception {
+        CompanionContainer container = CompanionContainer.setup();
+
+        PooledBean pooledBean = container.getBean(PooledBean.class);
+
+        // the third nested call waits for one of the two borrowed instances
+        assertThrows(IllegalStateException.class, () -> pooledBean.run(() -> pooledBean.run(() -> pooledBean.run(() -> {}))));
+
+        CountDownLatch borrowed = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        Thread borrower = new Thread(() -> pooledBean.run(() -> {
+            borrowed.countDown();
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        borrower.start();
+
+        assertTrue(borrowed.await(10, TimeUnit.SECONDS));
+        container.close();
+        closed.countDown();
+        borrower.join();
+
+        // both instances are destroyed, the one borrowed while closing as well: the nested call checks the second idle instance,
+        // which is the first idle one on the next call
+        for (int i = 0; i < 2; i++) {
+            pooledBean.run(() -> assertTrue(pooledBean.isDestroyed()));
+        }
+    }
+
+    @Test
+    void striped() throws Exception {
+        CompanionContainer container = CompanionContainer.setup();
+
+        StripedBean stripedBean = container.getBean(StripedBean.class);
+        assertSame(stripedBean.getInstance(), stripedBean.getInstance());
+
+        Map<Object, Boolean> instances = new IdentityHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(stripedBean::getInstance));
+            }
+
+            for (Future<Object> result : results) {
+                instances.put(result.get(), Boolean.TRUE);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(instances.size() <= 4);
+    }
+
+    @Test
+    void prototype() {
+        CompanionContainer container = CompanionContainer.setup();
+
+        PrototypeBean first = container.getBean(PrototypeBean.class);
+        PrototypeBean second = container.getBean(PrototypeBean.class);
+
+        assertNotSame(first, second);
+        assertSame(container.getBean("someProvider"), first.getProvider());
+        assertSame(first.getProvider(), second.getProvider());
+    }
+
+    @Test
+    void setupAsync() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompanionSetupFuture setupFuture = CompanionContainer.setupAsync(executor);
+
+            Provider provider = setupFuture.whenReady("someProvider", Provider.class).get(10, TimeUnit.SECONDS);
+            Consumer consumer = setupFuture.whenReady(Consumer.class).get(10, TimeUnit.SECONDS);
+            CompanionContainer container = setupFuture.get(10, TimeUnit.SECONDS);
+
+            assertSame(provider, container.getBean("someProvider"));
+            assertSame(consumer, container.getBean(Consumer.class));
+            assertSame(consumer, container.whenReady(Consumer.class).getNow(null));
+
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> container.whenReady(String.class).get());
+            assertTrue(exception.getCause() instanceof BeanNotFoundException);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void warmup() {
+        AtomicInteger callbackCalls = new AtomicInteger();
+
+        CompanionSettings settings = new CompanionSettings();
+        settings.setWarmupIterations(50);
+        settings.setWarmupParallelism(3);
+        settings.addWarmupCallback(container -> {
+            container.getBean(Consumer.class).add(1, 2);
+            callbackCalls.incrementAndGet();
+        });
+
+        CompanionContainer container = CompanionContainer.setup(settings);
+
+        assertEquals(100, container.getBean(WarmupBean.class).getCalls());
+        assertEquals(50, callbackCalls.get());
+        assertFalse(container.getWarmupDuration().isNegative());
+
+        settings.setWarmupEnabled(false);
+        assertEquals(0, CompanionContainer.setup(settings).getBean(WarmupBean.class).getCalls());
+    }
+
+    @Test
+    void warmupOfProxiedBean() {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setWarmupEnabled(false);
+
+        try (CompanionContainer container = CompanionContainer.setup(settings)) {
+            // the proxy of a thread-scope bean only dispatches the methods of its interfaces
+            BeanComputationException exception = assertThrows(BeanComputationException.class, () -> container.registerBean(ThreadScopeWarmupBean.class));
+            assertTrue(exception.getCause().getMessage().contains("@Warmup"), exception.getCause().getMessage());
+
+            container.registerBean(ThreadScopeInterfaceWarmupBean.class);
+        }
+    }
+
+    @ThreadScope
+    public static class ThreadScopeWarmupBean implements Runnable {
+
+        @Override
+        public void run() {
+        }
+
+        @Warmup
+        public void warmup() {
+        }
+    }
+
+    @ThreadScope
+    public static class ThreadScopeInterfaceWarmupBean implements Runnable {
+
+        @Override
+        @Warmup
+        public void run() {
+        }
+    }
+
+    @Test
+    void lifecycle() {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setWarmupEnabled(false);
+
+        LifecycleDependency.EVENTS.clear();
+        try (CompanionContainer container = CompanionContainer.setup(settings)) {
+            assertNotNull(container.getBean(LifecycleBean.class));
+            assertEquals(Arrays.asList("dependency:init", "bean:init"), LifecycleDependency.EVENTS);
+        }
+
+        assertEquals(Arrays.asList("dependency:init", "bean:init", "bean:destroy", "dependency:destroy"), LifecycleDependency.EVENTS);
+    }
+
+    @Test
+    void overriddenLifecycleMethods() {
+        CompanionContainer container = CompanionContainer.setup();
+
+        container.registerBean(OverridingLifecycleBean.class);
+        OverridingLifecycleBean bean = container.getBean(OverridingLifecycleBean.class);
+        // the overriding method is called once, the overridden one not at all
+        assertEquals(2, bean.events.size());
+        assertTrue(bean.events.containsAll(Arrays.asList("base:other", "overriding:init")));
+
+        // a lifecycle-method overridden without the annotation is not called at all
+        container.registerBean(UnannotatedOverridingLifecycleBean.class);
+        assertEquals(List.of("base:other"), container.getBean(UnannotatedOverridingLifecycleBean.class).events);
+
+        // a package-private method of a superclass in another package is not overridden, so both are called
+        container.registerBean(PackagePrivateLifecycleBean.class);
+        List<String> events = container.getBean(PackagePrivateLifecycleBean.class).events;
+        assertEquals(2, events.size());
+        assertTrue(events.containsAll(Arrays.asList("base:init", "bean:init")));
+
+        assertThrows(BeanComputationException.class, () -> container.registerBean(StaticLifecycleBean.class));
+    }
+
+    public static class LifecycleBase {
+
+        final List<String> events = new ArrayList<>();
+
+        @PostConstruct
+        public void init() {
+            events.add("base:init");
+        }
+
+        @PostConstruct
+        public void other() {
+            events.add("base:other");
+        }
+    }
+
+    public static class OverridingLifecycleBean extends LifecycleBase {
+
+        @Override
+        @PostConstruct
+        public void init() {
+            events.add("overriding:init");
+        }
+    }
+
+    public static class UnannotatedOverridingLifecycleBean extends LifecycleBase {
+
+        @Override
+        public void init() {
+            events.add("unannotated:init");
+        }
+    }
+
+    public static class PackagePrivateLifecycleBean extends PackagePrivateLifecycleBase {
+
+        @PostConstruct
+        void init() {
+            events.add("bean:init");
+        }
+    }
+
+    public static class StaticLifecycleBean {
+
+        @PostConstruct
+        public static void init() {
+        }
+    }
+
+    @Test
+    void exportGraph() {
+        CompanionContainer container = CompanionContainer.setup();
+
+        BeanGraph graph = container.exportGraph();
+        BeanGraphNode consumerNode = graph.getNodes().stream().filter(node -> node.getId().equals("myConsumer")).findFirst().orElseThrow();
+        assertEquals(6, consumerNode.getDependencies().size());
+
+        List<BeanGraphNode> criticalPath = graph.getCriticalPath();
+        assertFalse(criticalPath.isEmpty());
+        for (int i = 1; i < criticalPath.size(); i++) {
+            assertTrue(criticalPath.get(i).getDependencies().contains(criticalPath.get(i - 1)));
+        }
+
+        assertTrue(graph.toDot().contains("\"myConsumer\" -> \"someProvider\""));
+        assertTrue(graph.toJson().contains("{\"from\": \"myConsumer\", \"to\": \"someProvider\"}"));
+
+        // the instances of thread-scope beans are created on use, so their creation is not measured
+        String threadScopeBeanId = BeanDefinitionHelper.getBeanId(ThreadScopeBeanImpl.class);
+        BeanGraphNode threadScopeNode = graph.getNodes().stream().filter(node -> node.getId().equals(threadScopeBeanId)).findFirst().orElseThrow();
+        assertFalse(threadScopeNode.isMeasured());
+        assertTrue(consumerNode.isMeasured());
+        assertTrue(graph.toDot().contains("not measured"));
+        assertTrue(graph.toJson().contains("\"scope\": \"Thread\", \"creationNanos\": null"));
+    }
+
+    @Test
+    void runtimeRegistration() throws Exception {
+        CompanionContainer container = CompanionContainer.setup();
+
+        assertThrows(BeanNotFoundException.class, () -> container.getBean(RuntimeService.class));
+        container.registerBean(RuntimeService.class);
+        assertSame(container.getBean("someProvider"), container.getBean(RuntimeService.class).getProvider());
+        assertThrows(IllegalArgumentException.class, () -> container.registerBean(RuntimeService.class));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final String beanId = "runtimeValue" + i;
+                futures.add(executor.submit(() -> container.registerSingleton(beanId, new StringBuilder(beanId))));
+                futures.add(executor.submit(() -> assertNotNull(container.getBean(Consumer.class))));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("runtimeValue" + i, container.getBean("runtimeValue" + i).toString());
+        }
+        assertThrows(IllegalArgumentException.class, () -> container.registerSingleton("someProvider", new Object()));
+    }
+
+    @Test
+    void reloadClasses() throws Exception {
+        CompanionContainer container = CompanionContainer.setup();
+        Path testClasses = Paths.get(CompanionContainerTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        Object provider = container.getBean("someProvider");
+        Object consumer = container.getBean("myConsumer");
+        Field beanDefinitions = CompanionContainer.class.getDeclaredField("beanDefinitions");
+        beanDefinitions.setAccessible(true);
+        BeanDefinition retiredConsumer = ((BeanDefinitionSnapshot) beanDefinitions.get(container)).getById("myConsumer");
+        container.reloadClasses(Set.of(AnotherProvider.class.getName()), List.of(testClasses));
+
+        // the changed bean and its dependents are recreated from the reloaded classes, all other beans are kept
+        Object reloadedConsumer = container.getBean("myConsumer");
+        assertNotSame(consumer, reloadedConsumer);
+        assertNotSame(Consumer.class, reloadedConsumer.getClass());
+        assertEquals(Consumer.class.getName(), reloadedConsumer.getClass().getName());
+        assertSame(provider, container.getBean("someProvider"));
+        assertSame(Provider.class, container.getBean("someProvider").getClass());
+
+        // a reader of the snapshot before the reload gets the reloaded bean instead of a recreated retired one
+        Method getBeanSupplier = CompanionContainer.class.getDeclaredMethod("getBeanSupplier", BeanDefinition.class);
+        getBeanSupplier.setAccessible(true);
+        assertSame(reloadedConsumer, ((BeanSupplier) getBeanSupplier.invoke(container, retiredConsumer)).get());
+    }
+
+    @Test
+    void reloadChangedInterface() throws Exception {
+        CompanionContainer container = CompanionContainer.setup();
+        Path testClasses = Paths.get(CompanionContainerTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        // the implementing bean is reloaded to pick up the changed interface
+        String threadScopeBeanId = BeanDefinitionHelper.getBeanId(ThreadScopeBeanImpl.class);
+        assertTrue(container.getBean(threadScopeBeanId) instanceof ThreadScopeBean);
+        container.reloadClasses(Set.of(ThreadScopeBean.class.getName()), List.of(testClasses));
+
+        Object reloadedThreadScopeBean = container.getBean(threadScopeBeanId);
+        assertFalse(reloadedThreadScopeBean instanceof ThreadScopeBean);
+        assertTrue(Arrays.stream(reloadedThreadScopeBean.getClass().getInterfaces()).anyMatch(type -> type.getName().equals(ThreadScopeBean.class.getName())));
+    }
+
+    @Test
+    void hotReloadTwice(@TempDir Path classDirectory) throws Exception {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setWarmupEnabled(false);
+        CompanionContainer container = CompanionContainer.setup(settings);
+        Path testClasses = Paths.get(CompanionContainerTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        for (Class<?> clazz : List.of(AnotherProvider.class, Consumer.class)) {
+            Path classFile = Paths.get(clazz.getName().replace('.', '/') + ".class");
+            Files.createDirectories(classDirectory.resolve(classFile).getParent());
+            Files.copy(testClasses.resolve(classFile), classDirectory.resolve(classFile));
+        }
+
+        String anotherProviderId = BeanDefinitionHelper.getBeanId(AnotherProvider.class);
+        try (HotReloadWatcher watcher = container.watch(classDirectory)) {
+            // the first recompile reloads AnotherProvider and its dependent Consumer
+            touch(classDirectory, AnotherProvider.class);
+            awaitReloads(watcher, 1);
+            Object anotherProvider = container.getBean(anotherProviderId);
+            assertNotSame(AnotherProvider.class, anotherProvider.getClass());
+
+            // the second recompile reloads Consumer only, which has to be wired with the AnotherProvider of the first one
+            touch(classDirectory, Consumer.class);
+            awaitReloads(watcher, 2);
+            Object consumer = container.getBean("myConsumer");
+            assertSame(anotherProvider, container.getBean(anotherProviderId));
+            Field field = consumer.getClass().getDeclaredField("anotherProvider");
+            field.setAccessible(true);
+            assertSame(anotherProvider, field.get(consumer));
+            assertSame(anotherProvider.getClass(), field.getType());
+        }
+    }
+
+    private static void touch(Path classDirectory, Class<?> clazz) throws Exception {
+        Path classFile = classDirectory.resolve(clazz.getName().replace('.', '/') + ".class");
+        Files.write(classFile, Files.readAllBytes(classFile));
+    }
+
+    private static void awaitReloads(HotReloadWatcher watcher, int reloads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (watcher.getReloadCount() < reloads && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(reloads, watcher.getReloadCount());
+    }
+
+    @Test
+    void scanCache(@TempDir Path scanCacheDirectory) throws Exception {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setWarmupEnabled(false);
+        settings.setScanCacheDirectory(scanCacheDirectory);
+
+        CompanionContainer.setup(settings);
+        Path scanCacheFile = scanCacheDirectory.resolve(ScanCache.FILE_NAME);
+        List<String> entries = Files.readAllLines(scanCacheFile);
+        assertTrue(entries.stream().anyMatch(entry -> entry.startsWith(Consumer.class.getName() + "\t") && entry.endsWith("\ttrue")));
+        assertTrue(entries.stream().anyMatch(entry -> entry.startsWith(Worker.class.getName() + "\t") && entry.endsWith("\tfalse")));
+
+        // unchanged class files are taken from the cache, the cache is not written again
+        long lastModified = Files.getLastModifiedTime(scanCacheFile).toMillis();
+        CompanionContainer container = CompanionContainer.setup(settings);
+        assertNotNull(container.getBean(Consumer.class));
+        assertEquals(lastModified, Files.getLastModifiedTime(scanCacheFile).toMillis());
+    }
+
+    @Test
+    void scanPipeline() {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setWarmupEnabled(false);
+
+        CompanionContainer container = CompanionContainer.setup(settings);
+        assertNotNull(container.getBean(Consumer.class));
+        assertNotNull(container.getBean(ThreadScopeBean.class));
+
+        // scanned classes are loaded without running their static initializers
+        assertFalse(SCANNED_CLASS_INITIALIZED.get());
+    }
+
+    private static final AtomicBoolean SCANNED_CLASS_INITIALIZED = new AtomicBoolean();
+
+    static final class ScannedClass {
+
+        static {
+            SCANNED_CLASS_INITIALIZED.set(true);
+        }
+    }
+
+    @Test
+    void roots() throws Exception {
+        LifecycleDependency.EVENTS.clear();
+
+        try (CompanionContainer container = CompanionContainer.setup(AnotherProvider.class)) {
+            // only the roots and their dependencies are created on setup
+            Set<String> createdBeanIds = container.exportGraph().getNodes().stream().map(BeanGraphNode::getId).collect(Collectors.toSet());
+            assertEquals(Set.of(AnotherProvider.class.getName(), "someProvider"), createdBeanIds);
+
+            // beans outside of the roots are created on demand
+            assertEquals(List.of(), LifecycleDependency.EVENTS);
+            assertNotNull(container.whenReady(LifecycleBean.class).get(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList("dependency:init", "bean:init"), LifecycleDependency.EVENTS);
+            assertNotNull(container.getBean(Consumer.class));
+        }
+    }
+
+    @Test
+    void taskScope() throws Exception {
+        CompanionContainer container = CompanionContainer.setup();
+        TaskScopeBean taskScopeBean = container.getBean(TaskScopeBean.class);
+        assertThrows(IllegalStateException.class, taskScopeBean::getInstance);
+
+        int destroyed = TaskScopeBeanImpl.DESTROYED.get();
+        ExecutorService executor = container.taskScoped(Executors.newFixedThreadPool(2));
+
+        // the task and its hand-off share the instance
+        Object[] instances = container.callInScope(() -> new Object[] { taskScopeBean.getInstance(), executor.submit(taskScopeBean::getInstance).get() });
+        assertSame(instances[0], instances[1]);
+
+        // tasks submitted outside of a task-scope run in a scope of their own
+        assertNotSame(executor.submit(taskScopeBean::getInstance).get(), executor.submit(taskScopeBean::getInstance).get());
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(destroyed + 3, TaskScopeBeanImpl.DESTROYED.get());
+    }
+
+    @Test
+    void genericTypes() {
+        CompanionContainer container = CompanionContainer.setup();
+
+        // the parameterized types are resolved, also through the type variables of AbstractRepository
+        RepositoryConsumer repositoryConsumer = container.getBean(RepositoryConsumer.class);
+        assertEquals(String.class, repositoryConsumer.getStringRepository().getEntityType());
+        assertEquals(Integer.class, repositoryConsumer.getIntegerRepository().getEntityType());
+
+        assertSame(repositoryConsumer.getIntegerRepository(), container.getBean(new TypeLiteral<Repository<Integer>>() {}));
+        assertThrows(BeanNotFoundException.class, () -> container.getBean(new TypeLiteral<Repository<Long>>() {}));
+        assertThrows(NoUniqueBeanFoundException.class, () -> container.getBean(Repository.class));
+    }
+
+    @Test
+    void missingParameterization(@TempDir Path indexDirectory) throws Exception {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setBeanIndexEnabled(true);
+
+        // Repository<String> is no Repository<Long>, so the raw type must not match
+        ValidationReport report = withBeanIndex(indexDirectory, () -> CompanionContainer.validate(settings), StringRepository.class, LongRepositoryConsumer.class);
+        assertEquals(1, report.getProblems().size(), report.toString());
+        assertEquals(1, report.getProblems(ValidationProblem.Type.MissingDependency).size());
+
+        // beans implementing the raw type still match
+        report = withBeanIndex(indexDirectory, () -> CompanionContainer.validate(settings), RawRepository.class, LongRepositoryConsumer.class);
+        assertTrue(report.isValid(), report.toString());
+    }
+
+    public static class LongRepositoryConsumer {
+
+        public LongRepositoryConsumer(Repository<Long> repository) {
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static class RawRepository implements Repository {
+
+        @Override
+        public Class getEntityType() {
+            return Object.class;
+        }
+    }
+
+    @Test
+    void trainingRun(@TempDir Path trainingRunDirectory) throws Exception {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setWarmupEnabled(false);
+        settings.setTrainingRunDirectory(trainingRunDirectory);
+        CompanionContainer.setup(settings);
+
+        List<String> classList = Files.readAllLines(trainingRunDirectory.resolve(TrainingRun.CLASS_LIST_FILE));
+        assertTrue(classList.contains("de/darxun/companion/container/CompanionContainer"));
+        assertTrue(classList.contains("de/darxun/companion/container/Consumer"));
+        assertTrue(classList.contains("de/darxun/companion/container/AbstractSuperWorker"));
+        assertTrue(classList.stream().noneMatch(className -> className.contains("$Proxy")));
+
+        String recipe = Files.readString(trainingRunDirectory.resolve(TrainingRun.RECIPE_FILE));
+        assertTrue(recipe.contains("-XX:SharedClassListFile="));
+    }
+
+    @Test
+    void trainingRunWithScanCache(@TempDir Path directory) throws Exception {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setWarmupEnabled(false);
+        settings.setScanCacheDirectory(directory.resolve("cache"));
+        settings.setTrainingRunDirectory(directory.resolve("training"));
+        CompanionContainer.setup(settings);
+
+        // the scan cache is empty, so the scanned non-bean classes are loaded and recorded as well
+        List<String> classList = Files.readAllLines(directory.resolve("training").resolve(TrainingRun.CLASS_LIST_FILE));
+        assertTrue(classList.contains("de/darxun/companion/container/Consumer"));
+        assertTrue(classList.contains("de/darxun/companion/container/CompanionContainerTest$MissingDependencyBean"));
+    }
+
+    @Test
+    void nativeImageConfig(@TempDir Path outputDirectory) throws Exception {
+        CompanionSettings settings = new CompanionSettings();
+        settings.setBeanIndexEnabled(false);
+        NativeImageConfigGenerator generator = new NativeImageConfigGenerator(CompanionContainer.computeBeanDefinitions(settings));
+        generator.write(outputDirectory);
+
+        String reflectConfig = Files.readString(outputDirectory.resolve(NativeImageConfigGenerator.CONFIG_DIRECTORY).resolve("reflect-config.json"));
+        assertTrue(reflectConfig.contains("{\"name\": \"<init>\", \"parameterTypes\": [\"de.darxun.companion.container.LifecycleDependency\"]}"));
+        assertTrue(reflectConfig.contains("{\"name\": \"init\", \"parameterTypes\": []}"));
+        assertTrue(reflectConfig.contains("{\"name\": \"de.darxun.companion.container.ThreadScopeBean\", \"allPublicMethods\": true}"));
+
+        String proxyConfig = Files.readString(outputDirectory.resolve(NativeImageConfigGenerator.CONFIG_DIRECTORY).resolve("proxy-config.json"));
+        assertTrue(proxyConfig.contains("{\"interfaces\": [\"de.darxun.companion.container.ThreadScopeBean\"]}"));
+        assertFalse(proxyConfig.contains("LifecycleBean"));
+
+        List<String> beanIndex = Files.readAllLines(outputDirectory.resolve(CompanionContainer.BEAN_INDEX));
+        assertTrue(beanIndex.contains(Consumer.class.getName()));
+
+        // only the indexed beans are known to a container reading the bean index
+        CompanionSettings indexSettings = new CompanionSettings();
+        indexSettings.setWarmupEnabled(false);
+        indexSettings.setBeanIndexEnabled(true);
+        CompanionContainer container = withBeanIndex(outputDirectory, () -> CompanionContainer.setup(indexSettings), Provider.class, ThreadScopeBeanImpl.class);
+
+        assertNotNull(container.getBean("someProvider"));
+        assertNotNull(container.getBean(ThreadScopeBean.class).getThread());
+        assertThrows(BeanNotFoundException.class, () -> container.getBean(Consumer.class));
+    }
+
+    @Test
+    void interceptors() {
+        CompanionContainer container = CompanionContainer.setup();
+        GreetingService greetingService = container.getBean(GreetingService.class);
+        CallCountingInterceptor callCountingInterceptor = container.getBean(CallCountingInterceptor.class);
+
+        assertTrue(Proxy.isProxyClass(greetingService.getClass()));
+        // the interceptors of the class wrap the interceptors of the method
+        assertEquals("HELLO COMPANION", greetingService.greet("companion"));
+        assertEquals(9, greetingService.getLength("companion"));
+        assertEquals(2, callCountingInterceptor.getCalls());
+
+        // the interceptor beans are dependencies of the intercepted bean
+        BeanGraphNode node = container.exportGraph().getNodes().stream().filter(n -> n.getClazz() == GreetingServiceImpl.class).findFirst().get();
+        assertEquals(Set.of(CallCountingInterceptor.class, UpperCaseInterceptor.class), node.getDependencies().stream().map(BeanGraphNode::getClazz).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void events() throws Exception {
+        CompanionContainer container = CompanionContainer.setup();
+        EventSubscriber eventSubscriber = container.getBean(EventSubscriber.class);
+
+        container.publish("first");
+        container.publish(new StringBuilder("second"));
+        assertEquals(List.of("charSequence:first", "string:first", "charSequence:second"), eventSubscriber.getEvents());
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            container.publish(i);
+            expected.add(i);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (eventSubscriber.getAsyncEvents().size() < expected.size() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // asynchronous events are delivered in publish order
+        assertEquals(expected, eventSubscriber.getAsyncEvents());
+    }
+
+    @Test
+    void validate(@TempDir Path indexDirectory) throws Exception {
+        assertTrue(CompanionContainer.validate().isValid());
+
+        CompanionSettings settings = new CompanionSettings();
+        settings.setBeanIndexEnabled(true);
+        ValidationReport report = withBeanIndex(indexDirectory, () -> CompanionContainer.validate(settings), MissingDependencyBean.class,
+                AmbiguousDependencyBean.class, FirstCircularBean.class, SecondCircularBean.class, StringRepository.class, IntegerRepository.class);
+
+        assertFalse(report.isValid());
+        assertEquals(6, report.getBeanCount());
+        assertEquals(3, report.getProblems().size(), report.toString());
+        assertTrue(report.getProblems(ValidationProblem.Type.MissingDependency).get(0).getMessage().contains("java.lang.Runnable"));
+        assertTrue(report.getProblems(ValidationProblem.Type.AmbiguousDependency).get(0).getMessage().contains(BeanDefinitionHelper.getBeanId(StringRepository.class)));
+        assertEquals(1, report.getProblems(ValidationProblem.Type.CircularDependency).size());
+        assertEquals(0, FirstCircularBean.INSTANCES.get());
+    }
+
+    /**
+     * Runs the given task with the context class loader providing a bean index of the given classes
+     */
+    private static <T> T withBeanIndex(Path directory, Callable<T> task, Class<?>... beanClasses) throws Exception {
+        Path beanIndex = directory.resolve(CompanionContainer.BEAN_INDEX);
+        Files.createDirectories(beanIndex.getParent());
+        Files.write(beanIndex, Arrays.stream(beanClasses).map(Class::getName).collect(Collectors.toList()));
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[] {directory.toUri().toURL()}, contextClassLoader));
+        try {
+            return task.call();
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    public static class MissingDependencyBean {
+
+        public MissingDependencyBean(Runnable runnable) {
+        }
+    }
+
+    public static class AmbiguousDependencyBean {
+
+        public AmbiguousDependencyBean(Repository repository) {
+        }
+    }
+
+    public static class FirstCircularBean {
+
+        static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        public FirstCircularBean(SecondCircularBean second) {
+            INSTANCES.incrementAndGet();
+        }
+    }
+
+    public static class SecondCircularBean {
+
+        public SecondCircularBean(FirstCircularBean first) {
+        }
+    }
+
+    @Test
+    void injectMembers() {
+        CompanionContainer container = CompanionContainer.setup();
+
+        MemberInjectionTarget target = new MemberInjectionTarget();
+        container.injectMembers(target);
+        assertSame(container.getBean("someProvider"), target.provider);
+        assertSame(container.getBean(AnotherProvider.class), target.anotherProvider);
+        assertSame(container.getBean(Worker.class), target.worker);
+        assertEquals(1, target.workerInjections);
+
+        // the plan of the class is reused, replaced beans are injected while they are replaced
+        Provider replacement = new Provider();
+        container.overrideBean("someProvider", replacement);
+        MemberInjectionTarget other = new MemberInjectionTarget();
+        container.injectMembers(other);
+        assertSame(replacement, other.provider);
+        container.clearOverrides();
+
+        assertThrows(BeanCreationException.class, () -> container.injectMembers(new MissingDependencyTarget()));
+    }
+
+    public static class MemberInjectionBase {
+
+        @Inject
+        protected AnotherProvider anotherProvider;
+    }
+
+    public static class MemberInjectionTarget extends MemberInjectionBase {
+
+        @Inject
+        @Named("someProvider")
+        private Provider provider;
+
+        private Worker worker;
+
+        private int workerInjections;
+
+        @Inject
+        void setWorker(Worker worker) {
+            this.worker = worker;
+            workerInjections++;
+        }
+    }
+
+    public static class MissingDependencyTarget {
+
+        @Inject
+        private Runnable runnable;
+    }
+
+    @Test
+    void async() throws Exception {
+        AsyncService asyncService;
+        try (CompanionContainer container = CompanionContainer.setup()) {
+            asyncService = container.getBean(AsyncService.class);
+
+            // @Async-methods declared on the interface or on the bean class run on the async executor, other methods on the calling thread
+            assertNotSame(Thread.currentThread(), asyncService.getThread().get(10, TimeUnit.SECONDS));
+            assertSame(Thread.currentThread(), asyncService.getCallingThread().get(10, TimeUnit.SECONDS));
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> asyncService.fail().get(10, TimeUnit.SECONDS));
+            assertEquals(IllegalStateException.class, e.getCause().getClass());
+
+            assertThrows(BeanComputationException.class, () -> container.registerBean(InvalidAsyncBean.class));
+
+            // the executor thread is neither the calling thread nor part of the callers task
+            BeanComputationException scopeException = assertThrows(BeanComputationException.class, () -> container.registerBean(ThreadScopeAsyncBean.class));
+            assertTrue(scopeException.getCause().getMessage().contains("@Async"), scopeException.getCause().getMessage());
+            assertThrows(BeanComputationException.class, () -> container.registerBean(TaskScopeAsyncBean.class));
+        }
+
+        // the executor of the container is shut down on close
+        assertThrows(RejectedExecutionException.class, asyncService::getThread);
+    }
+
+    @ThreadScope
+    public static class ThreadScopeAsyncBean implements Runnable {
+
+        @Override
+        @Async
+        public void run() {
+        }
+    }
+
+    @TaskScope
+    public static class TaskScopeAsyncBean implements Runnable {
+
+        @Override
+        @Async
+        public void run() {
+        }
+    }
+
+    public static class InvalidAsyncBean implements Runnable {
+
+        @Override
+        @Async
+        public void run() {
+        }
+
+        @Async
+        public String getName() {
+            return "invalid";
+        }
+    }
+
+    @Test
+    void footprint() throws Exception {
+        CompanionContainer container = CompanionContainer.setup();
+        ThreadScopeBean threadScopeBean = container.getBean(ThreadScopeBean.class);
+
+        Thread thread = new Thread(threadScopeBean::getThread);
+        thread.start();
+        thread.join();
+        threadScopeBean.getThread();
+
+        FootprintReport report = container.exportFootprint();
+
+        BeanFootprint consumer = report.getBeanFootprint("myConsumer");
+        assertEquals(BeanScope.Singleton, consumer.getScope());
+        assertEquals(1, consumer.getInstanceCount());
+        assertTrue(consumer.getShallowBytes() > 0);
+        assertTrue(consumer.getReachableBytes() >= consumer.getRetainedBytes());
+
+        // only the instances of live threads are reported
+        assertEquals(1, report.getBeanFootprint(BeanDefinitionHelper.getBeanId(ThreadScopeBeanImpl.class)).getInstanceCount());
+
+        // the events recorded by the subscriber are retained by it
+        EventSubscriber eventSubscriber = container.getBean(EventSubscriber.class);
+        long retainedBytes = report.getBeanFootprint(BeanDefinitionHelper.getBeanId(EventSubscriber.class)).getRetainedBytes();
+        for (int i = 0; i < 100; i++) {
+            container.publish("event " + i);
+        }
+        assertTrue(container.exportFootprint().getBeanFootprint(BeanDefinitionHelper.getBeanId(EventSubscriber.class)).getRetainedBytes() > retainedBytes + 100 * 16);
+        assertEquals(200, eventSubscriber.getEvents().size());
+    }
+}
@@ -0,0 +1,38 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.Subscribe;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Bean
+public class EventSubscriber {
+
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    private final List<Integer> asyncEvents = new CopyOnWriteArrayList<>();
+
+    @Subscribe
+    public void onString(String event) {
+        events.add("string:" + event);
+    }
+
+    @Subscribe
+    public void onCharSequence(CharSequence event) {
+        events.add("charSequence:" + event);
+    }
+
+    @Subscribe(async = true)
+    public void onInteger(Integer event) {
+        asyncEvents.add(event);
+    }
+
+    public List<String> getEvents() {
+        return events;
+    }
+
+    public List<Integer> getAsyncEvents() {
+        return asyncEvents;
+    }
+}
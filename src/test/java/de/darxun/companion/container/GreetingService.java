@@ -0,0 +1,9 @@
+package de.darxun.companion.container;
+
+public interface GreetingService {
+
+    String greet(String name);
+
+    int getLength(String name);
+
+}
@@ -0,0 +1,20 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.Intercept;
+
+@Bean
+@Intercept(CallCountingInterceptor.class)
+public class GreetingServiceImpl implements GreetingService {
+
+    @Override
+    @Intercept(UpperCaseInterceptor.class)
+    public String greet(String name) {
+        return "hello " + name;
+    }
+
+    @Override
+    public int getLength(String name) {
+        return name.length();
+    }
+}
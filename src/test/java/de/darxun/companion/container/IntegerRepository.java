@@ -0,0 +1,11 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+
+@Bean
+public class IntegerRepository extends AbstractRepository<Integer> {
+
+    public IntegerRepository() {
+        super(Integer.class);
+    }
+}
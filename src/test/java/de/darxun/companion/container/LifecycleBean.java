@@ -0,0 +1,28 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+@Bean
+public class LifecycleBean {
+
+    private final LifecycleDependency dependency;
+
+    @Inject
+    public LifecycleBean(LifecycleDependency dependency) {
+        this.dependency = dependency;
+    }
+
+    @PostConstruct
+    public void init() {
+        LifecycleDependency.EVENTS.add("bean:init");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        LifecycleDependency.EVENTS.add("bean:destroy");
+    }
+}
@@ -0,0 +1,24 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Bean
+public class LifecycleDependency {
+
+    static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    void init() {
+        EVENTS.add("dependency:init");
+    }
+
+    @PreDestroy
+    void destroy() {
+        EVENTS.add("dependency:destroy");
+    }
+}
@@ -0,0 +1,13 @@
+package de.darxun.companion.container;
+
+public interface PooledBean {
+
+    int process(int value);
+
+    void run(Runnable action);
+
+    boolean isDestroyed();
+
+    PrototypeBean getPrototype();
+
+}
@@ -0,0 +1,58 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.Pooled;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+@Bean
+@Pooled(max = 2, timeoutMillis = 500)
+public class PooledBeanImpl implements PooledBean {
+
+    private final PrototypeBean prototype;
+
+    private boolean inUse;
+
+    private volatile boolean destroyed;
+
+    @Inject
+    public PooledBeanImpl(PrototypeBean prototype) {
+        this.prototype = prototype;
+    }
+
+    @Override
+    public int process(int value) {
+        if (inUse) {
+            throw new IllegalStateException("Instance is used concurrently");
+        }
+
+        inUse = true;
+        try {
+            Thread.yield();
+            return value * 2;
+        } finally {
+            inUse = false;
+        }
+    }
+
+    @Override
+    public void run(Runnable action) {
+        action.run();
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    @Override
+    public PrototypeBean getPrototype() {
+        return prototype;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        destroyed = true;
+    }
+}
@@ -0,0 +1,23 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.Prototype;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+@Bean
+@Prototype
+public class PrototypeBean {
+
+    private final Provider provider;
+
+    @Inject
+    public PrototypeBean(@Named("someProvider") Provider provider) {
+        this.provider = provider;
+    }
+
+    public Provider getProvider() {
+        return provider;
+    }
+}
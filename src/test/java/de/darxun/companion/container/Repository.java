@@ -0,0 +1,7 @@
+package de.darxun.companion.container;
+
+public interface Repository<T> {
+
+    Class<T> getEntityType();
+
+}
@@ -0,0 +1,27 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+
+import javax.inject.Inject;
+
+@Bean
+public class RepositoryConsumer {
+
+    private final Repository<String> stringRepository;
+
+    private final Repository<Integer> integerRepository;
+
+    @Inject
+    public RepositoryConsumer(Repository<String> stringRepository, Repository<Integer> integerRepository) {
+        this.stringRepository = stringRepository;
+        this.integerRepository = integerRepository;
+    }
+
+    public Repository<String> getStringRepository() {
+        return stringRepository;
+    }
+
+    public Repository<Integer> getIntegerRepository() {
+        return integerRepository;
+    }
+}
@@ -0,0 +1,16 @@
+package de.darxun.companion.container;
+
+import javax.inject.Named;
+
+public class RuntimeService {
+
+    private final Provider provider;
+
+    public RuntimeService(@Named("someProvider") Provider provider) {
+        this.provider = provider;
+    }
+
+    public Provider getProvider() {
+        return provider;
+    }
+}
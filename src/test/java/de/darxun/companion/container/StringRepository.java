@@ -0,0 +1,12 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+
+@Bean
+public class StringRepository implements Repository<String> {
+
+    @Override
+    public Class<String> getEntityType() {
+        return String.class;
+    }
+}
@@ -0,0 +1,7 @@
+package de.darxun.companion.container;
+
+public interface StripedBean {
+
+    Object getInstance();
+
+}
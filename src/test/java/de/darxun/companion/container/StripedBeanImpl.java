@@ -0,0 +1,14 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.Striped;
+
+@Bean
+@Striped(stripes = 4)
+public class StripedBeanImpl implements StripedBean {
+
+    @Override
+    public Object getInstance() {
+        return this;
+    }
+}
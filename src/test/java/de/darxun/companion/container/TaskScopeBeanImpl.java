@@ -0,0 +1,24 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.TaskScope;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Bean
+@TaskScope
+public class TaskScopeBeanImpl implements TaskScopeBean {
+
+    static final AtomicInteger DESTROYED = new AtomicInteger();
+
+    @Override
+    public Object getInstance() {
+        return this;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        DESTROYED.incrementAndGet();
+    }
+}
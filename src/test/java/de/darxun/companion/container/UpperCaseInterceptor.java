@@ -0,0 +1,32 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.MethodInterceptor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+@Bean
+public class UpperCaseInterceptor implements MethodInterceptor {
+
+    private static final MethodHandle UPPER_CASE;
+
+    static {
+        try {
+            UPPER_CASE = MethodHandles.lookup().findStatic(UpperCaseInterceptor.class, "upperCase", MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public MethodHandle intercept(Method method, MethodHandle target) {
+        return MethodHandles.filterReturnValue(target, UPPER_CASE);
+    }
+
+    private static Object upperCase(Object value) {
+        return ((String) value).toUpperCase();
+    }
+}
@@ -0,0 +1,21 @@
+package de.darxun.companion.container;
+
+import de.darxun.companion.api.Bean;
+import de.darxun.companion.api.Warmup;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Bean
+public class WarmupBean {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Warmup(iterations = 100)
+    public void warmup() {
+        calls.incrementAndGet();
+    }
+
+    public int getCalls() {
+        return calls.get();
+    }
+}
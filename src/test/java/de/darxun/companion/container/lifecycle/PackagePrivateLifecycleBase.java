@@ -0,0 +1,15 @@
+package de.darxun.companion.container.lifecycle;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PackagePrivateLifecycleBase {
+
+    public final List<String> events = new ArrayList<>();
+
+    @PostConstruct
+    void init() {
+        events.add("base:init");
+    }
+}
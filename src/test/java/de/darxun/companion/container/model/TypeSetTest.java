@@ -0,0 +1,75 @@
+package de.darxun.companion.container.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeSetTest {
+
+    @Test
+    void interning() {
+        TypeSet first = TypeSet.of(Set.of(Runnable.class, Serializable.class));
+        TypeSet second = TypeSet.EMPTY.with(Serializable.class).with(Runnable.class);
+
+        assertSame(first, second);
+        assertTrue(first.contains(Runnable.class));
+        assertTrue(first.contains(Serializable.class));
+        assertFalse(first.contains(Comparable.class));
+        assertEquals(Set.of(Runnable.class, Serializable.class), first.toSet());
+
+        TypeSet union = first.union(TypeSet.of(Set.of(Comparable.class)));
+        assertTrue(union.contains(Comparable.class));
+        assertSame(union, TypeSet.of(Set.of(Comparable.class, Runnable.class, Serializable.class)));
+        assertTrue(TypeSet.of(Set.of()).isEmpty());
+    }
+
+    @Test
+    void typesAreNotRetained() throws Exception {
+        WeakReference<ClassLoader> classLoader = indexIsolatedType();
+
+        for (int i = 0; i < 50 && classLoader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertNull(classLoader.get(), "the index and the intern table must not retain indexed types");
+
+        // the id of the collected type is reused, e.g. by the reloaded class
+        int size = TypeIndex.size();
+        indexIsolatedType();
+        assertEquals(size, TypeIndex.size());
+    }
+
+    @Test
+    void lookupDoesNotAssignIds() {
+        TypeSet typeSet = TypeSet.of(Set.of(Runnable.class));
+        int size = TypeIndex.size();
+
+        assertFalse(typeSet.contains(AutoCloseable.class));
+        assertEquals(-1, TypeIndex.getId(AutoCloseable.class));
+        assertEquals(size, TypeIndex.size());
+    }
+
+    /**
+     * Indexes a type of its own class loader, the set and the class loader are unreachable afterwards
+     */
+    private static WeakReference<ClassLoader> indexIsolatedType() throws Exception {
+        URL classes = TypeSetTest.class.getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader classLoader = new URLClassLoader(new URL[] {classes}, null);
+        Class<?> type = classLoader.loadClass("de.darxun.companion.container.Repository");
+        assertNotSame(type, Class.forName("de.darxun.companion.container.Repository"));
+
+        TypeSet typeSet = TypeSet.of(Set.of(type, Runnable.class));
+        assertTrue(typeSet.contains(type));
+        assertEquals(Set.of(type, Runnable.class), typeSet.toSet());
+
+        classLoader.close();
+        return new WeakReference<>(classLoader);
+    }
+}
@@ -0,0 +1,65 @@
+package de.darxun.companion.junit;
+
+import de.darxun.companion.container.AnotherProvider;
+import de.darxun.companion.container.CompanionContainer;
+import de.darxun.companion.container.Consumer;
+import de.darxun.companion.container.Provider;
+import de.darxun.companion.container.ThreadScopeBean;
+import de.darxun.companion.container.ThreadScopeBeanImpl;
+import de.darxun.companion.container.util.BeanDefinitionHelper;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@CompanionTest
+class CompanionExtensionTest {
+
+    /** the container of the configuration, shared with the other test classes of the same configuration */
+    static final AtomicReference<CompanionContainer> SHARED_CONTAINER = new AtomicReference<>();
+
+    @ReplaceBean("someProvider")
+    private final Provider provider = new Provider() {
+        @Override
+        public String getData() {
+            return "test data";
+        }
+    };
+
+    @Test
+    void sharesContainer(CompanionContainer container) {
+        SHARED_CONTAINER.compareAndSet(null, container);
+        assertSame(SHARED_CONTAINER.get(), container);
+    }
+
+    @Test
+    void replacesBeans(CompanionContainer container) {
+        SHARED_CONTAINER.compareAndSet(null, container);
+        assertSame(SHARED_CONTAINER.get(), container);
+
+        assertSame(provider, container.getBean("someProvider"));
+
+        // beans depending on the replaced bean are recreated on top of it, other beans are shared
+        AnotherProvider anotherProvider = container.getBean(AnotherProvider.class);
+        assertEquals("other data and data from provider: test data", anotherProvider.getData());
+        assertTrue(container.getBean(Consumer.class).doConsume().contains("test data"));
+
+        container.clearOverrides();
+        assertNotSame(provider, container.getBean("someProvider"));
+        assertEquals("other data and data from provider: some data", container.getBean(AnotherProvider.class).getData());
+    }
+
+    @Test
+    void resetsThreadScope(CompanionContainer container) {
+        SHARED_CONTAINER.compareAndSet(null, container);
+        assertSame(SHARED_CONTAINER.get(), container);
+
+        String threadScopeBeanId = BeanDefinitionHelper.getBeanId(ThreadScopeBeanImpl.class);
+        container.getBean(ThreadScopeBean.class).getThread();
+        assertEquals(1, container.exportFootprint().getBeanFootprint(threadScopeBeanId).getInstanceCount());
+
+        container.resetThreadScope();
+        assertEquals(0, container.exportFootprint().getBeanFootprint(threadScopeBeanId).getInstanceCount());
+    }
+}
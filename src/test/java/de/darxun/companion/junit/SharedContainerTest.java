@@ -0,0 +1,21 @@
+package de.darxun.companion.junit;
+
+import de.darxun.companion.container.CompanionContainer;
+import de.darxun.companion.container.Provider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@CompanionTest
+class SharedContainerTest {
+
+    @Test
+    void sharesContainerAcrossTestClasses(CompanionContainer container) {
+        // whichever test class of the configuration runs first sets up the container, the other one gets the same
+        CompanionExtensionTest.SHARED_CONTAINER.compareAndSet(null, container);
+        assertSame(CompanionExtensionTest.SHARED_CONTAINER.get(), container);
+
+        // the beans replaced by CompanionExtensionTest are not replaced here
+        assertEquals("some data", container.getBean("someProvider", Provider.class).getData());
+    }
+}
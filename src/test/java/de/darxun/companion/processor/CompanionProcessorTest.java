@@ -0,0 +1,173 @@
+package de.darxun.companion.processor;
+
+import de.darxun.companion.BeanContainer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.tools.*;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompanionProcessorTest {
+
+    private static final Map<String, String> VALID_SOURCES = Map.of(
+            "app/Greeter.java", "package app; public interface Greeter { String greet(String name); }",
+            "app/GreeterImpl.java", "package app; @de.darxun.companion.api.Bean @de.darxun.companion.api.ThreadScope "
+                    + "public class GreeterImpl implements Greeter { public String greet(String name) { return \"Hello \" + name + \" from \" + Thread.currentThread().getName(); } }",
+            "app/Provider.java", "package app; @de.darxun.companion.api.Bean(\"someProvider\") public class Provider { "
+                    + "public boolean initialized; @javax.annotation.PostConstruct public void init() { initialized = true; } }",
+            "app/Request.java", "package app; @de.darxun.companion.api.Bean @de.darxun.companion.api.Prototype public class Request { }",
+            "app/Consumer.java", "package app; @de.darxun.companion.api.Bean public class Consumer { "
+                    + "public final Provider provider; public final Greeter greeter; public final Request request; "
+                    + "public Consumer(@javax.inject.Named(\"someProvider\") Provider provider, Greeter greeter, Request request) { "
+                    + "this.provider = provider; this.greeter = greeter; this.request = request; } }");
+
+    @Test
+    void generateContainer(@TempDir Path directory) throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = compile(directory, VALID_SOURCES);
+        assertEquals(List.of(), errors(diagnostics));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.resolve("classes").toUri().toURL() }, getClass().getClassLoader());
+             BeanContainer container = (BeanContainer) classLoader.loadClass("app.GeneratedCompanionContainer").getConstructor().newInstance()) {
+            Class<?> consumerClass = classLoader.loadClass("app.Consumer");
+            Object consumer = container.getBean(consumerClass);
+            Object provider = container.getBean("someProvider");
+
+            assertSame(consumer, container.getBean("app.Consumer"));
+            assertSame(provider, consumerClass.getField("provider").get(consumer));
+            assertTrue(provider.getClass().getField("initialized").getBoolean(provider));
+            // prototype-beans are created on every lookup
+            assertNotSame(container.getBean("app.Request"), container.getBean("app.Request"));
+
+            // thread-scope beans are injected as delegate calling the instance of the current thread
+            Object greeter = consumerClass.getField("greeter").get(consumer);
+            Object greeting = classLoader.loadClass("app.Greeter").getMethod("greet", String.class).invoke(greeter, "companion");
+            assertEquals("Hello companion from " + Thread.currentThread().getName(), greeting);
+        }
+
+        String source = Files.readString(directory.resolve("generated/app/GeneratedCompanionContainer.java"));
+        assertTrue(source.contains("new app.Consumer(bean"));
+        assertFalse(source.contains("java.lang.reflect"));
+    }
+
+    @Test
+    void resolveGenericDependencies(@TempDir Path directory) throws Exception {
+        List<String> errors = errors(compile(directory, Map.of(
+                "app/Repository.java", "package app; public interface Repository<T> { }",
+                "app/AbstractRepository.java", "package app; public abstract class AbstractRepository<T> implements Repository<T> { }",
+                "app/StringRepository.java", "package app; @de.darxun.companion.api.Bean public class StringRepository implements Repository<String> { }",
+                "app/IntegerRepository.java", "package app; @de.darxun.companion.api.Bean public class IntegerRepository extends AbstractRepository<Integer> { }",
+                "app/Consumer.java", "package app; @de.darxun.companion.api.Bean public class Consumer { "
+                        + "public Consumer(Repository<String> strings, Repository<Integer> integers) { } }")));
+
+        assertEquals(List.of(), errors);
+        assertTrue(Files.readString(directory.resolve("generated/app/GeneratedCompanionContainer.java")).contains("new app.Consumer(bean0, bean1)"));
+    }
+
+    @Test
+    void reportMissingDependency(@TempDir Path directory) throws Exception {
+        List<String> errors = errors(compile(directory, Map.of(
+                "app/Consumer.java", "package app; @de.darxun.companion.api.Bean public class Consumer { public Consumer(Runnable runnable) { } }")));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("No bean found for dependency java.lang.Runnable"), errors.get(0));
+    }
+
+    @Test
+    void reportMissingParameterization(@TempDir Path directory) throws Exception {
+        List<String> errors = errors(compile(directory, Map.of(
+                "app/Repository.java", "package app; public interface Repository<T> { }",
+                "app/StringRepository.java", "package app; @de.darxun.companion.api.Bean public class StringRepository implements Repository<String> { }",
+                "app/Consumer.java", "package app; @de.darxun.companion.api.Bean public class Consumer { public Consumer(Repository<Long> longs) { } }")));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("No bean found for dependency app.Repository"), errors.get(0));
+    }
+
+    @Test
+    void reportAmbiguousDependency(@TempDir Path directory) throws Exception {
+        List<String> errors = errors(compile(directory, Map.of(
+                "app/First.java", "package app; @de.darxun.companion.api.Bean public class First implements Runnable { public void run() { } }",
+                "app/Second.java", "package app; @de.darxun.companion.api.Bean public class Second implements Runnable { public void run() { } }",
+                "app/Consumer.java", "package app; @de.darxun.companion.api.Bean public class Consumer { public Consumer(Runnable runnable) { } }")));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("No unique bean found for dependency java.lang.Runnable"), errors.get(0));
+    }
+
+    @Test
+    void reportCircularDependency(@TempDir Path directory) throws Exception {
+        List<String> errors = errors(compile(directory, Map.of(
+                "app/First.java", "package app; @de.darxun.companion.api.Bean public class First { public First(Second second) { } }",
+                "app/Second.java", "package app; @de.darxun.companion.api.Bean public class Second { public Second(First first) { } }")));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("Circular dependency found"), errors.get(0));
+    }
+
+    @Test
+    void skipLifecycleMethodOverriddenWithoutAnnotation(@TempDir Path directory) throws Exception {
+        List<String> errors = errors(compile(directory, Map.of(
+                "app/Base.java", "package app; public class Base { @javax.annotation.PostConstruct public void init() { } "
+                        + "@javax.annotation.PostConstruct public void other() { } }",
+                "app/Bean.java", "package app; @de.darxun.companion.api.Bean public class Bean extends Base { @Override public void init() { } }")));
+
+        assertEquals(List.of(), errors);
+        String source = Files.readString(directory.resolve("generated/app/GeneratedCompanionContainer.java"));
+        assertTrue(source.contains(".other();"), source);
+        assertFalse(source.contains(".init();"), source);
+    }
+
+    private static List<Diagnostic<? extends JavaFileObject>> compile(Path directory, Map<String, String> sources) throws Exception {
+        Path sourceDirectory = directory.resolve("sources");
+        Path classDirectory = Files.createDirectories(directory.resolve("classes"));
+        Path generatedDirectory = Files.createDirectories(directory.resolve("generated"));
+
+        List<File> sourceFiles = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path sourceFile = sourceDirectory.resolve(source.getKey());
+            Files.createDirectories(sourceFile.getParent());
+            Files.writeString(sourceFile, source.getValue());
+            sourceFiles.add(sourceFile.toFile());
+        }
+
+        // the classpath of the forked test JVM may be a manifest-only jar, so the required locations are passed explicitly
+        String classpath = List.of(BeanContainer.class, Inject.class, PostConstruct.class).stream()
+                .map(clazz -> {
+                    try {
+                        return Paths.get(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }).collect(Collectors.joining(File.pathSeparator));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    List.of("-classpath", classpath, "-d", classDirectory.toString(), "-s", generatedDirectory.toString(), "-Acompanion.generate"),
+                    null, fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+            task.setProcessors(List.of(new CompanionProcessor()));
+            task.call();
+        }
+
+        return diagnostics.getDiagnostics();
+    }
+
+    private static List<String> errors(List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        return diagnostics.stream().filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null)).collect(Collectors.toList());
+    }
+}